@@ -21,10 +21,6 @@ public class ConfigureSystemApi {
     @Autowired
     private final SystemConfigureService systemConfigureService;
 
-    public ConfigureSystemApi(SystemConfigureService systemConfigureService) {
-        this.systemConfigureService = systemConfigureService;
-    }
-
     // Get configure system status
     @GetMapping("/status")
     public ResponseEntity<StandardResponse> systemStatus() {
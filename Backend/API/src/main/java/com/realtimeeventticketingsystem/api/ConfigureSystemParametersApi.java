@@ -1,5 +1,6 @@
 package com.realtimeeventticketingsystem.api;
 
+import com.realtimeeventticketingsystem.dto.SystemConfiguration;
 import com.realtimeeventticketingsystem.dto.request.SystemConfigRequestDto;
 import com.realtimeeventticketingsystem.service.SystemConfigureService;
 import com.realtimeeventticketingsystem.util.StandardResponse;
@@ -17,6 +18,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ConfigureSystemParametersApi {
 
+    // Bounds of the release and retrieval intervals (0.1 ms to 5 minutes)
+    private static final int MIN_INTERVAL_US = 100;
+    private static final int MAX_INTERVAL_US = 300_000_000;
+
     private final SystemConfigureService systemConfigureService;
 
     // Get configure system parameters status
@@ -27,48 +32,49 @@ public class ConfigureSystemParametersApi {
                 systemConfigureService.findAllConfig()), HttpStatus.OK);
     }
 
-    // Update configure system parameters
+    // Update configure system parameters, all of them or none
     @PatchMapping("/update")
     public ResponseEntity<StandardResponse> updateSystemConfigs(
             @RequestBody SystemConfigRequestDto systemConfigRequestDto) {
 
-        int maxTicketCapacity = systemConfigureService.findConfigValue("max_ticket_capacity");
-
-        if (systemConfigRequestDto.getTotal_tickets() <= 0
-                || maxTicketCapacity < systemConfigRequestDto.getTotal_tickets()) {
+        if (systemConfigRequestDto.getMax_ticket_capacity() <= 0) {
             return new ResponseEntity<>(new StandardResponse(400,
-                    "Invalid total_tickets it must be between 1 and Max Ticket Capacity " + maxTicketCapacity,
+                    "You must specify max_ticket_capacity greater than 1",
                     null),HttpStatus.BAD_REQUEST);
         }
 
-        if (systemConfigRequestDto.getTicket_release_rate() <= 0
-                || systemConfigRequestDto.getTicket_release_rate() > 300) {
+        // Checked against the capacity written together with it
+        int maxTicketCapacity = systemConfigRequestDto.getMax_ticket_capacity();
+        if (systemConfigRequestDto.getTotal_tickets() <= 0
+                || maxTicketCapacity < systemConfigRequestDto.getTotal_tickets()) {
             return new ResponseEntity<>(new StandardResponse(400,
-                    "Invalid ticket_release_rate it must be between 1s and 300s",
+                    "Invalid total_tickets it must be between 1 and Max Ticket Capacity " + maxTicketCapacity,
                     null),HttpStatus.BAD_REQUEST);
         }
 
-        if (systemConfigRequestDto.getCustomer_retrieval_rate() <= 0
-                || systemConfigRequestDto.getCustomer_retrieval_rate() > 300) {
+        long ticketReleaseInterval = intervalMicros(systemConfigRequestDto.getTicket_release_interval_us(),
+                systemConfigRequestDto.getTicket_release_rate());
+        if (ticketReleaseInterval < MIN_INTERVAL_US || ticketReleaseInterval > MAX_INTERVAL_US) {
             return new ResponseEntity<>(new StandardResponse(400,
-                    "You must specify customer_retrieval_rate it must be between 1s and 300s",
+                    "Invalid ticket_release_interval_us it must be between 100us and 300s " +
+                            "(or ticket_release_rate between 1s and 300s)",
                     null),HttpStatus.BAD_REQUEST);
         }
 
-        if (systemConfigRequestDto.getMax_ticket_capacity() <= 0) {
+        long customerRetrievalInterval = intervalMicros(systemConfigRequestDto.getCustomer_retrieval_interval_us(),
+                systemConfigRequestDto.getCustomer_retrieval_rate());
+        if (customerRetrievalInterval < MIN_INTERVAL_US || customerRetrievalInterval > MAX_INTERVAL_US) {
             return new ResponseEntity<>(new StandardResponse(400,
-                    "You must specify max_ticket_capacity greater than 1",
+                    "You must specify customer_retrieval_interval_us it must be between 100us and 300s " +
+                            "(or customer_retrieval_rate between 1s and 300s)",
                     null),HttpStatus.BAD_REQUEST);
         }
 
-        systemConfigureService.updateConfigValue("total_tickets",
-                systemConfigRequestDto.getTotal_tickets());
-        systemConfigureService.updateConfigValue("ticket_release_rate",
-                systemConfigRequestDto.getTicket_release_rate());
-        systemConfigureService.updateConfigValue("customer_retrieval_rate",
-                systemConfigRequestDto.getCustomer_retrieval_rate());
-        systemConfigureService.updateConfigValue("max_ticket_capacity",
-                systemConfigRequestDto.getMax_ticket_capacity());
+        systemConfigureService.updateSystemConfiguration(new SystemConfiguration(
+                systemConfigRequestDto.getTotal_tickets(),
+                (int) ticketReleaseInterval,
+                (int) customerRetrievalInterval,
+                maxTicketCapacity));
 
 
         return new ResponseEntity<>(new StandardResponse(200,
@@ -76,4 +82,12 @@ public class ConfigureSystemParametersApi {
                 null), HttpStatus.OK);
     }
 
+    // Interval in microseconds, from the microsecond field or else the former seconds field; -1 if neither is set
+    private static long intervalMicros(Integer micros, Integer seconds) {
+        if (micros != null) {
+            return micros;
+        }
+        return seconds != null ? seconds * 1_000_000L : -1;
+    }
+
 }
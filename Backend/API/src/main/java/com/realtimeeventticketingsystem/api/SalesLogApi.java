@@ -1,11 +1,13 @@
 package com.realtimeeventticketingsystem.api;
 
+import com.realtimeeventticketingsystem.dto.request.SalesLogFilterDto;
 import com.realtimeeventticketingsystem.service.SalesLogService;
 import com.realtimeeventticketingsystem.util.StandardResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,26 +20,28 @@ public class SalesLogApi {
 
     private final SalesLogService salesLogService;
 
-    // Get customer list
+    // Search sales logs by word prefixes of vendor names and seats, or by ID; best matches first when ranked
     @GetMapping("/search")
     public ResponseEntity<StandardResponse> findAllWithText(
             @RequestParam String search_text,
+            @RequestParam(defaultValue = "false") boolean ranked,
             @RequestParam int page,
             @RequestParam int size
     ){
         return new ResponseEntity<>(new StandardResponse(200,
                 "Successfully search Sales Logs",
-                salesLogService.findAll(search_text, page, size)), HttpStatus.OK);
+                salesLogService.findAll(search_text, ranked, page, size)), HttpStatus.OK);
     }
 
-    // Get customer list
+    // Get sales log list, newest first, optionally filtered by event, type, actor, VIP flag and time range
     @GetMapping("/")
     public ResponseEntity<StandardResponse> findAllWithoutText(
+            @ModelAttribute SalesLogFilterDto filter,
             @RequestParam int page,
             @RequestParam int size
     ){
         return new ResponseEntity<>(new StandardResponse(200,
                 "Successfully search Sales Logs",
-                salesLogService.findAll(page, size)), HttpStatus.OK);
+                salesLogService.findAll(filter, page, size)), HttpStatus.OK);
     }
 }
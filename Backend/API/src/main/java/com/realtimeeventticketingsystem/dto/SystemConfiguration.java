@@ -0,0 +1,9 @@
+package com.realtimeeventticketingsystem.dto;
+
+
+// Ticket settings of the default event and the system intervals, read and written together
+public record SystemConfiguration(int totalTickets,
+                                  int ticketReleaseIntervalUs,
+                                  int customerRetrievalIntervalUs,
+                                  int maxTicketCapacity) {
+}
@@ -0,0 +1,21 @@
+package com.realtimeeventticketingsystem.dto.request;
+
+import com.realtimeeventticketingsystem.entity.SalesLog;
+import lombok.*;
+
+
+// Optional filters of the sales log listing; null fields do not filter
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class SalesLogFilterDto {
+    private Integer event_id;
+    private SalesLog.EventType event_type;
+    private SalesLog.ActorType actor_type;
+    private Integer actor_id;
+    private Boolean vip;
+    private Long from; // Epoch milliseconds, inclusive
+    private Long to; // Epoch milliseconds, exclusive
+}
@@ -10,7 +10,9 @@ import lombok.*;
 @Builder
 public class SystemConfigRequestDto {
     private int total_tickets;
-    private int ticket_release_rate;
-    private int customer_retrieval_rate;
+    private Integer ticket_release_interval_us;
+    private Integer customer_retrieval_interval_us;
+    private Integer ticket_release_rate; // Seconds, used when ticket_release_interval_us is not given
+    private Integer customer_retrieval_rate; // Seconds, used when customer_retrieval_interval_us is not given
     private int max_ticket_capacity;
 }
@@ -1,5 +1,6 @@
 package com.realtimeeventticketingsystem.dto.response;
 
+import com.realtimeeventticketingsystem.entity.SalesLog;
 import lombok.*;
 
 
@@ -10,6 +11,14 @@ import lombok.*;
 @Builder
 public class ResponseSalesLogDto {
     private int id;
-    private String timeAndDate;
-    private String log;
+    private long occurredAt;
+    private SalesLog.EventType eventType;
+    private SalesLog.ActorType actorType;
+    private int actorId;
+    private String actorName;
+    private boolean vip;
+    private int quantity;
+    private int eventId;
+    private String seats;
+    private String snippet; // Vendor name and seats with the words matching a search in <mark>, null otherwise
 }
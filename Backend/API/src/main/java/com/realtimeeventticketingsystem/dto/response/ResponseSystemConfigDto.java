@@ -10,7 +10,9 @@ import lombok.*;
 @Builder
 public class ResponseSystemConfigDto {
     private int total_tickets;
-    private int ticket_release_rate;
-    private int customer_retrieval_rate;
+    private int ticket_release_interval_us;
+    private int customer_retrieval_interval_us;
+    private int ticket_release_rate; // Seconds, rounded up
+    private int customer_retrieval_rate; // Seconds, rounded up
     private int max_ticket_capacity;
 }
@@ -12,5 +12,6 @@ import java.util.List;
 @Builder
 public class SalesLogPaginate {
     private long log_count;
+    private boolean log_count_estimated; // The count of older days was extrapolated, see SalesLogRepo
     private List<ResponseSalesLogDto> data_list;
 }
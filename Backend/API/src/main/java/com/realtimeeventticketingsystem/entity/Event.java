@@ -0,0 +1,27 @@
+package com.realtimeeventticketingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Entity(name = "events")
+public class Event {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private int eventId;
+
+    @Column(name = "event_name", nullable = false, unique = true)
+    private String eventName;
+
+    @Column(name = "total_tickets", nullable = false)
+    private int totalTickets;
+
+    @Column(name = "max_ticket_capacity", nullable = false)
+    private int maxTicketCapacity;
+}
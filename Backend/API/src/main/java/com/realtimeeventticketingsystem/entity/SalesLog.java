@@ -1,24 +1,28 @@
 package com.realtimeeventticketingsystem.entity;
 
-import jakarta.persistence.*;
 import lombok.*;
 
 
+// One typed row of the sales log, written by the CLI; the text shown to users is rendered by the frontend.
+// Not a JPA entity: the rows live in the CLI's day partition tables and archive files, read by SalesLogRepo
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 @Builder
-@Entity(name = "sales_log")
 public class SalesLog {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "sale_id")
-    private int id;
-
-    @Column(name = "date_time", nullable = false)
-    private String timeAndDate;
+    // Stored by ordinal, in the same order as the CLI's constants
+    public enum EventType { RELEASE, PURCHASE }
+    public enum ActorType { VENDOR, CUSTOMER }
 
-    @Column(nullable = false)
-    private String log;
+    private int id;
+    private long occurredAt; // Epoch milliseconds
+    private EventType eventType;
+    private ActorType actorType;
+    private int actorId;
+    private String actorName; // Vendor name, null for customers
+    private boolean vip;
+    private int quantity;
+    private int eventId;
+    private String seats; // Seats of a purchase with assigned seating
 }
@@ -0,0 +1,61 @@
+package com.realtimeeventticketingsystem.repo;
+
+import com.realtimeeventticketingsystem.dto.SystemConfiguration;
+import com.realtimeeventticketingsystem.entity.Event;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+
+public interface EventRepo extends JpaRepository<Event, Integer> {
+    @Query(value = "SELECT total_tickets FROM events WHERE event_id = ?1", nativeQuery = true)
+    int findTotalTicketsByEventId(int event_id);
+
+    @Query(value = "SELECT max_ticket_capacity FROM events WHERE event_id = ?1", nativeQuery = true)
+    int findMaxTicketCapacityByEventId(int event_id);
+
+    // Ticket settings of an event with the system intervals, one consistent read
+    @Query(value = "SELECT e.total_tickets AS totalTickets, " +
+            "(SELECT config_value FROM system_config WHERE config_key = 'ticket_release_interval_us') AS ticketReleaseIntervalUs, " +
+            "(SELECT config_value FROM system_config WHERE config_key = 'customer_retrieval_interval_us') AS customerRetrievalIntervalUs, " +
+            "e.max_ticket_capacity AS maxTicketCapacity " +
+            "FROM events e WHERE e.event_id = ?1", nativeQuery = true)
+    SystemConfigurationRow findSystemConfigurationRow(int event_id);
+
+    default SystemConfiguration findSystemConfiguration(int event_id) {
+        SystemConfigurationRow row = findSystemConfigurationRow(event_id);
+        return new SystemConfiguration(row.getTotalTickets(), row.getTicketReleaseIntervalUs(),
+                row.getCustomerRetrievalIntervalUs(), row.getMaxTicketCapacity());
+    }
+
+    // Columns of findSystemConfigurationRow, native queries cannot be mapped to a record directly
+    interface SystemConfigurationRow {
+        int getTotalTickets();
+        int getTicketReleaseIntervalUs();
+        int getCustomerRetrievalIntervalUs();
+        int getMaxTicketCapacity();
+    }
+
+    @Modifying
+    @Query(value = "UPDATE events SET total_tickets = ?2 WHERE event_id = ?1", nativeQuery = true)
+    void updateTotalTickets(int event_id, int total_tickets);
+
+    @Modifying
+    @Query(value = "UPDATE events SET max_ticket_capacity = ?2 WHERE event_id = ?1", nativeQuery = true)
+    void updateMaxTicketCapacity(int event_id, int max_ticket_capacity);
+
+    @Modifying
+    @Query(value = "UPDATE events SET total_tickets = ?2, max_ticket_capacity = ?3 WHERE event_id = ?1", nativeQuery = true)
+    void updateTickets(int event_id, int total_tickets, int max_ticket_capacity);
+
+    // Creates the default event from the former single-event settings, the same way the CLI does
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO events (event_id, event_name, total_tickets, max_ticket_capacity) " +
+            "SELECT ?1, 'Default Event', " +
+            "COALESCE((SELECT config_value FROM system_config WHERE config_key = 'total_tickets'), 50), " +
+            "COALESCE((SELECT config_value FROM system_config WHERE config_key = 'max_ticket_capacity'), 500)",
+            nativeQuery = true)
+    void insertDefaultEvent(int event_id);
+}
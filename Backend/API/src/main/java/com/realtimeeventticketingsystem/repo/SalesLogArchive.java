@@ -0,0 +1,126 @@
+package com.realtimeeventticketingsystem.repo;
+
+import com.realtimeeventticketingsystem.entity.SalesLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+// Reader of the compressed columnar archive files the CLI writes for archived days (its SalesLogArchive):
+// a header with the row count and time range, one deflated block per column, and a CRC32 of the file
+final class SalesLogArchive {
+    private static final int MAGIC = 0x534C4131; // "SLA1"
+    private static final int HEADER_SIZE = 24; // Magic, row count, first and last timestamp
+    private static final int COLUMNS = 10; // In file order: sale ID, time, event type, actor type, actor ID,
+                                           // actor name, VIP flag, quantity, event ID, seats
+
+    private SalesLogArchive() {
+    }
+
+    // Reads every row of the file, oldest first
+    static List<SalesLog> read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < HEADER_SIZE + Long.BYTES || input.readInt() != MAGIC) {
+            throw new IOException("Not a sales log archive: " + file);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - Long.BYTES);
+        long stored = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - Long.BYTES, Long.BYTES))
+                .readLong();
+        if (checksum.getValue() != stored) {
+            throw new IOException("Damaged sales log archive: " + file);
+        }
+        int rows = input.readInt();
+        input.readLong(); // First and last timestamp, only needed to skip files
+        input.readLong();
+
+        DataInputStream[] columns = new DataInputStream[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            int rawLength = input.readInt();
+            byte[] block = new byte[input.readInt()];
+            input.readFully(block);
+            columns[i] = inflate(block, rawLength, i);
+        }
+
+        List<SalesLog> result = new ArrayList<>(rows);
+        long id = 0;
+        long time = 0;
+        for (int i = 0; i < rows; i++) {
+            id += readVarLong(columns[0]);
+            time += readVarLong(columns[1]);
+            result.add(SalesLog.builder()
+                    .id((int) id)
+                    .occurredAt(time)
+                    .eventType(SalesLog.EventType.values()[columns[2].readByte()])
+                    .actorType(SalesLog.ActorType.values()[columns[3].readByte()])
+                    .actorId((int) readVarLong(columns[4]))
+                    .actorName(readString(columns[5]))
+                    .vip(columns[6].readByte() != 0)
+                    .quantity((int) readVarLong(columns[7]))
+                    .eventId((int) readVarLong(columns[8]))
+                    .seats(readString(columns[9]))
+                    .build());
+        }
+        return result;
+    }
+
+    private static DataInputStream inflate(byte[] block, int rawLength, int column) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Truncated sales log archive column " + column + ".");
+            }
+            return new DataInputStream(new ByteArrayInputStream(raw));
+
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged sales log archive column " + column + ".", e);
+
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Variable-length zig-zag number
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigZag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    // Length + 1 (0 for null), then the UTF-8 bytes
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length - 1];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,260 @@
+package com.realtimeeventticketingsystem.repo;
+
+import com.realtimeeventticketingsystem.entity.SalesLog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+
+// Filters of a sales log listing. Every condition is kept both as SQL, for the partition tables, and as a
+// predicate, for the rows of archive files, so both kinds of partition match the same rows.
+// The time range also selects the partitions that are read at all
+public class SalesLogCriteria {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final String SNIPPET_SEPARATOR = " … ";
+
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> parameters = new ArrayList<>();
+    private final List<Object> searchParameters = new ArrayList<>();
+    private Predicate<SalesLog> predicate = row -> true;
+    private long from = Long.MIN_VALUE; // Epoch milliseconds, inclusive
+    private long to = Long.MAX_VALUE; // Epoch milliseconds, exclusive
+    private String searchCondition; // Null without a search; "{index}" stands for the index of the partition
+    private List<String> terms = List.of(); // Words of the search, folded like the index folds them
+    private boolean idSearch; // The search text is a number
+    private boolean ranked;
+
+    public SalesLogCriteria eventId(int eventId) {
+        return add("event_id = ?", eventId, row -> row.getEventId() == eventId);
+    }
+
+    public SalesLogCriteria eventType(SalesLog.EventType eventType) {
+        return add("event_type = ?", eventType.ordinal(), row -> row.getEventType() == eventType);
+    }
+
+    public SalesLogCriteria actorType(SalesLog.ActorType actorType) {
+        return add("actor_type = ?", actorType.ordinal(), row -> row.getActorType() == actorType);
+    }
+
+    public SalesLogCriteria actorId(int actorId) {
+        return add("actor_id = ?", actorId, row -> row.getActorId() == actorId);
+    }
+
+    public SalesLogCriteria vip(boolean vip) {
+        return add("vip = ?", vip ? 1 : 0, row -> row.isVip() == vip);
+    }
+
+    public SalesLogCriteria from(long from) {
+        this.from = Math.max(this.from, from);
+        return this;
+    }
+
+    public SalesLogCriteria to(long to) {
+        this.to = Math.min(this.to, to);
+        return this;
+    }
+
+    /**
+     * Full-text search: every word of the text must start a word of the vendor name or seats, in any order and
+     * case, like the FTS5 index of the partition tables matches the prefix query built from it. A number also
+     * matches event, actor and sale IDs. Matches can be ranked by relevance and highlighted in a snippet.
+     */
+    public SalesLogCriteria search(String text) {
+        terms = tokenize(text);
+        StringBuilder condition = new StringBuilder();
+        Predicate<SalesLog> matches = row -> false;
+        if (!terms.isEmpty()) {
+            condition.append("sale_id IN (SELECT rowid FROM {index} WHERE {index} MATCH ?)");
+            searchParameters.add(matchQuery());
+            matches = row -> matchesAll(row.getActorName(), row.getSeats());
+        }
+        if (text.trim().matches("\\d{1,9}")) {
+            int id = Integer.parseInt(text.trim());
+            // Every alternative can use an index, so SQLite looks them up one by one instead of scanning the day;
+            // the actor index starts with the actor type
+            condition.append(condition.isEmpty() ? "" : " OR ")
+                    .append("event_id = ? OR (actor_type IN (0, 1) AND actor_id = ?) OR sale_id = ?");
+            searchParameters.add(id);
+            searchParameters.add(id);
+            searchParameters.add(id);
+            matches = matches.or(row -> row.getEventId() == id || row.getActorId() == id || row.getId() == id);
+            idSearch = true;
+        }
+        searchCondition = condition.isEmpty() ? "0" : "(" + condition + ")";
+        predicate = predicate.and(matches);
+        return this;
+    }
+
+    // Orders the matches of a word search by relevance, best first, instead of newest first; IDs are not ranked
+    public SalesLogCriteria ranked() {
+        ranked = true;
+        return this;
+    }
+
+    // Vendor name and seats of a row with the words matching the search marked, null if none matches
+    public String snippet(SalesLog row) {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        for (String field : new String[]{row.getActorName(), row.getSeats()}) {
+            String highlighted = highlight(field);
+            if (highlighted != null) {
+                parts.add(highlighted);
+            }
+        }
+        return parts.isEmpty() ? null : String.join(SNIPPET_SEPARATOR, parts);
+    }
+
+    long getFrom() {
+        return from;
+    }
+
+    long getTo() {
+        return to;
+    }
+
+    boolean isTimeOnly() {
+        return conditions.isEmpty() && searchCondition == null;
+    }
+
+    // A word search is the only condition besides the time range, so the index alone can count the matches
+    boolean isSearchOnly() {
+        return conditions.isEmpty() && !terms.isEmpty() && !idSearch;
+    }
+
+    boolean isRanked() {
+        return ranked && !terms.isEmpty() && !idSearch;
+    }
+
+    // FTS5 query of the search: every word as a quoted prefix, all of them required
+    String matchQuery() {
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            query.append(query.isEmpty() ? "" : " ").append('"').append(term).append("\"*");
+        }
+        return query.toString();
+    }
+
+    // WHERE clause of a partition table, time range and search included
+    String where(String table) {
+        String where = filterWhere();
+        return searchCondition == null ? where : where + " AND " + searchCondition.replace("{index}", table + "_fts");
+    }
+
+    // Parameters of the WHERE clause, in order
+    List<Object> parameters() {
+        List<Object> values = filterParameters();
+        values.addAll(searchParameters);
+        return values;
+    }
+
+    // WHERE clause of the time range and the filters other than the search, for queries that join the index
+    String filterWhere() {
+        StringBuilder where = new StringBuilder("WHERE occurred_at >= ? AND occurred_at < ?");
+        for (String condition : conditions) {
+            where.append(" AND ").append(condition);
+        }
+        return where.toString();
+    }
+
+    // Parameters of filterWhere, in order
+    List<Object> filterParameters() {
+        List<Object> values = new ArrayList<>(parameters.size() + searchParameters.size() + 2);
+        values.add(from);
+        values.add(to);
+        values.addAll(parameters);
+        return values;
+    }
+
+    boolean matches(SalesLog row) {
+        return row.getOccurredAt() >= from && row.getOccurredAt() < to && predicate.test(row);
+    }
+
+    private SalesLogCriteria add(String condition, Object value, Predicate<SalesLog> matches) {
+        conditions.add(condition);
+        parameters.add(value);
+        predicate = predicate.and(matches);
+        return this;
+    }
+
+    // Whether every search word starts a word of one of the fields, for rows of archive files
+    private boolean matchesAll(String... fields) {
+        List<String> words = new ArrayList<>();
+        for (String field : fields) {
+            if (field != null) {
+                words.addAll(tokenize(field));
+            }
+        }
+        return terms.stream().allMatch(term -> words.stream().anyMatch(word -> word.startsWith(term)));
+    }
+
+    // The field with its matching words wrapped in <mark> and the rest HTML-escaped, null if no word matches
+    private String highlight(String field) {
+        if (field == null) {
+            return null;
+        }
+        StringBuilder highlighted = new StringBuilder();
+        boolean matched = false;
+        int start = 0;
+        while (start < field.length()) {
+            int end = start;
+            boolean word = isWordCharacter(field.codePointAt(start));
+            while (end < field.length() && isWordCharacter(field.codePointAt(end)) == word) {
+                end += Character.charCount(field.codePointAt(end));
+            }
+            String part = escape(field.substring(start, end));
+            String folded = fold(field.substring(start, end));
+            if (word && terms.stream().anyMatch(folded::startsWith)) {
+                highlighted.append("<mark>").append(part).append("</mark>");
+                matched = true;
+            } else {
+                highlighted.append(part);
+            }
+            start = end;
+        }
+        return matched ? highlighted.toString() : null;
+    }
+
+    // Splits text into words the way the FTS5 "unicode61" tokenizer does: runs of letters, numbers and marks,
+    // lower-cased and without diacritics
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int start = i;
+            while (i < text.length() && isWordCharacter(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (i > start) {
+                words.add(fold(text.substring(start, i)));
+            } else {
+                i += Character.charCount(text.codePointAt(i));
+            }
+        }
+        return words;
+    }
+
+    private static boolean isWordCharacter(int codePoint) {
+        return switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER, Character.LOWERCASE_LETTER, Character.TITLECASE_LETTER,
+                 Character.MODIFIER_LETTER, Character.OTHER_LETTER, Character.DECIMAL_DIGIT_NUMBER,
+                 Character.LETTER_NUMBER, Character.OTHER_NUMBER, Character.NON_SPACING_MARK,
+                 Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK, Character.PRIVATE_USE -> true;
+            default -> false;
+        };
+    }
+
+    private static String fold(String word) {
+        return DIACRITICS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,23 @@
+package com.realtimeeventticketingsystem.repo;
+
+import com.realtimeeventticketingsystem.entity.SalesLog;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+
+// Page of a sales log listing whose total may be an estimate: a filtered listing stops counting the older days
+// once its page is filled, and extrapolates their matches from the days it counted
+public class SalesLogPage extends PageImpl<SalesLog> {
+    private final boolean totalEstimated;
+
+    public SalesLogPage(List<SalesLog> content, Pageable pageable, long total, boolean totalEstimated) {
+        super(content, pageable, total);
+        this.totalEstimated = totalEstimated;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+}
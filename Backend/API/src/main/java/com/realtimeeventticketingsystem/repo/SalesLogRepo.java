@@ -1,21 +1,227 @@
 package com.realtimeeventticketingsystem.repo;
 
 import com.realtimeeventticketingsystem.entity.SalesLog;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
-public interface SalesLogRepo extends JpaRepository<SalesLog, Integer> {
-    @Query(value = "SELECT * FROM sales_log WHERE log LIKE %?1% OR date_time LIKE %?1% ORDER BY date_time DESC",
-            nativeQuery = true)
-    Page<SalesLog> findAllWithSearchText(String searchText, Pageable pageable);
 
-    @Query(value = "SELECT * FROM sales_log ORDER BY sale_id DESC", nativeQuery = true)
-    Page<SalesLog> findAllWithoutSearchText(Pageable pageable);
+// The CLI stores the sales log in one table per UTC day ("sales_events_yyyyMMdd") listed in the "sales_partitions"
+// catalog, and compacts old days into archive files. A listing reads the catalog, skips the days outside its time
+// range and walks the rest newest first, so a page only reads the partitions it is served from. Counts of days
+// that a time-only listing covers as a whole come from the catalog. A listing with other filters only counts the
+// days up to the one its page ends in, and estimates the matches of the older days from the catalog's row counts,
+// so deep history costs nothing until a page reaches it. Searches use the FTS5 index the CLI keeps for each
+// partition table, and scan the rows of archive files, which stay cached
+@Repository
+public class SalesLogRepo {
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int ARCHIVE_CACHE_FILES = 8; // Decoded archive files kept in memory
+    private static final String COLUMNS =
+            "sale_id, occurred_at, event_type, actor_type, actor_id, actor_name, vip, quantity, event_id, seats";
+    private static final Comparator<SalesLog> NEWEST_FIRST =
+            Comparator.comparingLong(SalesLog::getOccurredAt).thenComparingInt(SalesLog::getId).reversed();
+    private static final Comparator<Ranked> BEST_FIRST = Comparator
+            .comparing(Ranked::score, Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+            .thenComparing(Ranked::row, NEWEST_FIRST);
+    private static final RowMapper<SalesLog> ROW_MAPPER = (resultSet, rowNum) -> SalesLog.builder()
+            .id(resultSet.getInt("sale_id"))
+            .occurredAt(resultSet.getLong("occurred_at"))
+            .eventType(SalesLog.EventType.values()[resultSet.getInt("event_type")])
+            .actorType(SalesLog.ActorType.values()[resultSet.getInt("actor_type")])
+            .actorId(resultSet.getInt("actor_id"))
+            .actorName(resultSet.getString("actor_name"))
+            .vip(resultSet.getInt("vip") != 0)
+            .quantity(resultSet.getInt("quantity"))
+            .eventId(resultSet.getInt("event_id"))
+            .seats(resultSet.getString("seats"))
+            .build();
 
-    @Query(value = "SELECT COUNT(*) FROM sales_log WHERE log LIKE %?1% OR date_time LIKE %?1%",
-            nativeQuery = true)
-    long countAllWithSearchText(String searchText);
+    private final JdbcTemplate jdbcTemplate;
+    private final Path archiveDirectory;
+
+    // Archive files never change under their name, a new archive of a day gets a new file
+    private final Map<String, List<SalesLog>> archives = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<SalesLog>> eldest) {
+            return size() > ARCHIVE_CACHE_FILES;
+        }
+    };
+
+    public SalesLogRepo(JdbcTemplate jdbcTemplate, @Value("${sales-log.archive-dir}") String archiveDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveDirectory = Path.of(archiveDirectory);
+        // Same definition as the CLI's, so the API can start on a database the CLI has not opened yet
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sales_partitions (" +
+                "day INTEGER PRIMARY KEY, table_name TEXT, live_rows INTEGER NOT NULL DEFAULT 0, " +
+                "archive_file TEXT, archived_rows INTEGER NOT NULL DEFAULT 0, " +
+                "last_sale_id INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    // One page of the matching rows newest first, with their total, read from one snapshot of the database
+    @Transactional
+    public SalesLogPage findAll(SalesLogCriteria criteria, Pageable pageable) {
+        List<SalesLog> content = new ArrayList<>();
+        if (criteria.getFrom() >= criteria.getTo()) {
+            return new SalesLogPage(content, pageable, 0, false);
+        }
+
+        List<Partition> partitions = jdbcTemplate.query(
+                "SELECT day, table_name, live_rows, archive_file, archived_rows FROM sales_partitions " +
+                        "WHERE day >= ? AND day <= ? ORDER BY day DESC",
+                (resultSet, rowNum) -> new Partition(resultSet.getLong("day"), resultSet.getString("table_name"),
+                        resultSet.getInt("live_rows"), resultSet.getString("archive_file"),
+                        resultSet.getInt("archived_rows")),
+                Math.floorDiv(criteria.getFrom(), DAY_MILLIS), Math.floorDiv(criteria.getTo() - 1, DAY_MILLIS));
+
+        if (criteria.isRanked()) {
+            return findRanked(partitions, criteria, pageable);
+        }
+
+        long offset = pageable.getOffset();
+        int remaining = pageable.getPageSize();
+        long total = 0;
+        long countedRows = 0; // Rows of the days a filtered listing counted
+        long uncountedRows = 0; // Rows of the older days it did not count
+        for (Partition partition : partitions) {
+            if (remaining == 0 && !criteria.isTimeOnly()) {
+                uncountedRows += partition.liveRows() + partition.archivedRows();
+                continue;
+            }
+            long count = count(partition, criteria);
+            total += count;
+            countedRows += partition.liveRows() + partition.archivedRows();
+            if (offset >= count) {
+                offset -= count;
+            } else if (remaining > 0) {
+                List<SalesLog> rows = find(partition, criteria, offset, remaining);
+                content.addAll(rows);
+                remaining -= rows.size();
+                offset = 0;
+            }
+        }
+        boolean estimated = uncountedRows > 0;
+        if (estimated) { // The older days match as often as the counted ones
+            total += countedRows > 0 ? (long) Math.ceil((double) uncountedRows * total / countedRows) : uncountedRows;
+        }
+        return new SalesLogPage(content, pageable, total, estimated);
+    }
+
+    /**
+     * One page of the matches of a ranked search: best bm25 score first, then newest first. Every partition
+     * contributes its best offset + size matches and the page is cut from their merge, so the order is the same
+     * as one ranking over all days. The index drives the query, so only matching rows are read. Rows of archive
+     * files have no score and follow, newest first.
+     */
+    private SalesLogPage findRanked(List<Partition> partitions, SalesLogCriteria criteria, Pageable pageable) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        long total = 0;
+        List<Ranked> matches = new ArrayList<>();
+        for (Partition partition : partitions) {
+            total += count(partition, criteria);
+            if (partition.archiveFile() != null) {
+                archive(partition.archiveFile()).stream().filter(criteria::matches).sorted(NEWEST_FIRST)
+                        .limit(limit).forEach(row -> matches.add(new Ranked(row, null)));
+            }
+            if (partition.tableName() != null) {
+                List<Object> parameters = criteria.filterParameters();
+                parameters.add(criteria.matchQuery());
+                parameters.add(limit);
+                String table = partition.tableName();
+                String index = table + "_fts";
+                matches.addAll(jdbcTemplate.query("SELECT " + table + ".*, bm25(" + index + ") AS score "
+                        + "FROM " + index + " JOIN " + table + " ON sale_id = " + index + ".rowid "
+                        + criteria.filterWhere() + " AND " + index + " MATCH ?"
+                        + " ORDER BY score, occurred_at DESC, sale_id DESC LIMIT ?",
+                        (resultSet, rowNum) -> new Ranked(ROW_MAPPER.mapRow(resultSet, rowNum),
+                                resultSet.getDouble("score")),
+                        parameters.toArray()));
+            }
+        }
+        matches.sort(BEST_FIRST);
+        List<SalesLog> content = matches.stream().skip(pageable.getOffset()).limit(pageable.getPageSize())
+                .map(Ranked::row).toList();
+        return new SalesLogPage(content, pageable, total, false);
+    }
+
+    private long count(Partition partition, SalesLogCriteria criteria) {
+        boolean wholeDay = criteria.getFrom() <= partition.day() * DAY_MILLIS
+                && criteria.getTo() >= (partition.day() + 1) * DAY_MILLIS;
+        if (criteria.isTimeOnly() && wholeDay) {
+            return partition.liveRows() + partition.archivedRows();
+        }
+        long count = 0;
+        if (partition.archiveFile() != null) {
+            count += archive(partition.archiveFile()).stream().filter(criteria::matches).count();
+        }
+        if (partition.tableName() != null) {
+            Long rows;
+            if (criteria.isSearchOnly() && wholeDay) { // Counted from the index, no row is read
+                String index = partition.tableName() + "_fts";
+                rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + index + " WHERE " + index + " MATCH ?",
+                        Long.class, criteria.matchQuery());
+            } else {
+                rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition.tableName() + " "
+                        + criteria.where(partition.tableName()), Long.class, criteria.parameters().toArray());
+            }
+            count += rows != null ? rows : 0;
+        }
+        return count;
+    }
+
+    // Up to limit matching rows of a partition newest first, after skipping offset of them
+    private List<SalesLog> find(Partition partition, SalesLogCriteria criteria, long offset, int limit) {
+        if (partition.archiveFile() == null) {
+            List<Object> parameters = criteria.parameters();
+            parameters.add(limit);
+            parameters.add(offset);
+            return jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + partition.tableName() + " "
+                    + criteria.where(partition.tableName())
+                    + " ORDER BY occurred_at DESC, sale_id DESC LIMIT ? OFFSET ?", ROW_MAPPER, parameters.toArray());
+        }
+
+        // An archived day, possibly with late rows in a table
+        List<SalesLog> rows = new ArrayList<>(
+                archive(partition.archiveFile()).stream().filter(criteria::matches).toList());
+        if (partition.tableName() != null) {
+            rows.addAll(jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + partition.tableName() + " "
+                    + criteria.where(partition.tableName()), ROW_MAPPER, criteria.parameters().toArray()));
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows.subList((int) Math.min(offset, rows.size()), (int) Math.min(offset + limit, rows.size()));
+    }
+
+    private synchronized List<SalesLog> archive(String archiveFile) {
+        List<SalesLog> rows = archives.get(archiveFile);
+        if (rows == null) {
+            try {
+                rows = SalesLogArchive.read(archiveDirectory.resolve(archiveFile));
+
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read sales log archive " + archiveFile + ".", e);
+            }
+            archives.put(archiveFile, rows);
+        }
+        return rows;
+    }
+
+    // Catalog row of a day: its table and archive file, either may be null
+    private record Partition(long day, String tableName, int liveRows, String archiveFile, int archivedRows) {
+    }
+
+    // Match of a ranked search with its bm25 score, lower is better; null for rows of archive files
+    private record Ranked(SalesLog row, Double score) {
+    }
 }
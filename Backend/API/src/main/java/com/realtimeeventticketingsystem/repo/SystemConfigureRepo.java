@@ -4,6 +4,7 @@ import com.realtimeeventticketingsystem.entity.SystemConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 
 public interface SystemConfigureRepo extends JpaRepository<SystemConfig, Integer> {
@@ -13,4 +14,25 @@ public interface SystemConfigureRepo extends JpaRepository<SystemConfig, Integer
     @Modifying
     @Query(value = "UPDATE system_config SET config_value = ?2 WHERE config_key = ?1", nativeQuery = true)
     void updateConfigValueUsingKey(String config_key, int config_value);
+
+    // Both intervals in one statement
+    @Modifying
+    @Query(value = "UPDATE system_config SET config_value = CASE config_key " +
+            "WHEN 'ticket_release_interval_us' THEN ?1 " +
+            "WHEN 'customer_retrieval_interval_us' THEN ?2 END " +
+            "WHERE config_key IN ('ticket_release_interval_us', 'customer_retrieval_interval_us')", nativeQuery = true)
+    void updateIntervals(int ticket_release_interval_us, int customer_retrieval_interval_us);
+
+    // Creates a microsecond key from a former seconds key, or with the default, the same way the CLI does
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO system_config (config_key, config_value) " +
+            "SELECT ?2, COALESCE((SELECT config_value * 1000000 FROM system_config WHERE config_key = ?1), ?3)",
+            nativeQuery = true)
+    void migrateToMicros(String seconds_key, String micros_key, int default_micros);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM system_config WHERE config_key = ?1", nativeQuery = true)
+    void deleteByConfigKey(String config_key);
 }
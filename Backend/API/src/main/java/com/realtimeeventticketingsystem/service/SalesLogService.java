@@ -1,9 +1,10 @@
 package com.realtimeeventticketingsystem.service;
 
+import com.realtimeeventticketingsystem.dto.request.SalesLogFilterDto;
 import com.realtimeeventticketingsystem.dto.response.paginate.SalesLogPaginate;
 
 
 public interface SalesLogService {
-    SalesLogPaginate findAll(String searchText, int page, int size);
-    SalesLogPaginate findAll(int page, int size);
+    SalesLogPaginate findAll(String searchText, boolean ranked, int page, int size);
+    SalesLogPaginate findAll(SalesLogFilterDto filter, int page, int size);
 }
@@ -1,10 +1,13 @@
 package com.realtimeeventticketingsystem.service;
 
 
+import com.realtimeeventticketingsystem.dto.SystemConfiguration;
 import com.realtimeeventticketingsystem.dto.response.ResponseSystemConfigDto;
 
 public interface SystemConfigureService {
     int findConfigValue(String configKey);
+    SystemConfiguration findSystemConfiguration();
     ResponseSystemConfigDto findAllConfig();
     void updateConfigValue(String configKey, int configValue);
+    void updateSystemConfiguration(SystemConfiguration configuration);
 }
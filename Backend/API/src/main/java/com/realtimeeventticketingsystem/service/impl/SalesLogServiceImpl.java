@@ -1,8 +1,11 @@
 package com.realtimeeventticketingsystem.service.impl;
 
+import com.realtimeeventticketingsystem.dto.request.SalesLogFilterDto;
 import com.realtimeeventticketingsystem.dto.response.ResponseSalesLogDto;
 import com.realtimeeventticketingsystem.dto.response.paginate.SalesLogPaginate;
 import com.realtimeeventticketingsystem.entity.SalesLog;
+import com.realtimeeventticketingsystem.repo.SalesLogCriteria;
+import com.realtimeeventticketingsystem.repo.SalesLogPage;
 import com.realtimeeventticketingsystem.repo.SalesLogRepo;
 import com.realtimeeventticketingsystem.service.SalesLogService;
 import lombok.RequiredArgsConstructor;
@@ -17,29 +20,71 @@ public class SalesLogServiceImpl implements SalesLogService {
     private final SalesLogRepo salesLogRepo;
 
 
+    // Prefix search on the words of vendor names and seats, or an event, actor or sale ID when the text is a number;
+    // newest first, or best match first when ranked
     @Override
-    public SalesLogPaginate findAll(String searchText, int page, int size) {
-        return SalesLogPaginate.builder()
-                .data_list(salesLogRepo.findAllWithSearchText(searchText, PageRequest.of(page, size))
-                        .stream().map(this::getResponseSalesLogDto).toList())
-                .log_count(salesLogRepo.countAllWithSearchText(searchText))
-                .build();
+    public SalesLogPaginate findAll(String searchText, boolean ranked, int page, int size) {
+        String text = searchText.trim();
+        SalesLogCriteria criteria = new SalesLogCriteria();
+        if (!text.isEmpty()) {
+            criteria.search(text);
+            if (ranked) {
+                criteria.ranked();
+            }
+        }
+        return paginate(criteria, page, size);
     }
 
     @Override
-    public SalesLogPaginate findAll(int page, int size) {
+    public SalesLogPaginate findAll(SalesLogFilterDto filter, int page, int size) {
+        SalesLogCriteria criteria = new SalesLogCriteria();
+        if (filter.getEvent_id() != null) {
+            criteria.eventId(filter.getEvent_id());
+        }
+        if (filter.getEvent_type() != null) {
+            criteria.eventType(filter.getEvent_type());
+        }
+        if (filter.getActor_type() != null) {
+            criteria.actorType(filter.getActor_type());
+        }
+        if (filter.getActor_id() != null) {
+            criteria.actorId(filter.getActor_id());
+        }
+        if (filter.getVip() != null) {
+            criteria.vip(filter.getVip());
+        }
+        if (filter.getFrom() != null) {
+            criteria.from(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            criteria.to(filter.getTo());
+        }
+        return paginate(criteria, page, size);
+    }
+
+    // One page newest first, with the number of matching rows, estimated for filtered listings of many days
+    private SalesLogPaginate paginate(SalesLogCriteria criteria, int page, int size) {
+        SalesLogPage logs = salesLogRepo.findAll(criteria, PageRequest.of(page, size));
         return SalesLogPaginate.builder()
-                .data_list(salesLogRepo.findAllWithoutSearchText(PageRequest.of(page, size))
-                        .stream().map(this::getResponseSalesLogDto).toList())
-                .log_count(salesLogRepo.countAllWithSearchText(""))
+                .data_list(logs.stream().map(salesLog -> getResponseSalesLogDto(salesLog, criteria)).toList())
+                .log_count(logs.getTotalElements())
+                .log_count_estimated(logs.isTotalEstimated())
                 .build();
     }
 
-    private ResponseSalesLogDto getResponseSalesLogDto(SalesLog salesLog) {
+    private ResponseSalesLogDto getResponseSalesLogDto(SalesLog salesLog, SalesLogCriteria criteria) {
         return ResponseSalesLogDto.builder()
                 .id(salesLog.getId())
-                .timeAndDate(salesLog.getTimeAndDate())
-                .log(salesLog.getLog())
+                .occurredAt(salesLog.getOccurredAt())
+                .eventType(salesLog.getEventType())
+                .actorType(salesLog.getActorType())
+                .actorId(salesLog.getActorId())
+                .actorName(salesLog.getActorName())
+                .vip(salesLog.isVip())
+                .quantity(salesLog.getQuantity())
+                .eventId(salesLog.getEventId())
+                .seats(salesLog.getSeats())
+                .snippet(criteria.snippet(salesLog))
                 .build();
     }
 }
@@ -1,9 +1,14 @@
 package com.realtimeeventticketingsystem.service.impl;
 
+import com.realtimeeventticketingsystem.dto.SystemConfiguration;
 import com.realtimeeventticketingsystem.dto.response.ResponseSystemConfigDto;
+import com.realtimeeventticketingsystem.repo.EventRepo;
 import com.realtimeeventticketingsystem.repo.SystemConfigureRepo;
 import com.realtimeeventticketingsystem.service.SystemConfigureService;
+import com.realtimeeventticketingsystem.util.ConfigChangedEvent;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,25 +17,91 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class SystemConfigureServiceImpl implements SystemConfigureService {
 
+    // Event the single-event ticket settings now belong to
+    private static final int DEFAULT_EVENT_ID = 1;
+
     private final SystemConfigureRepo systemConfigureRepo;
 
+    private final EventRepo eventRepo;
+
+    // Announces changes to the CLI once they are committed
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void initDefaultEvent() {
+        eventRepo.insertDefaultEvent(DEFAULT_EVENT_ID);
+        // Intervals are kept in microseconds, taken over from the former whole-second keys
+        migrateToMicros("ticket_release_rate", "ticket_release_interval_us");
+        migrateToMicros("customer_retrieval_rate", "customer_retrieval_interval_us");
+    }
+
+    private void migrateToMicros(String secondsKey, String microsKey) {
+        systemConfigureRepo.migrateToMicros(secondsKey, microsKey, 60_000_000);
+        systemConfigureRepo.deleteByConfigKey(secondsKey);
+    }
+
+    // Ticket inventory lives in the events table, other keys in system_config
     @Override
     public int findConfigValue(String configKey) {
-        return systemConfigureRepo.findByConfigKey(configKey);
+        return switch (configKey) {
+            case "total_tickets" -> eventRepo.findTotalTicketsByEventId(DEFAULT_EVENT_ID);
+            case "max_ticket_capacity" -> eventRepo.findMaxTicketCapacityByEventId(DEFAULT_EVENT_ID);
+            default -> systemConfigureRepo.findByConfigKey(configKey);
+        };
+    }
+
+    // All values in one query, so they are consistent with each other
+    @Override
+    public SystemConfiguration findSystemConfiguration() {
+        return eventRepo.findSystemConfiguration(DEFAULT_EVENT_ID);
     }
 
     @Override
     public ResponseSystemConfigDto findAllConfig() {
-        return new ResponseSystemConfigDto(
-                systemConfigureRepo.findByConfigKey("total_tickets"),
-                systemConfigureRepo.findByConfigKey("ticket_release_rate"),
-                systemConfigureRepo.findByConfigKey("customer_retrieval_rate"),
-                systemConfigureRepo.findByConfigKey("max_ticket_capacity"));
+        SystemConfiguration configuration = findSystemConfiguration();
+        return ResponseSystemConfigDto.builder()
+                .total_tickets(configuration.totalTickets())
+                .ticket_release_interval_us(configuration.ticketReleaseIntervalUs())
+                .customer_retrieval_interval_us(configuration.customerRetrievalIntervalUs())
+                .ticket_release_rate(toSeconds(configuration.ticketReleaseIntervalUs()))
+                .customer_retrieval_rate(toSeconds(configuration.customerRetrievalIntervalUs()))
+                .max_ticket_capacity(configuration.maxTicketCapacity())
+                .build();
+    }
+
+    // Rounds an interval up to whole seconds, for clients that still read seconds
+    private static int toSeconds(int micros) {
+        return (micros + 999_999) / 1_000_000;
     }
 
     @Override
     @Transactional
     public void updateConfigValue(String configKey, int configValue) {
-        systemConfigureRepo.updateConfigValueUsingKey(configKey, configValue);
+        ConfigChangedEvent event = switch (configKey) {
+            case "total_tickets" -> {
+                eventRepo.updateTotalTickets(DEFAULT_EVENT_ID, configValue);
+                yield ConfigChangedEvent.of("events", configKey);
+            }
+            case "max_ticket_capacity" -> {
+                eventRepo.updateMaxTicketCapacity(DEFAULT_EVENT_ID, configValue);
+                yield ConfigChangedEvent.of("events", configKey);
+            }
+            default -> {
+                systemConfigureRepo.updateConfigValueUsingKey(configKey, configValue);
+                yield ConfigChangedEvent.of("system_config", configKey);
+            }
+        };
+        eventPublisher.publishEvent(event);
+    }
+
+    // Writes all values in one transaction, so readers see either the old or the new configuration
+    @Override
+    @Transactional
+    public void updateSystemConfiguration(SystemConfiguration configuration) {
+        eventRepo.updateTickets(DEFAULT_EVENT_ID, configuration.totalTickets(), configuration.maxTicketCapacity());
+        systemConfigureRepo.updateIntervals(configuration.ticketReleaseIntervalUs(),
+                configuration.customerRetrievalIntervalUs());
+        eventPublisher.publishEvent(ConfigChangedEvent.of("events", "total_tickets", "max_ticket_capacity")
+                .and(ConfigChangedEvent.of("system_config", "ticket_release_interval_us", "customer_retrieval_interval_us")));
     }
 }
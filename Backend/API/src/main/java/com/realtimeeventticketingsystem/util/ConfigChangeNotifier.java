@@ -0,0 +1,40 @@
+package com.realtimeeventticketingsystem.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+
+/**
+ * Announces committed configuration changes to the CLI over its Unix domain socket, one line per change,
+ * so the running ticket system applies them within milliseconds. A CLI that is not running misses nothing:
+ * it reads the configuration from the database when it starts.
+ */
+@Component
+public class ConfigChangeNotifier {
+
+    private final UnixDomainSocketAddress address;
+
+    public ConfigChangeNotifier(@Value("${config.change-socket}") Path socketPath) {
+        this.address = UnixDomainSocketAddress.of(socketPath);
+    }
+
+    // Runs after the transaction that wrote the change committed, so the CLI reads the new value
+    @TransactionalEventListener(fallbackExecution = true)
+    public void configChanged(ConfigChangedEvent event) {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.write(ByteBuffer.wrap((String.join("\n", event.changes()) + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+
+        } catch (IOException e) {
+            // No CLI is listening
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.realtimeeventticketingsystem.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+// Published after configuration values were written, one "<table> <key>" line per changed value
+public record ConfigChangedEvent(List<String> changes) {
+
+    public static ConfigChangedEvent of(String table, String... configKeys) {
+        return new ConfigChangedEvent(Arrays.stream(configKeys)
+                .map(configKey -> table + " " + configKey)
+                .toList());
+    }
+
+    public ConfigChangedEvent and(ConfigChangedEvent other) {
+        return new ConfigChangedEvent(Stream.concat(changes.stream(), other.changes.stream()).toList());
+    }
+}
@@ -1,34 +1,33 @@
 package main;
 
 import main.controllers.ConfigureSystemParametersController;
+import main.controllers.EventManagementController;
 import main.controllers.SalesLogController;
 import main.controllers.TicketManagementController;
 import main.controllers.VendorManagementController;
 import main.dao.impl.SystemConfigDAOImpl;
 import main.db.SQLiteConnection;
+import main.models.TicketEventPipeline;
+import main.models.TicketPoolRegistry;
+import main.util.ConfigChangeBus;
+import main.util.ConfigChangeChannel;
 import main.util.SystemConfig;
 import main.util.UserInputGetCollection;
 
-import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Entry point for the Real-Time Event Ticketing System application.
- * Manages the main menu, periodic system updates, and user interaction.
+ * Manages the main menu, configuration change propagation, and user interaction.
  */
 public class Main {
 
     // Utility for capturing user input
     private final UserInputGetCollection userInputGetCollection = new UserInputGetCollection();
 
-    // Database connection instance
-    private final Connection connection = SQLiteConnection.getInstance().getConnection();
-
-    // Scheduled executor service for periodic tasks
-    private final ScheduledExecutorService executorServiceSystemConfig = Executors.newScheduledThreadPool(1);
+    // Socket on which the API announces its configuration changes
+    private final ConfigChangeChannel configChangeChannel = new ConfigChangeChannel();
 
     // DAO for system configuration
     private final SystemConfigDAOImpl systemConfigDAO = new SystemConfigDAOImpl();
@@ -42,6 +41,10 @@ public class Main {
 
     private final SalesLogController salesLogController = new SalesLogController(); // Sales Log
 
+    private final EventManagementController eventManagementController = new EventManagementController(); // Manage Events
+
+    private final AtomicBoolean stopped = new AtomicBoolean(); // The exit sequence ran
+
     // Displays the main menu
     private int mainMenu() {
         System.out.println("""
@@ -55,11 +58,12 @@ public class Main {
             2. Vendors Management
             3. Ticket Management
             4. View Sales Log
+            5. Events Management
             0. Exit
         
         --------------------------------------------
         """);
-        return userInputGetCollection.getUserInputInt("Please select an option between number (0-4):> ");
+        return userInputGetCollection.getUserInputInt("Please select an option between number (0-5):> ");
     }
     // Main method to initialize and run the application
     public static void main(String[] args) {
@@ -67,7 +71,7 @@ public class Main {
         boolean exit;
         // Initialize database connection and check status
         try {
-            boolean dbConnection = main.connection != null && !main.connection.isClosed();
+            boolean dbConnection = SQLiteConnection.getInstance().isConnected();
             System.out.println(dbConnection ? "Database connected successfully." : "Failed to connect to Database");
             exit = dbConnection;
             main.systemConfigDAO.updateConfigValue("cli_status", 1); // Update CLI status in the system configuration
@@ -76,9 +80,11 @@ public class Main {
             exit = false;
             System.out.println(e.getMessage());
         }
-        // Schedule periodic updates for system configuration
-        main.executorServiceSystemConfig.scheduleAtFixedRate(
-                new SystemConfig(main), 0, 5, TimeUnit.SECONDS);
+        // Apply configuration changes as they are published, by this CLI or the API
+        ConfigChangeBus.subscribe(new SystemConfig(main));
+        main.configChangeChannel.start();
+        // The only shutdown hook, so an interrupted CLI stops in the same order as one that exits
+        Runtime.getRuntime().addShutdownHook(new Thread(main::shutdown, "shutdown"));
 
         // Main loop to handle user interaction
         while (exit) {
@@ -95,21 +101,9 @@ public class Main {
                         if (!exit) {
                             // Update CLI status and stop ticket system
                             main.systemConfigDAO.updateConfigValue("cli_status", 0);
-                            main.ticketManagementController.stopSystem();
-                            // Add shutdown hook to gracefully terminate resources
-                            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                                main.executorServiceSystemConfig.shutdown();
-                                try {
-                                    if (!main.executorServiceSystemConfig.awaitTermination(5, TimeUnit.SECONDS)) {
-                                        main.executorServiceSystemConfig.shutdownNow();
-                                    }
-
-                                } catch (InterruptedException e) {
-                                    main.executorServiceSystemConfig.shutdownNow();
-                                }
-                            }));
-                            // Close the database connection and terminate the program
-                            main.connection.close();
+                            main.shutdown();
+                            // Close the database connections and terminate the program
+                            SQLiteConnection.getInstance().close();
                             System.exit(0);
                         }
 
@@ -134,13 +128,36 @@ public class Main {
                     main.salesLogController.salesLog();
                     break;
 
+                case 5:     // Manage Events
+                    main.eventManagementController.eventsManagement();
+                    break;
+
                 default:
-                    System.out.println("Invalid input. Please enter number between (0-4)");
+                    System.out.println("Invalid input. Please enter number between (0-5)");
                     break;
             }
         }
     }
 
+    /**
+     * Stops the system once, in order: the producers (vendors and customers), then the ticket pools, whose
+     * restored holds still publish events, then the event pipeline and its sales log writer.
+     */
+    private void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        ticketManagementController.stopSystem();
+        // Let running customers and vendors finish (or interrupt them) before their side effects are flushed
+        ticketManagementController.shutdown();
+        // Return held tickets and write the latest ticket counts
+        TicketPoolRegistry.getInstance().shutdown();
+        // Write pending sales events before the connection is closed
+        TicketEventPipeline.getInstance().shutdown();
+        // Stop receiving configuration changes
+        configChangeChannel.close();
+    }
+
     public TicketManagementController getTicketManagementController() {
         return ticketManagementController;
     }
@@ -0,0 +1,180 @@
+package main.benchmark;
+
+import main.db.ConnectionPool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures reads and writes per second against SQLite, before and after connection pooling:
+ * "single" is one connection with SQLite's defaults (rollback journal, synchronous=FULL) shared by every thread,
+ * as SQLiteConnection used to hand out; "pooled" is a {@link ConnectionPool} in WAL mode with one writer and
+ * a reader per thread, whose borrowed connections reuse cached prepared statements.
+ * Reads are primary key lookups, writes are single-row inserts, each its own commit; the mixed run reads on all threads while one more thread keeps writing.
+ * Uses fresh temporary database files: java main.benchmark.DatabaseBenchmark [seconds per run]
+ */
+public class DatabaseBenchmark {
+    private static final int ROWS = 10_000; // Rows the reads look up
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("+---------+--------------------+--------------------+--------------------+--------------------+--------------------+--------------------+");
+        System.out.println("| Threads | Single reads/sec   | Pooled reads/sec   | Single writes/sec  | Pooled writes/sec  | Single mixed r/s   | Pooled mixed r/s   |");
+        System.out.println("+---------+--------------------+--------------------+--------------------+--------------------+--------------------+--------------------+");
+        for (int threads = 1; threads <= processors; threads = threads == processors ? threads + 1 : Math.min(threads * 2, processors)) {
+            try (Database single = Database.single(); Database pooled = Database.pooled(threads)) {
+                System.out.printf("| %-7d | %-18d | %-18d | %-18d | %-18d | %-18d | %-18d |%n",
+                        threads,
+                        run(single, threads, seconds, false, false),
+                        run(pooled, threads, seconds, false, false),
+                        run(single, threads, seconds, true, false),
+                        run(pooled, threads, seconds, true, false),
+                        run(single, threads, seconds, false, true),
+                        run(pooled, threads, seconds, false, true));
+            }
+        }
+        System.out.println("+---------+--------------------+--------------------+--------------------+--------------------+--------------------+--------------------+");
+    }
+
+    // Runs reading or writing threads for the given time, with an extra writer when mixed, and returns operations per second
+    private static long run(Database database, int threads, int seconds, boolean write, boolean mixed) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads + (mixed ? 1 : 0));
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                long count = 0;
+                try {
+                    while (running.get()) {
+                        if (write) {
+                            database.write();
+                        } else {
+                            database.read();
+                        }
+                        count++;
+                    }
+
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+                operations.add(count);
+                done.countDown();
+            }).start();
+        }
+        if (mixed) {
+            new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        database.write();
+                    }
+
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+                done.countDown();
+            }).start();
+        }
+
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+        return operations.sum() / seconds;
+    }
+
+    // A temporary database with the table the runs read and write
+    private static final class Database implements AutoCloseable {
+        private final Path file;
+        private final Connection single; // Shared by every thread, or null when pooled
+        private final ConnectionPool pool;
+
+        private Database(Path file, Connection single, ConnectionPool pool) {
+            this.file = file;
+            this.single = single;
+            this.pool = pool;
+        }
+
+        static Database single() throws Exception {
+            Path file = Files.createTempFile("ticketing-benchmark", ".db");
+            Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+            fill(connection);
+            return new Database(file, connection, null);
+        }
+
+        static Database pooled(int readers) throws Exception {
+            Path file = Files.createTempFile("ticketing-benchmark", ".db");
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file, readers);
+            try (Connection writer = pool.borrowWriter()) {
+                fill(writer);
+            }
+            return new Database(file, null, pool);
+        }
+
+        private static void fill(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE bench (id INTEGER PRIMARY KEY, value TEXT NOT NULL)");
+                statement.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < " + ROWS + ") " +
+                        "INSERT INTO bench (id, value) SELECT i, 'row ' || i FROM n");
+            }
+        }
+
+        void read() throws SQLException {
+            if (single != null) {
+                lookup(single);
+                return;
+            }
+            try (Connection reader = pool.borrowReader()) {
+                lookup(reader);
+            }
+        }
+
+        void write() throws SQLException {
+            if (single != null) {
+                insert(single);
+                return;
+            }
+            try (Connection writer = pool.borrowWriter()) {
+                insert(writer);
+            }
+        }
+
+        private static void insert(Connection connection) throws SQLException {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench (value) VALUES (?)")) {
+                insert.setString(1, "written");
+                insert.executeUpdate();
+            }
+        }
+
+        private static void lookup(Connection connection) throws SQLException {
+            try (PreparedStatement select = connection.prepareStatement("SELECT value FROM bench WHERE id = ?")) {
+                select.setInt(1, ThreadLocalRandom.current().nextInt(1, ROWS + 1));
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws SQLException, IOException {
+            if (single != null) {
+                single.close();
+            } else {
+                pool.close();
+            }
+            for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+                Files.deleteIfExists(Path.of(file + suffix));
+            }
+        }
+    }
+}
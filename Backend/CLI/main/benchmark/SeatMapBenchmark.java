@@ -0,0 +1,67 @@
+package main.benchmark;
+
+import main.models.SeatSection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures best-available seat allocation on a 100,000 seat section (250 rows of 400 seats)
+ * with concurrent buyers taking groups of 1 to 6 seats until the section is sold out.
+ * Runs without the database: java main.benchmark.SeatMapBenchmark [rounds]
+ */
+public class SeatMapBenchmark {
+    private static final int ROWS = 250;
+    private static final int SEATS_PER_ROW = 400;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Bitmap: %d bytes for %d seats%n",
+                ROWS * ((SEATS_PER_ROW + 63) / 64) * Long.BYTES, ROWS * SEATS_PER_ROW);
+
+        System.out.println("+---------+---------------------+---------------------+");
+        System.out.println("| Threads | Allocations         | Avg ns / allocation |");
+        System.out.println("+---------+---------------------+---------------------+");
+        for (int threads = 1; threads <= processors; threads = threads == processors ? threads + 1 : Math.min(threads * 2, processors)) {
+            long allocations = 0;
+            long nanos = 0;
+            for (int round = 0; round < rounds; round++) {
+                long[] result = run(threads);
+                allocations += result[0];
+                nanos += result[1];
+            }
+            System.out.printf("| %-7d | %-19d | %-19d |%n", threads, allocations, nanos / Math.max(1, allocations));
+        }
+        System.out.println("+---------+---------------------+---------------------+");
+    }
+
+    // Sells out a fresh section and returns the number of allocations and the total time spent in them
+    private static long[] run(int threads) throws InterruptedException {
+        SeatSection section = new SeatSection(1, "A", ROWS, SEATS_PER_ROW);
+        LongAdder allocations = new LongAdder();
+        LongAdder nanos = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int misses = 0;
+                while (misses < 6) {
+                    int count = random.nextInt(6) + 1;
+                    long start = System.nanoTime();
+                    int seat = section.claimBest(count);
+                    nanos.add(System.nanoTime() - start);
+                    if (seat >= 0) {
+                        allocations.increment();
+                        misses = 0;
+                    } else {
+                        misses++;
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return new long[] {allocations.sum(), nanos.sum()};
+    }
+}
@@ -0,0 +1,63 @@
+package main.benchmark;
+
+import main.models.AtomicTicketCounter;
+import main.models.StripedTicketCounter;
+import main.models.TicketCounter;
+import main.models.TicketPool;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures purchase throughput of a ticket pool with the single and with the striped ticket counter
+ * for an increasing number of customer threads. Purchases go through {@link TicketPool}, so the
+ * bookkeeping of every sale (the write-behind dirty flag) is measured along with the counter.
+ * Runs without the database and the journal: java main.benchmark.TicketPoolBenchmark [seconds per run]
+ */
+public class TicketPoolBenchmark {
+    private static final int CAPACITY = 1_000_000_000; // Large enough that the pool never runs dry during a run
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("+---------+----------------------+----------------------+");
+        System.out.println("| Threads | Single (ops/sec)     | Striped (ops/sec)    |");
+        System.out.println("+---------+----------------------+----------------------+");
+        for (int threads = 1; threads <= processors; threads = threads == processors ? threads + 1 : Math.min(threads * 2, processors)) {
+            System.out.printf("| %-7d | %-20d | %-20d |%n",
+                    threads,
+                    run(AtomicTicketCounter::new, threads, seconds),
+                    run(() -> new StripedTicketCounter(processors), threads, seconds));
+        }
+        System.out.println("+---------+----------------------+----------------------+");
+    }
+
+    // Runs customer threads against a full pool for the given time and returns purchases per second
+    private static long run(Supplier<TicketCounter> factory, int threads, int seconds) throws InterruptedException {
+        TicketPool pool = TicketPool.detached(0, factory.get(), CAPACITY);
+        pool.addTickets(CAPACITY);
+
+        LongAdder purchases = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                long bought = 0;
+                while (running.get()) {
+                    if (pool.tryReserve(1)) {
+                        bought++;
+                    }
+                }
+                purchases.add(bought);
+                done.countDown();
+            }).start();
+        }
+
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+        return purchases.sum() / seconds;
+    }
+}
@@ -1,7 +1,11 @@
 package main.controllers;
 
+import main.dao.EventDAO;
+import main.dao.impl.EventDAOImpl;
 import main.dao.impl.SystemConfigDAOImpl;
+import main.models.Event;
 import main.models.TicketPool;
+import main.util.Interval;
 import main.util.UserInputGetCollection;
 import java.sql.SQLException;
 
@@ -15,6 +19,9 @@ public class ConfigureSystemParametersController
     // Data access object for system configuration
     private final static SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
 
+    // Data access object for the inventory of the default event
+    private final static EventDAO eventDAO = new EventDAOImpl();
+
     // Displays the menu for configuring system parameters
     private int configureSystemParametersMenu() {
         System.out.println(""" 
@@ -40,13 +47,13 @@ public class ConfigureSystemParametersController
             System.out.println(
                     "\n---- Show Status ----\n" +
                             "Tickets Total: " +
-                            configDAO.findConfigValue("total_tickets") + "\n" +
-                            "Tickets Released (per seconds): " +
-                            configDAO.findConfigValue("ticket_release_rate") + "\n" +
-                            "Customer Retrieval Rate (per seconds): " +
-                            configDAO.findConfigValue("customer_retrieval_rate") + "\n" +
+                            eventDAO.findTotalTickets(Event.DEFAULT_EVENT_ID) + "\n" +
+                            "Ticket Release Rate: " +
+                            Interval.formatWithRate(configDAO.findConfigValue("ticket_release_interval_us")) + "\n" +
+                            "Customer Retrieval Rate: " +
+                            Interval.formatWithRate(configDAO.findConfigValue("customer_retrieval_interval_us")) + "\n" +
                             "Max Ticket Capacity: " +
-                            configDAO.findConfigValue("max_ticket_capacity") + "\n" +
+                            eventDAO.findMaxCapacity(Event.DEFAULT_EVENT_ID) + "\n" +
                             "--------------------------------------------"
             );
 
@@ -61,13 +68,13 @@ public class ConfigureSystemParametersController
             System.out.println(
                     "\n---- Total Ticket Update ---- \n" +
                             "Tickets Total Right Now: " +
-                            configDAO.findConfigValue("total_tickets")
+                            eventDAO.findTotalTickets(Event.DEFAULT_EVENT_ID)
             );
-            int maxCapacity = configDAO.findConfigValue("max_ticket_capacity");
+            int maxCapacity = eventDAO.findMaxCapacity(Event.DEFAULT_EVENT_ID);
             int newTickets = uic.getUserInputInt("Set total tickets:> ");
 
             if (newTickets >= 0 && newTickets <= maxCapacity) {
-                configDAO.updateConfigValue("total_tickets", newTickets);
+                eventDAO.updateTotalTickets(Event.DEFAULT_EVENT_ID, newTickets);
                 TicketPool.getInstance().reloadSetTotalTickets();
                 System.out.println("Configuration saved successfully!");
 
@@ -85,15 +92,15 @@ public class ConfigureSystemParametersController
         try {
             System.out.println(
                     "\n----  Tickets Released Update ---- \n" +
-                            "Tickets Released Right Now (Per seconds): " +
-                            configDAO.findConfigValue("ticket_release_rate")
+                            "Ticket Release Rate Right Now: " +
+                            Interval.formatWithRate(configDAO.findConfigValue("ticket_release_interval_us"))
             );
 
-            int newTickets = uic.getUserInputInt("Set tickets released (per seconds):> ");
+            int newInterval = Interval.parseMicros(
+                    uic.getUserInputString("Set ticket release rate (e.g. 30s, 250ms, 500us or 20/s):> "));
 
-            if (newTickets >= 0) {
-                configDAO.updateConfigValue("ticket_release_rate", newTickets);
-                new TicketManagementController().restartSystemForVendors();
+            if (Interval.isValid(newInterval)) {
+                configDAO.updateConfigValue("ticket_release_interval_us", newInterval);
                 System.out.println("Configuration saved successfully!");
 
             } else {
@@ -110,15 +117,15 @@ public class ConfigureSystemParametersController
         try {
             System.out.println(
                     "\n----  Customer Retrieval Rate ---- \n" +
-                            "Customer Retrieval Rate Right Now (Per seconds): " +
-                            configDAO.findConfigValue("customer_retrieval_rate")
+                            "Customer Retrieval Rate Right Now: " +
+                            Interval.formatWithRate(configDAO.findConfigValue("customer_retrieval_interval_us"))
             );
 
-            int newTickets = uic.getUserInputInt("Set customer retrieval rate (Per seconds):> ");
+            int newInterval = Interval.parseMicros(
+                    uic.getUserInputString("Set customer retrieval rate (e.g. 30s, 250ms, 500us or 20/s):> "));
 
-            if (newTickets >= 0) {
-                configDAO.updateConfigValue("customer_retrieval_rate", newTickets);
-                new TicketManagementController().restartSystemForCustomers();
+            if (Interval.isValid(newInterval)) {
+                configDAO.updateConfigValue("customer_retrieval_interval_us", newInterval);
                 System.out.println("Configuration saved successfully!");
 
             } else {
@@ -136,13 +143,13 @@ public class ConfigureSystemParametersController
             System.out.println(
                     "\n----  Max Ticket Capacity ---- \n" +
                             "Max Ticket Capacity Right Now: " +
-                            configDAO.findConfigValue("max_ticket_capacity")
+                            eventDAO.findMaxCapacity(Event.DEFAULT_EVENT_ID)
             );
 
             int newTickets = uic.getUserInputInt("Set max ticket capacity:> ");
 
             if (newTickets >= 0) {
-                configDAO.updateConfigValue("max_ticket_capacity", newTickets);
+                eventDAO.updateMaxCapacity(Event.DEFAULT_EVENT_ID, newTickets);
                 TicketPool.getInstance().reloadSetMaxCapacity();
                 System.out.println("Configuration saved successfully!");
 
@@ -0,0 +1,198 @@
+package main.controllers;
+
+import main.dao.EventDAO;
+import main.dao.SeatSectionDAO;
+import main.dao.impl.EventDAOImpl;
+import main.dao.impl.SeatSectionDAOImpl;
+import main.models.Event;
+import main.models.TicketPool;
+import main.models.TicketPoolRegistry;
+import main.util.UserInputGetCollection;
+import main.util.validation.EventValidation;
+
+// Controller class for managing events and their ticket inventory
+public class EventManagementController {
+    // Utility for user input collection
+    private final UserInputGetCollection uic = new UserInputGetCollection();
+
+    // Data Access Object for event operations
+    private final static EventDAO eventDAO = new EventDAOImpl();
+
+    // Data Access Object for the seat sections of events
+    private final static SeatSectionDAO seatSectionDAO = new SeatSectionDAOImpl();
+
+    // Validation utility for event data
+    private final static EventValidation validation = new EventValidation();
+
+    // Displays the event management menu
+    private int manageEventsMenu()
+    {
+        System.out.println("""
+        --------------------------------------------
+        -----          Manage Events           -----
+        --------------------------------------------
+             1. Show All Events
+             2. Add Event
+             3. Update Event
+             4. Add Seat Section
+             5. Back to Main Menu
+        
+        --------------------------------------------
+        """);
+        return uic.getUserInputInt("Please select an option between number (1-5):> ");
+    }
+
+    // Main method for event management
+    public void eventsManagement() {
+        boolean exit = true;
+
+        while (exit) {
+            System.out.println();
+            switch (manageEventsMenu()) {
+                case -1:    // For invalid input, skip the iteration
+                    break;
+
+                case 1:     // Show all events
+                    showAllEvents();
+                    break;
+
+                case 2:     // Add a new event
+                    addEvent();
+                    break;
+
+                case 3:     // Update an existing event
+                    updateEvent();
+                    break;
+
+                case 4:     // Add a seat section to an event
+                    addSeatSection();
+                    break;
+
+                case 5:     // Exit to the main menu
+                    exit = false;
+                    break;
+
+                default:
+                    System.out.println("Invalid input");
+                    break;
+            }
+        }
+    }
+
+    // Adds a new event to the system
+    private void addEvent() {
+        System.out.println("\n-----     Add Event    -----");
+        String eventName = getEventName();
+        int maxCapacity = getMaxCapacity();
+        System.out.println(eventDAO.addEvent(new Event(eventName, getTotalTickets(maxCapacity), maxCapacity))
+                ? "Successfully added the event.\n"
+                : "Failed to add the event.");
+    }
+
+    // Displays all events in a formatted table; tickets of events in memory are shown live
+    private void showAllEvents() {
+        System.out.println("\n-----     Show All Events     -----");
+        System.out.println("+-----+-------------------------+---------------+--------------+");
+        System.out.println("| ID  | Event Name              | Total Tickets | Max Capacity |");
+        System.out.println("+-----+-------------------------+---------------+--------------+");
+        for (Event event : eventDAO.getAllEvents()) {
+            TicketPool pool = TicketPoolRegistry.getInstance().getLoadedPool(event.getId());
+            System.out.printf(
+                    "| %-3d | %-23s | %-13d | %-12d |%n",
+                    event.getId(),
+                    event.getEventName(),
+                    pool != null ? pool.getTotalTickets() : event.getTotalTickets(),
+                    event.getMaxCapacity()
+            );
+        }
+        System.out.println("+-----+-------------------------+---------------+--------------+");
+    }
+
+    /**
+     * Updates an existing event.
+     * A pool that is in memory adopts the new values right away.
+     */
+    private void updateEvent() {
+        System.out.println("\n-----     Update Event     -----");
+        int eventId = getEventId();
+        String eventName = getEventName();
+        int maxCapacity = getMaxCapacity();
+        boolean updated = eventDAO.updateEvent(new Event(eventId, eventName, getTotalTickets(maxCapacity), maxCapacity));
+        if (updated) {
+            TicketPool pool = TicketPoolRegistry.getInstance().getLoadedPool(eventId);
+            if (pool != null) {
+                pool.reloadSetMaxCapacity();
+                pool.reloadSetTotalTickets();
+            }
+        }
+        System.out.println(updated ? "Successfully update event.\n" : "Failed to update event.\n");
+    }
+
+    /**
+     * Adds a section of assigned seats to an event; sections are ranked in the order they are added.
+     * The seat map is built when the event's pool is loaded, so a pool already in memory keeps
+     * selling without the new section until it is evicted or the system is restarted.
+     */
+    private void addSeatSection() {
+        System.out.println("\n-----     Add Seat Section     -----");
+        int eventId = getEventId();
+        String sectionName = uic.getUserInputString("Please enter a section name:> ");
+        int rows = getPositive("Please enter the number of rows:> ");
+        int seatsPerRow = getPositive("Please enter the seats per row:> ");
+        if (!seatSectionDAO.addSection(eventId, sectionName, rows, seatsPerRow)) {
+            System.out.println("Failed to add the seat section.\n");
+
+        } else if (TicketPoolRegistry.getInstance().getLoadedPool(eventId) != null) {
+            System.out.println("Successfully added the seat section. It is used once the event is reloaded.\n");
+
+        } else {
+            System.out.println("Successfully added the seat section.\n");
+        }
+    }
+
+    private int getPositive(String prompt) {
+        while (true) {
+            int value = uic.getUserInputInt(prompt);
+            if (value > 0) {
+                return value;
+            }
+            System.out.println("Value must be greater than 0.");
+        }
+    }
+
+    private String getEventName() {
+        while (true) {
+            String eventName = uic.getUserInputString("Please enter an event name:> ");
+            if (validation.validateEventName(eventName)) {
+                return eventName;
+            }
+        }
+    }
+
+    private int getMaxCapacity() {
+        while (true) {
+            int maxCapacity = uic.getUserInputInt("Please enter a max ticket capacity:> ");
+            if (validation.validateMaxCapacity(maxCapacity)) {
+                return maxCapacity;
+            }
+        }
+    }
+
+    private int getTotalTickets(int maxCapacity) {
+        while (true) {
+            int totalTickets = uic.getUserInputInt("Please enter the total tickets:> ");
+            if (validation.validateTotalTickets(totalTickets, maxCapacity)) {
+                return totalTickets;
+            }
+        }
+    }
+
+    private int getEventId() {
+        while (true) {
+            int eventId = uic.getUserInputInt("Please enter an event id:> ");
+            if (validation.existsEvent(eventId)) {
+                return eventId;
+            }
+        }
+    }
+}
@@ -1,24 +1,52 @@
 package main.controllers;
 
 import main.dao.impl.SalesLogDAOImpl;
+import main.models.Event;
 import main.models.SalesLog;
+import main.models.TicketEvent;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 // Controller class for managing and displaying sales logs
 public class SalesLogController {
-    // Displays the sales logs in a structured format
+    // Format of the log timestamp, shared by all threads
+    private static final DateTimeFormatter TIME_AND_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final long SHOWN_MILLIS = 86_400_000L; // Logs of the last 24 hours are shown
+
+    // Displays the sales logs of the last 24 hours in a structured format
     public void salesLog() {
         System.out.println("\n----  Configure System Parameters  ----");
         System.out.println("+-------------------------+-----------------------------------------------------------------+");
         System.out.println("| Log Time and Date       | Log                                                             |");
         System.out.println("+-------------------------+-----------------------------------------------------------------+");
-        // Retrieve all sales logs
-        for (SalesLog salesLog : new SalesLogDAOImpl().getAllLogs()) {
+        // Retrieve the recent sales logs; only the partitions of the last one or two days are read
+        long now = System.currentTimeMillis();
+        for (SalesLog salesLog : new SalesLogDAOImpl().getLogs(now - SHOWN_MILLIS, Long.MAX_VALUE)) {
             System.out.printf(
                     "| %-23s | %-63s |%n", // Format for time, date, and log description
-                    salesLog.getTimeAndDate(), // Log timestamp
-                    salesLog.getLog() // Log message
+                    TIME_AND_DATE_FORMAT.format(Instant.ofEpochMilli(salesLog.getTimestamp())), // Log timestamp
+                    describe(salesLog) // Log message
             );
         }
         System.out.println("+-------------------------+-----------------------------------------------------------------+");
     }
+
+    // Renders the log line of a row; lines of the default event keep their single-event format
+    private String describe(SalesLog salesLog) {
+        String line;
+        if (salesLog.getType() == TicketEvent.Type.RELEASE) {
+            line = "Add " + salesLog.getQuantity() + " tickets into ticket pool [ID - " + salesLog.getActorId()
+                    + "] Vendor " + salesLog.getActorName();
+        } else {
+            line = "Buy " + salesLog.getQuantity() + (salesLog.getQuantity() == 1 ? " ticket" : " tickets")
+                    + " from ticket pool [ID - " + salesLog.getActorId() + "] "
+                    + (salesLog.isVip() ? "VIP Customer" : "Customer")
+                    + (salesLog.getSeats() != null ? " seats " + salesLog.getSeats() : "");
+        }
+        return salesLog.getEventId() == Event.DEFAULT_EVENT_ID ? line : line + " [Event - " + salesLog.getEventId() + "]";
+    }
 }
@@ -1,16 +1,33 @@
 package main.controllers;
 
+import main.dao.EventDAO;
 import main.dao.SystemConfigDAO;
+import main.dao.VendorDAO;
+import main.dao.impl.EventDAOImpl;
 import main.dao.impl.SystemConfigDAOImpl;
 import main.dao.impl.VendorDAOImpl;
+import main.models.Backpressure;
 import main.models.Customer;
+import main.models.SalesLogWriter;
+import main.models.SystemConfiguration;
+import main.models.TicketEventPipeline;
+import main.models.TicketHoldManager;
+import main.models.TicketMetricsEventHandler;
+import main.models.TicketJournal;
 import main.models.TicketPool;
+import main.models.TicketPoolRegistry;
 import main.models.Vendor;
+import main.models.VendorReleaseScheduler;
 import main.util.UserInputGetCollection;
+import main.util.concurrent.AdmissionQueue;
+import main.util.concurrent.ExecutionEngine;
+import main.util.concurrent.TokenBucket;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 
@@ -23,17 +40,35 @@ public class TicketManagementController
     // Data access object for system configuration
     private final SystemConfigDAO configDAO = new SystemConfigDAOImpl();
 
-    // Singleton instance of TicketPool for ticket management
-    private static final TicketPool ticketPool = TicketPool.getInstance();
+    // Data access object for the events customers buy tickets for
+    private final EventDAO eventDAO = new EventDAOImpl();
 
-    // ScheduledExecutorService for handling vendor-related tasks
-    private final ScheduledExecutorService executorServiceVendor = Executors.newScheduledThreadPool(3);
+    // Data access object for the vendors that release tickets
+    private final VendorDAO vendorDAO = new VendorDAOImpl();
+
+    // Registry of the ticket pools of all events
+    private static final TicketPoolRegistry ticketPools = TicketPoolRegistry.getInstance();
 
     // ScheduledExecutorService for handling customer-related tasks
     private final ScheduledExecutorService executorServiceCustomer = Executors.newScheduledThreadPool(1);
-    // Lists to manage VIP and regular customers
-    private static final ArrayList<Customer> vipCustomers = new ArrayList<>();
-    private static final ArrayList<Customer> customers = new ArrayList<>();
+
+    // Scheduled customer arrivals, replaced on restart so arrivals never run twice
+    private ScheduledFuture<?> customerArrivals;
+
+    // Execution engines that run customer purchases and vendor releases, shared by all controllers
+    private static final ExecutionEngine customerEngine = createEngine("customer", "max_concurrent_customers");
+    private static final ExecutionEngine vendorEngine = createEngine("vendor", "max_concurrent_vendors");
+
+    // Timing wheel that releases the tickets of all vendors, batched per tick, shared by all controllers
+    private static final VendorReleaseScheduler vendorScheduler =
+            new VendorReleaseScheduler(vendorEngine, new SystemConfigDAOImpl());
+
+    // Token bucket that limits how many queued customers are admitted per second, shared by all controllers
+    private static final TokenBucket admissionLimiter = new TokenBucket(0, 0);
+
+    // Admission queue for VIP (priority lane) and regular (standard lane) customers, shared by all controllers
+    private static final AdmissionQueue<Customer> admissionQueue = new AdmissionQueue<>(1000, 3, 10, TimeUnit.SECONDS);
+
 
     // Constructor to initialize the system and start it if configured
     public TicketManagementController()
@@ -49,6 +84,19 @@ public class TicketManagementController
         }
     }
 
+    // Creates an engine in the "execution_mode" (0 platform threads, 1 virtual threads) with a concurrency limit
+    private static ExecutionEngine createEngine(String name, String limitKey) {
+        try {
+            SystemConfigDAO systemConfigDAO = new SystemConfigDAOImpl();
+            return new ExecutionEngine(name,
+                    ExecutionEngine.mode(systemConfigDAO.findConfigValue("execution_mode")),
+                    systemConfigDAO.findConfigValue(limitKey));
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize the " + name + " execution engine.", e);
+        }
+    }
+
     // Displays the system parameter configuration menu
     private int configureSystemParametersMenu()
     {
@@ -115,53 +163,122 @@ public class TicketManagementController
         startSystemForCustomers();
     }
 
-    // Starts vendor-related tasks
+    /**
+     * Starts vendor-related tasks by comparing the vendors table with the running schedules:
+     * new and changed vendors are scheduled, removed ones cancelled, unchanged ones keep running.
+     */
     public void startSystemForVendors() throws SQLException
     {
-        for (Vendor v : new VendorDAOImpl().getAllVendors())
-        {
-            v.start(executorServiceVendor, ticketPool);
+        SystemConfiguration config = configDAO.getConfiguration();
+        applyLimits(config);
+        vendorScheduler.setMinReleaseInterval(config.ticketReleaseIntervalMicros());
+        vendorScheduler.sync(vendorDAO.getAllVendors());
+    }
+
+    // Reschedules the one vendor that was added, updated or deleted
+    public void applyVendorChange(int vendorId)
+    {
+        Vendor vendor = vendorDAO.getVendor(vendorId);
+        if (vendor.getId() == vendorId) {
+            vendorScheduler.update(vendor);
+        } else {
+            vendorScheduler.cancel(vendorId);
         }
     }
 
-    // Starts customer-related tasks
-    public void startSystemForCustomers() throws SQLException
+    // Reschedules the vendors whose period the minimum release interval changes
+    public void applyReleaseInterval() throws SQLException
+    {
+        vendorScheduler.setMinReleaseInterval(configDAO.findConfigValue("ticket_release_interval_us"));
+    }
+
+    // Starts customer-related tasks; arrivals that are already scheduled are replaced, not doubled
+    public synchronized void startSystemForCustomers() throws SQLException
     {
+        // One snapshot, so the arrivals are scheduled with settings that belong together
+        SystemConfiguration config = configDAO.getConfiguration();
+        admissionQueue.configure(
+                config.admissionQueueCapacity(),
+                config.vipAdmissionWeight(),
+                config.admissionMaxWaitSec(),
+                TimeUnit.SECONDS);
+        applyLimits(config);
+
+        int customersPerTick = config.customersPerTick();
+
+        // Every arriving customer buys tickets for one of the events
+        List<Integer> eventIds = eventDAO.getAllEventIds();
+        if (eventIds.isEmpty()) {
+            System.out.println("No events found, customers are not started.");
+            return;
+        }
+
         // Schedule a new customer task at a fixed rate
-        executorServiceCustomer.scheduleAtFixedRate(() ->
+        stopSystemForCustomers();
+        customerArrivals = executorServiceCustomer.scheduleAtFixedRate(() ->
                 {
             try {
-                Customer customer1 = new Customer(ticketPool);
-                Customer customer2 = new Customer(ticketPool);
-
-                if (customer1.isVip()) {
-                    vipCustomers.add(customer1);
-                } else {
-                    customers.add(customer1);
+                // New arrivals join their lane; a full lane sheds the customer
+                for (int i = 0; i < customersPerTick; i++) {
+                    int eventId = eventIds.get(ThreadLocalRandom.current().nextInt(eventIds.size()));
+                    // Only a pool in memory is asked, so arrivals never load an event or keep it from going idle;
+                    // the customer loads and pins the pool once it is admitted
+                    TicketPool pool = ticketPools.getLoadedPool(eventId);
+                    // An event with no tickets turns new arrivals away until a vendor releases again
+                    if (pool != null && pool.getBackpressure().shedCustomer()) {
+                        continue;
+                    }
+                    Customer customer = new Customer(eventId);
+                    admissionQueue.offer(customer, customer.isVip()
+                            ? AdmissionQueue.Lane.PRIORITY
+                            : AdmissionQueue.Lane.STANDARD);
                 }
 
-                if (customer2.isVip()) {
-                    vipCustomers.add(customer2);
-                } else {
-                    customers.add(customer2);
-                }
-
-                if (!vipCustomers.isEmpty()) {
-                    new Thread(vipCustomers.getFirst()).start();
-                    vipCustomers.removeFirst();
-
-                } else {
-                    new Thread(customers.getFirst()).start();
-                    customers.removeFirst();
+                // Admit as many customers as arrived, in weighted-fair order, while the admission limit
+                // and the engine allow; the others stay queued until permits free up
+                for (int i = 0; i < customersPerTick; i++) {
+                    if (!admissionLimiter.tryAcquire(1)) {
+                        break;
+                    }
+                    if (!customerEngine.tryExecute(admissionQueue::poll)) {
+                        admissionLimiter.refund(1);
+                        break;
+                    }
                 }
 
-            } catch (SQLException e) {
+            } catch (SQLException | IllegalArgumentException e) {
                 System.err.println("Failed creating a new customer: " + e.getMessage());
             }
         }, 0,
-                configDAO.findConfigValue("customer_retrieval_rate"),
-                TimeUnit.SECONDS);
+                config.customerRetrievalIntervalMicros(),
+                TimeUnit.MICROSECONDS);
+
+    }
+
+    /**
+     * Reads the token bucket limits and backpressure watermarks from the system configuration and
+     * applies them to the running limiters and pools, without restarting anything.
+     * Called on start and whenever one of them changes.
+     */
+    public void applyLimits() throws SQLException
+    {
+        applyLimits(configDAO.getConfiguration());
+    }
 
+    private void applyLimits(SystemConfiguration config)
+    {
+        vendorScheduler.setLimits(
+                config.vendorTicketsPerSec(),
+                config.vendorTicketBurst(),
+                config.releaseTicketsPerSec(),
+                config.releaseTicketBurst());
+        admissionLimiter.setRate(
+                config.customerAdmissionsPerSec(),
+                config.customerAdmissionBurst());
+        Backpressure.configure(
+                config.vendorPauseWatermarkPct(),
+                config.vendorResumeWatermarkPct(),
+                config.customerWaitSec());
     }
 
     // Stops the ticket management system
@@ -179,33 +296,28 @@ public class TicketManagementController
     // Stops vendor-related processes
     public void stopSystemForVendors() throws SQLException
     {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            executorServiceVendor.shutdown();
-            try {
-                if (!executorServiceVendor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    executorServiceVendor.shutdownNow();
-                }
-
-            } catch (InterruptedException e) {
-                executorServiceVendor.shutdownNow();
-            }
-        }));
+        vendorScheduler.cancelAll();
     }
 
-    // Stops customer-related processes
-    public void stopSystemForCustomers() throws SQLException
+    // Stops customer-related processes; customers already admitted finish their purchase
+    public synchronized void stopSystemForCustomers() throws SQLException
     {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            executorServiceCustomer.shutdown();
-            try {
-                if (!executorServiceCustomer.awaitTermination(5, TimeUnit.SECONDS)) {
-                    executorServiceCustomer.shutdownNow();
-                }
+        if (customerArrivals != null) {
+            customerArrivals.cancel(false);
+            customerArrivals = null;
+        }
+    }
 
-            } catch (InterruptedException e) {
-                executorServiceCustomer.shutdownNow();
-            }
-        }));
+    /**
+     * Shuts the engines down on exit: customers first, so their holds and waits end while vendors
+     * and the event pipeline are still running, then vendors.
+     */
+    public void shutdown()
+    {
+        executorServiceCustomer.shutdownNow();
+        vendorScheduler.shutdown();
+        customerEngine.shutdown(5, TimeUnit.SECONDS);
+        vendorEngine.shutdown(5, TimeUnit.SECONDS);
     }
 
     // Restart system
@@ -226,14 +338,75 @@ public class TicketManagementController
         startSystemForCustomers();
     }
 
-    // Displays the current status of the system
+    // Displays the current status of the system, summed over the events in memory
     private void showStatus() {
         try {
+            int available = 0, waiting = 0, held = 0, activeHolds = 0;
+            long confirmed = 0, expired = 0, released = 0, pausedReleases = 0, shedCustomers = 0;
+            int[] states = new int[Backpressure.State.values().length];
+            for (TicketPool pool : ticketPools.getResidentPools()) {
+                Backpressure backpressure = pool.getBackpressure();
+                states[backpressure.evaluate().ordinal()]++;
+                pausedReleases += backpressure.getPausedReleases();
+                shedCustomers += backpressure.getShedCustomers();
+                TicketHoldManager holds = pool.getHolds();
+                available += pool.getTotalTickets();
+                waiting += pool.getWaitingCustomers();
+                held += pool.getHeldTickets();
+                activeHolds += holds.getActiveHolds();
+                confirmed += holds.getConfirmations();
+                expired += holds.getExpirations();
+                released += holds.getReleases();
+            }
+            TicketMetricsEventHandler events = TicketEventPipeline.getInstance().getMetrics();
+            SalesLogWriter salesLog = TicketEventPipeline.getInstance().getSalesLogWriter();
+            TicketJournal journal = ticketPools.getJournal();
             System.out.println(
                 "\n-----   Show Status   -----\n" +
                 (configDAO.findConfigValue("system_status") == 1
                 ? "System is running\n"
                 : "System is stop\n") +
+                "Events Loaded: " + ticketPools.getResidentEvents() +
+                " (loaded " + ticketPools.getLoads() + ", evicted " + ticketPools.getEvictions() + ")\n" +
+                "Tickets Available: " + available + "\n" +
+                "Customers Waiting: " + waiting + "\n" +
+                "Tickets On Hold: " + held +
+                " (" + activeHolds + " active holds)\n" +
+                "Holds Confirmed: " + confirmed + "\n" +
+                "Holds Expired: " + expired + "\n" +
+                "Holds Released: " + released + "\n" +
+                engineStatus(customerEngine, "Customer") +
+                engineStatus(vendorEngine, "Vendor") +
+                String.format("Vendor Releases: %d vendors scheduled (%d rescheduled), %.1f vendors per batch, lag %d ms avg / %d ms max%n",
+                        vendorScheduler.getScheduledVendors(), vendorScheduler.getReschedules(), vendorScheduler.getAverageBatchSize(),
+                        vendorScheduler.getAverageLagMillis(), vendorScheduler.getMaxLagMillis()) +
+                limiterStatus("Release Limit", vendorScheduler.getReleaseLimiter(), "tickets") +
+                "Vendor Releases Throttled: " + vendorScheduler.getVendorThrottled() + "\n" +
+                limiterStatus("Admission Limit", admissionLimiter, "customers") +
+                "Backpressure: " + boundBy(states) + " (" +
+                states[Backpressure.State.BALANCED.ordinal()] + " balanced, " +
+                states[Backpressure.State.CONSUMER_BOUND.ordinal()] + " full, " +
+                states[Backpressure.State.PRODUCER_BOUND.ordinal()] + " empty events)\n" +
+                "Vendor Releases Paused: " + pausedReleases + "\n" +
+                "Customers Shed: " + shedCustomers + "\n" +
+                admissionStatus(AdmissionQueue.Lane.PRIORITY, "VIP") +
+                admissionStatus(AdmissionQueue.Lane.STANDARD, "Regular") +
+                "Tickets Released: " + events.getTicketsReleased() + " (" + events.getReleases() + " releases)\n" +
+                "Tickets Sold: " + events.getTicketsSold() + " (" + events.getPurchases() + " purchases)\n" +
+                String.format("Event Pipeline: %d pending, %.1f events per batch%n",
+                        TicketEventPipeline.getInstance().getBacklog(), events.getAverageBatchSize()) +
+                String.format("Sales Log: %d rows queued, %d commits, %.1f rows per commit (max %d), " +
+                                "%d failed commits, %d rows dropped, %s%n",
+                        salesLog.getQueuedRows(), salesLog.getBatches(), salesLog.getAverageBatchSize(),
+                        salesLog.getMaxBatchSize(), salesLog.getFailedCommits(), salesLog.getRowsDropped(),
+                        salesLog.getDurability() == SalesLogWriter.Durability.ACK_AFTER_COMMIT
+                                ? "acknowledged after commit" : "fire-and-forget") +
+                (journal.isEnabled()
+                ? String.format("Ticket Journal: %d records (%d since the last snapshot), %d segments, %d snapshots, " +
+                                "recovered %d records in %d ms%n",
+                        journal.getRecords(), journal.getTailRecords(), journal.getSegmentCount(), journal.getSnapshots(),
+                        journal.getRecoveredRecords(), journal.getRecoveryMillis())
+                : "Ticket Journal: disabled\n") +
                 "--------------------------------------------"
             );
 
@@ -242,11 +415,43 @@ public class TicketManagementController
         }
     }
 
-    // Starts the system by updating the configuration and initiating processes
+    // Names the side that limits throughput: full pools wait for customers, empty pools wait for vendors
+    private String boundBy(int[] states) {
+        int full = states[Backpressure.State.CONSUMER_BOUND.ordinal()];
+        int empty = states[Backpressure.State.PRODUCER_BOUND.ordinal()];
+        if (full == 0 && empty == 0) {
+            return "balanced";
+        }
+        return full >= empty ? "consumer-bound" : "producer-bound";
+    }
+
+    // Formats the limit and metrics of a token bucket
+    private String limiterStatus(String label, TokenBucket limiter, String unit) {
+        return label + ": " + (limiter.isUnlimited() ? "unlimited" : limiter.getPermitsPerSecond() + " " + unit + "/s") +
+                " (granted " + limiter.getGranted() + ", throttled " + limiter.getThrottled() + ")\n";
+    }
+
+    // Formats the metrics of an execution engine
+    private String engineStatus(ExecutionEngine engine, String label) {
+        return label + " Threads: " + engine.getActive() + " of " + engine.getMaxConcurrent() +
+                " running (" + engine.getMode().name().toLowerCase() +
+                ", started " + engine.getStarted() +
+                ", saturated " + engine.getSaturated() + ")\n";
+    }
+
+    // Formats the admission queue metrics of one lane
+    private String admissionStatus(AdmissionQueue.Lane lane, String label) {
+        return label + " Queue: " + admissionQueue.getDepth(lane) + " waiting" +
+                " (admitted " + admissionQueue.getAdmitted(lane) +
+                ", avg wait " + admissionQueue.getAverageWaitMillis(lane) + " ms" +
+                ", oldest " + admissionQueue.getOldestWaitMillis(lane) + " ms" +
+                ", shed " + admissionQueue.getShed(lane) + ")\n";
+    }
+
+    // Starts the system by updating the configuration; the published change starts the processes
     private void setStartSystem() {
         try {
             configDAO.updateConfigValue("system_status", 1);
-            startSystem();
             System.out.println("System is running.");
 
         } catch (SQLException e) {
@@ -254,11 +459,10 @@ public class TicketManagementController
         }
     }
 
-    // Stops the system by updating the configuration and terminating processes
+    // Stops the system by updating the configuration; the published change terminates the processes
     private void setStopSystem() {
         try {
             configDAO.updateConfigValue("system_status", 0);
-            stopSystem();
             System.out.println("System is stop.");
 
         } catch (SQLException e) {
@@ -266,11 +470,14 @@ public class TicketManagementController
         }
     }
 
-    // Restart System
+    // Restart System; a stopped system is started by the published status change
     private void setRestartSystem() {
         try {
-            configDAO.updateConfigValue("system_status", 1);
-            restartSystem();
+            if (configDAO.findConfigValue("system_status") == 1) {
+                restartSystem();
+            } else {
+                configDAO.updateConfigValue("system_status", 1);
+            }
             System.out.println("System is restart.");
 
         } catch (SQLException e) {
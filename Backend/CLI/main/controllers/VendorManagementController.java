@@ -3,7 +3,9 @@ package main.controllers;
 import main.dao.VendorDAO;
 import main.dao.impl.VendorDAOImpl;
 import main.models.Vendor;
+import main.util.Interval;
 import main.util.UserInputGetCollection;
+import main.util.validation.EventValidation;
 import main.util.validation.VendorValidation;
 
 import java.util.List;
@@ -19,6 +21,9 @@ public class VendorManagementController {
     // Validation utility for vendor data
     private final static VendorValidation validation = new VendorValidation();
 
+    // Validation utility for the vendor's event
+    private final static EventValidation eventValidation = new EventValidation();
+
     // Displays the vendor management menu
     private int manageVendorsMenu()
     {
@@ -79,7 +84,8 @@ public class VendorManagementController {
         System.out.println("\n-----     Add Vendor    -----");
         System.out.println(configDAO.addVendor(new Vendor(getVendorName(),
                 getTicketsPerRelease(),
-                getReleaseRateSec())) ? "Successfully added the vendor.\n" : "Failed to added the vendor.");
+                getReleaseInterval(),
+                getEventId())) ? "Successfully added the vendor.\n" : "Failed to added the vendor.");
     }
 
     // Removes a vendor from the system
@@ -93,20 +99,21 @@ public class VendorManagementController {
     // Displays all vendors in a formatted table
     private void showAllVendors() {
         System.out.println("\n-----     Show All Vendors     -----");
-        System.out.println("+-----+-------------------------+---------------------+--------------------+");
-        System.out.println("| ID  | Vendor Name             | Tickets Per Release | Release Rate (sec) |");
-        System.out.println("+-----+-------------------------+---------------------+--------------------+");
+        System.out.println("+-----+-------------------------+---------------------+--------------------+----------+");
+        System.out.println("| ID  | Vendor Name             | Tickets Per Release | Release Rate       | Event ID |");
+        System.out.println("+-----+-------------------------+---------------------+--------------------+----------+");
         // Iterate through the list of vendors and print their details
         for (Vendor vendor : configDAO.getAllVendors()) {
             System.out.printf(
-                    "| %-3d | %-23s | %-19d | %-18d |%n",
+                    "| %-3d | %-23s | %-19d | %-18s | %-8d |%n",
                     vendor.getId(),
                     vendor.getVendorName(),
                     vendor.getTicketsPerRelease(),
-                    vendor.getReleaseRateSec()
+                    Interval.format(vendor.getReleaseIntervalMicros()),
+                    vendor.getEventId()
             );
         }
-        System.out.println("+-----+-------------------------+---------------------+--------------------+");
+        System.out.println("+-----+-------------------------+---------------------+--------------------+----------+");
     }
 
     // Updates an existing vendor
@@ -116,7 +123,8 @@ public class VendorManagementController {
                 getVendorId(),
                 getVendorName(),
                 getTicketsPerRelease(),
-                getReleaseRateSec())) ? "Successfully update vendor.\n": "Failed to update vendor.\n");
+                getReleaseInterval(),
+                getEventId())) ? "Successfully update vendor.\n": "Failed to update vendor.\n");
     }
 
     private String getVendorName() {
@@ -137,11 +145,21 @@ public class VendorManagementController {
         }
     }
 
-    private int getReleaseRateSec() {
+    private int getReleaseInterval() {
+        while (true) {
+            int releaseIntervalMicros = Interval.parseMicros(
+                    uic.getUserInputString("Please enter a release rate (e.g. 30s, 250ms, 500us or 20/s) :> "));
+            if (validation.validateVendorReleaseInterval(releaseIntervalMicros)) {
+                return releaseIntervalMicros;
+            }
+        }
+    }
+
+    private int getEventId() {
         while (true) {
-            int releaseRateSec = uic.getUserInputInt("Please enter a release rate (sec) :> ");
-            if (validation.validateVendorReleaseRateSec(releaseRateSec)) {
-                return releaseRateSec;
+            int eventId = uic.getUserInputInt("Please enter the event id the vendor releases tickets for:> ");
+            if (eventValidation.existsEvent(eventId)) {
+                return eventId;
             }
         }
     }
@@ -0,0 +1,24 @@
+package main.dao;
+
+import main.models.Event;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+
+public interface EventDAO  // Interface for performing data operations related to events and their inventory.
+{
+    boolean addEvent(Event event);
+    boolean updateEvent(Event event);
+    Event getEvent(int eventId);
+    List<Event> getAllEvents();
+    List<Integer> getAllEventIds();
+    boolean existsEvent(int eventId);
+    int findTotalTickets(int eventId) throws SQLException;
+    int findMaxCapacity(int eventId) throws SQLException;
+    Map<Integer, Integer> findAllTotalTickets() throws SQLException;
+    Map<Integer, Integer> findAllMaxCapacities() throws SQLException;
+    void updateTotalTickets(int eventId, int totalTickets) throws SQLException;
+    boolean compareAndSetTotalTickets(int eventId, int expectedTotal, int totalTickets) throws SQLException;
+    void updateMaxCapacity(int eventId, int maxCapacity) throws SQLException;
+}
@@ -3,11 +3,16 @@ package main.dao;
 
 // Importing the SalesLog model and List class for handling sales log data.
 import main.models.SalesLog;
+import java.sql.SQLException;
 import java.util.List;
 
 
 public interface SalesLogDAO  // Defining an interface SalesLogDAO that provides a blueprint for logging sales activities.
 {
-    void addLog(String log);  // Method to add a new log entry.
-    List<SalesLog> getAllLogs();
+    void addLogs(List<SalesLog> logs) throws SQLException;  // Adds several log entries in one transaction, rolled back on failure.
+    List<SalesLog> getAllLogs();  // All log entries, oldest first.
+    List<SalesLog> getLogs(long fromMillis, long toMillis);  // Log entries with from <= time < to, oldest first.
+    int archivePartitions(long beforeMillis);  // Compacts the days before the time into archives.
+    int dropPartitions(long beforeMillis);  // Drops the days before the time, tables and archives.
+    void maintainPartitions(int archiveAfterDays, int retentionDays);  // Rollover, retention and archiving.
 }
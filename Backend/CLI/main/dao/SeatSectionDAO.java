@@ -0,0 +1,13 @@
+package main.dao;
+
+import main.models.SeatSection;
+import java.sql.SQLException;
+import java.util.List;
+
+
+public interface SeatSectionDAO  // Interface for performing data operations related to the seat sections of events.
+{
+    boolean addSection(int eventId, String sectionName, int rows, int seatsPerRow);
+    List<SeatSection> getSections(int eventId) throws SQLException;
+    void updateSeats(SeatSection section) throws SQLException;
+}
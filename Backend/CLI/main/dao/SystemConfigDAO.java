@@ -1,11 +1,13 @@
 package main.dao;
 
 
+import main.models.SystemConfiguration;
 import java.sql.SQLException;  // Importing the SQLException class to handle potential database interaction issues.
 
 
 public interface SystemConfigDAO
 {
     int findConfigValue(String configKey) throws SQLException;
+    SystemConfiguration getConfiguration() throws SQLException;
     void updateConfigValue(String configKey, int configValue) throws SQLException;
 }
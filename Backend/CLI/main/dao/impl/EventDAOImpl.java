@@ -0,0 +1,255 @@
+package main.dao.impl;
+
+import main.dao.EventDAO;
+import main.db.SQLiteConnection;
+import main.models.Event;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the EventDAO interface.
+ * Each row of the "events" table holds the ticket inventory and capacity of one event.
+ */
+public class EventDAOImpl implements EventDAO {
+
+    public EventDAOImpl() {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             Statement stmt = writer.createStatement()) {
+
+            // Create the table if it doesn't exist
+            stmt.execute("CREATE TABLE IF NOT EXISTS events (\n" +
+                    "    event_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                    "    event_name TEXT UNIQUE NOT NULL,\n" +
+                    "    total_tickets INTEGER NOT NULL,\n" +
+                    "    max_ticket_capacity INTEGER NOT NULL\n" +
+                    ");");
+
+            // The default event takes over the inventory of the former single-event settings
+            stmt.execute("INSERT OR IGNORE INTO events (event_id, event_name, total_tickets, max_ticket_capacity)\n" +
+                    "SELECT " + Event.DEFAULT_EVENT_ID + ", 'Default Event',\n" +
+                    "    COALESCE((SELECT config_value FROM system_config WHERE config_key = 'total_tickets'), 50),\n" +
+                    "    COALESCE((SELECT config_value FROM system_config WHERE config_key = 'max_ticket_capacity'), 500)");
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean addEvent(Event event) {
+        String query = "INSERT INTO events(event_name, total_tickets, max_ticket_capacity) VALUES (?, ?, ?)";
+
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
+            preparedStatement.setString(1, event.getEventName());
+            preparedStatement.setInt(2, event.getTotalTickets());
+            preparedStatement.setInt(3, event.getMaxCapacity());
+            preparedStatement.executeUpdate();
+            return true;
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean updateEvent(Event event) {
+        String query = "UPDATE events SET event_name = ?, total_tickets = ?, max_ticket_capacity = ? WHERE event_id = ?";
+
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
+            preparedStatement.setString(1, event.getEventName());
+            preparedStatement.setInt(2, event.getTotalTickets());
+            preparedStatement.setInt(3, event.getMaxCapacity());
+            preparedStatement.setInt(4, event.getId());
+            return preparedStatement.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public Event getEvent(int eventId) {
+        String query = "SELECT * FROM events WHERE event_id = ?";
+
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            preparedStatement.setInt(1, eventId);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return toEvent(resultSet);
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return null; // No event with this ID
+    }
+
+    @Override
+    public List<Event> getAllEvents() {
+        List<Event> events = new ArrayList<>();
+        String query = "SELECT * FROM events ORDER BY event_id;";
+
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                events.add(toEvent(resultSet));
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return events;
+    }
+
+    @Override
+    public List<Integer> getAllEventIds() {
+        List<Integer> eventIds = new ArrayList<>();
+        String query = "SELECT event_id FROM events ORDER BY event_id;";
+
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                eventIds.add(resultSet.getInt(1));
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return eventIds;
+    }
+
+    @Override
+    public boolean existsEvent(int eventId) {
+        String query = "SELECT COUNT(*) FROM events WHERE event_id = ?";
+
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            preparedStatement.setInt(1, eventId);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return resultSet.getInt(1) > 0;
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public int findTotalTickets(int eventId) throws SQLException {
+        return findColumn("total_tickets", eventId);
+    }
+
+    @Override
+    public int findMaxCapacity(int eventId) throws SQLException {
+        return findColumn("max_ticket_capacity", eventId);
+    }
+
+    // Stored ticket counts of all events in one query, used to pick up external changes
+    @Override
+    public Map<Integer, Integer> findAllTotalTickets() throws SQLException {
+        Map<Integer, Integer> totals = new HashMap<>();
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement("SELECT event_id, total_tickets FROM events")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                totals.put(resultSet.getInt(1), resultSet.getInt(2));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public Map<Integer, Integer> findAllMaxCapacities() throws SQLException {
+        Map<Integer, Integer> capacities = new HashMap<>();
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement("SELECT event_id, max_ticket_capacity FROM events")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                capacities.put(resultSet.getInt(1), resultSet.getInt(2));
+            }
+        }
+        return capacities;
+    }
+
+    @Override
+    public void updateTotalTickets(int eventId, int totalTickets) throws SQLException {
+        updateColumn("total_tickets", eventId, totalTickets);
+    }
+
+    // Writes the count only if the stored one is still the expected value; false if it was changed meanwhile
+    @Override
+    public boolean compareAndSetTotalTickets(int eventId, int expectedTotal, int totalTickets) throws SQLException {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(
+                "UPDATE events SET total_tickets = ? WHERE event_id = ? AND total_tickets = ?")) {
+            preparedStatement.setInt(1, totalTickets);
+            preparedStatement.setInt(2, eventId);
+            preparedStatement.setInt(3, expectedTotal);
+
+            return preparedStatement.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public void updateMaxCapacity(int eventId, int maxCapacity) throws SQLException {
+        updateColumn("max_ticket_capacity", eventId, maxCapacity);
+    }
+
+    // Column names are constants of this class, never user input
+    private int findColumn(String column, int eventId) throws SQLException {
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(
+                "SELECT " + column + " FROM events WHERE event_id = ?")) {
+            preparedStatement.setInt(1, eventId);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return resultSet.getInt(1);
+
+            } else {
+                System.out.println("No event found with ID " + eventId + ".");
+                return -1;
+            }
+        }
+    }
+
+    private void updateColumn(String column, int eventId, int value) throws SQLException {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(
+                "UPDATE events SET " + column + " = ? WHERE event_id = ?")) {
+            preparedStatement.setInt(1, value);
+            preparedStatement.setInt(2, eventId);
+
+            if (preparedStatement.executeUpdate() == 0) {
+                System.out.println("No event found with ID " + eventId + ".");
+            }
+        }
+    }
+
+    private Event toEvent(ResultSet resultSet) throws SQLException {
+        return new Event(
+                resultSet.getInt("event_id"),
+                resultSet.getString("event_name"),
+                resultSet.getInt("total_tickets"),
+                resultSet.getInt("max_ticket_capacity"));
+    }
+}
@@ -0,0 +1,269 @@
+package main.dao.impl;
+
+import main.models.SalesLog;
+import main.models.TicketEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed columnar file of the sales log rows of one archived day partition, oldest first.
+ * Every column is stored as its own deflated block: IDs and timestamps as variable-length deltas, small
+ * integers as variable-length numbers, flags as bytes and names as length-prefixed UTF-8, so each block
+ * holds similar values and compresses well. The header carries the row count and time range, so a reader
+ * can skip a file without inflating anything, and a time-range read inflates the timestamps first and
+ * only decodes the rows inside the range. A CRC32 over the whole file catches torn or damaged files.
+ * The API reads the same format.
+ */
+final class SalesLogArchive {
+    private static final int MAGIC = 0x534C4131; // "SLA1"
+    private static final int HEADER_SIZE = 24; // Magic, row count, first and last timestamp
+
+    // Column order in the file
+    private static final int SALE_ID = 0;
+    private static final int OCCURRED_AT = 1;
+    private static final int EVENT_TYPE = 2;
+    private static final int ACTOR_TYPE = 3;
+    private static final int ACTOR_ID = 4;
+    private static final int ACTOR_NAME = 5;
+    private static final int VIP = 6;
+    private static final int QUANTITY = 7;
+    private static final int EVENT_ID = 8;
+    private static final int SEATS = 9;
+    private static final int COLUMNS = 10;
+
+    private SalesLogArchive() {
+    }
+
+    /**
+     * Writes rows sorted by time and sale ID to the file, replacing it as a whole,
+     * so a crash leaves either the old or the new file.
+     */
+    static void write(Path file, List<SalesLog> rows) throws IOException {
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMNS];
+        DataOutputStream[] out = new DataOutputStream[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ByteArrayOutputStream();
+            out[i] = new DataOutputStream(columns[i]);
+        }
+        long previousId = 0;
+        long previousTime = 0;
+        for (SalesLog row : rows) {
+            writeVarLong(out[SALE_ID], row.getId() - previousId);
+            writeVarLong(out[OCCURRED_AT], row.getTimestamp() - previousTime);
+            out[EVENT_TYPE].writeByte(row.getType().ordinal());
+            out[ACTOR_TYPE].writeByte(row.getActorType().ordinal());
+            writeVarLong(out[ACTOR_ID], row.getActorId());
+            writeString(out[ACTOR_NAME], row.getActorName());
+            out[VIP].writeByte(row.isVip() ? 1 : 0);
+            writeVarLong(out[QUANTITY], row.getQuantity());
+            writeVarLong(out[EVENT_ID], row.getEventId());
+            writeString(out[SEATS], row.getSeats());
+            previousId = row.getId();
+            previousTime = row.getTimestamp();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(rows.size());
+        output.writeLong(rows.isEmpty() ? 0 : rows.get(0).getTimestamp());
+        output.writeLong(rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getTimestamp());
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (ByteArrayOutputStream column : columns) {
+                byte[] raw = column.toByteArray();
+                byte[] compressed = deflate(deflater, raw);
+                output.writeInt(raw.length);
+                output.writeInt(compressed.length);
+                output.write(compressed);
+            }
+
+        } finally {
+            deflater.end();
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        output.writeLong(checksum.getValue()); // Of everything before it
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads the rows with from <= time < to, oldest first
+    static List<SalesLog> read(Path file, long from, long to) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < HEADER_SIZE + Long.BYTES || input.readInt() != MAGIC) {
+            throw new IOException("Not a sales log archive: " + file);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - Long.BYTES);
+        if (checksum.getValue() != readLong(bytes, bytes.length - Long.BYTES)) {
+            throw new IOException("Damaged sales log archive: " + file);
+        }
+        int rows = input.readInt();
+        long first = input.readLong();
+        long last = input.readLong();
+        List<SalesLog> result = new ArrayList<>();
+        if (rows == 0 || last < from || first >= to) {
+            return result;
+        }
+
+        byte[][] blocks = new byte[COLUMNS][];
+        int[] rawLengths = new int[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            rawLengths[i] = input.readInt();
+            blocks[i] = new byte[input.readInt()];
+            input.readFully(blocks[i]);
+        }
+
+        // Timestamps first, to find the rows inside the range
+        DataInputStream times = column(blocks, rawLengths, OCCURRED_AT);
+        long[] timestamps = new long[rows];
+        long time = 0;
+        for (int i = 0; i < rows; i++) {
+            time += readVarLong(times);
+            timestamps[i] = time;
+        }
+        int low = 0;
+        while (low < rows && timestamps[low] < from) {
+            low++;
+        }
+        int high = low;
+        while (high < rows && timestamps[high] < to) {
+            high++;
+        }
+        if (low == high) {
+            return result;
+        }
+
+        DataInputStream ids = column(blocks, rawLengths, SALE_ID);
+        DataInputStream eventTypes = column(blocks, rawLengths, EVENT_TYPE);
+        DataInputStream actorTypes = column(blocks, rawLengths, ACTOR_TYPE);
+        DataInputStream actorIds = column(blocks, rawLengths, ACTOR_ID);
+        DataInputStream actorNames = column(blocks, rawLengths, ACTOR_NAME);
+        DataInputStream vips = column(blocks, rawLengths, VIP);
+        DataInputStream quantities = column(blocks, rawLengths, QUANTITY);
+        DataInputStream eventIds = column(blocks, rawLengths, EVENT_ID);
+        DataInputStream seats = column(blocks, rawLengths, SEATS);
+        long id = 0;
+        for (int i = 0; i < high; i++) {
+            id += readVarLong(ids);
+            SalesLog row = new SalesLog((int) id, timestamps[i],
+                    TicketEvent.Type.values()[eventTypes.readByte()],
+                    SalesLog.ActorType.values()[actorTypes.readByte()],
+                    (int) readVarLong(actorIds), readString(actorNames), vips.readByte() != 0,
+                    (int) readVarLong(quantities), (int) readVarLong(eventIds), readString(seats));
+            if (i >= low) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return compressed.toByteArray();
+    }
+
+    // Inflates one column block for reading
+    private static DataInputStream column(byte[][] blocks, int[] rawLengths, int column) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(blocks[column]);
+            byte[] raw = new byte[rawLengths[column]];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Truncated sales log archive column " + column + ".");
+            }
+            return new DataInputStream(new ByteArrayInputStream(raw));
+
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged sales log archive column " + column + ".", e);
+
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Variable-length zig-zag number: small values of either sign take one or two bytes
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigZag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    // Length + 1 (0 for null), then the UTF-8 bytes
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length - 1];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -2,75 +2,699 @@ package main.dao.impl;
 
 import main.dao.SalesLogDAO;
 import main.db.SQLiteConnection;
+import main.models.Event;
 import main.models.SalesLog;
+import main.models.TicketEvent;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
- // Implements the SalesLogDAO interface
+/**
+ * Implements the SalesLogDAO interface on day partitions.
+ * Every UTC day has its own "sales_events_yyyyMMdd" table, created by the first write of the day (or ahead of
+ * time by the maintenance), and a row in the "sales_partitions" catalog with its row counts and the last sale
+ * ID, so sale IDs stay unique across partitions. Reads look up the days of their time range in the catalog
+ * and only touch those partitions. Each partition table has an FTS5 index of its vendor names and seats for
+ * the API's search, dropped with the table. Old days are compacted into a {@link SalesLogArchive} file and
+ * their table dropped; retention drops whole days, table or file, instead of deleting rows.
+ * Rows that arrive late for an archived day go into a new table for that day, and the next archive run
+ * merges them into a new file.
+ */
 public class SalesLogDAOImpl implements SalesLogDAO {
-    private static final Connection connection = SQLiteConnection.getInstance().getConnection();
+    // A batch is inserted in chunks of these sizes (powers of two, the largest repeated), so a handful of
+    // statement texts covers every batch size and stays in the connection's statement cache
+    private static final int MAX_ROWS_PER_INSERT = 128;
+    private static final String COLUMNS =
+            "occurred_at, event_type, actor_type, actor_id, actor_name, vip, quantity, event_id, seats";
+    private static final String ROW_PARAMETERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Path ARCHIVE_DIRECTORY = Path.of("../sales_archive"); // Next to the database file
+
+    // Days whose partition table this process created or found, so writes skip the DDL; changed under the writer
+    private static final Set<Long> livePartitions = ConcurrentHashMap.newKeySet();
+    private static volatile boolean initialized; // Catalog created, former tables migrated and indexed, once per process
+
+    // Formats of the rows the former "sales_log" table stored as text
+    private static final DateTimeFormatter LEGACY_TIME_AND_DATE = DateTimeFormatter.ofPattern("ss:mm:HH - dd/MM/yyyy");
+    private static final Pattern LEGACY_RELEASE = Pattern.compile(
+            "Add (\\d+) tickets into ticket pool \\[ID - (\\d+)] Vendor (.*?)(?: \\[Event - (\\d+)])?");
+    private static final Pattern LEGACY_PURCHASE = Pattern.compile(
+            "Buy (\\d+) tickets? from ticket pool \\[ID - (\\d+)] (VIP )?Customer(?: seats (.*?))?(?: \\[Event - (\\d+)])?");
 
     public SalesLogDAOImpl() {
-        try {
-            Statement stmt = connection.createStatement();
+        if (!initialized) {
+            initialize();
+        }
+    }
 
-            // Create the "sales_log" table with fields for sale ID, date/time, and log details
-            stmt.execute("CREATE TABLE IF NOT EXISTS sales_log (\n" +
-                    "    sale_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
-                    "    date_time TEXT NOT NULL,\n" +
-                    "    log TEXT NOT NULL\n" +
+    // Creates the catalog, migrates the former sales log tables and indexes the partitions, once per process
+    private static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             Statement stmt = writer.createStatement()) {
+
+            // Create the "sales_partitions" catalog: one row per day that has a partition table or archive
+            stmt.execute("CREATE TABLE IF NOT EXISTS sales_partitions (\n" +
+                    "    day INTEGER PRIMARY KEY, -- Days since 1970-01-01 UTC\n" +
+                    "    table_name TEXT, -- Partition table of the day, null while it has none\n" +
+                    "    live_rows INTEGER NOT NULL DEFAULT 0, -- Rows in the table\n" +
+                    "    archive_file TEXT, -- Compressed archive of the day in the archive directory, or null\n" +
+                    "    archived_rows INTEGER NOT NULL DEFAULT 0, -- Rows in the archive\n" +
+                    "    last_sale_id INTEGER NOT NULL DEFAULT 0 -- Highest sale ID of the day\n" +
                     ");");
+            // The sales log used to be stored as formatted text, then in one unpartitioned table
+            if (hasTable(writer, "sales_log")) {
+                migrateLegacyLog(writer, stmt);
+            }
+            if (hasTable(writer, "sales_events")) {
+                migrateUnpartitioned(writer, stmt);
+            }
+            // Partitions created later get their index with their table
+            indexPartitions(writer, stmt);
+            initialized = true;
 
         } catch (SQLException e) { // Log any SQL exceptions
             System.out.println(e.getMessage());
         }
     }
 
+    // Inserts all rows with multi-row statements in one transaction, so the batch costs a single commit;
+    // a failed batch is rolled back and the error is thrown, so the caller knows its rows were not written
     @Override
-    public void addLog(String log) {
-        String query = "INSERT INTO sales_log(date_time, log) VALUES (?, ?)";
+    public void addLogs(List<SalesLog> logs) throws SQLException {
+        if (logs.isEmpty()) {
+            return;
+        }
 
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        try (Connection writer = SQLiteConnection.getInstance().getWriter()) {
+            writer.setAutoCommit(false);
+            List<Long> created = new ArrayList<>();
+            try {
+                insertRows(writer, logs, created);
+                writer.commit();
+                livePartitions.addAll(created);
 
-            // Create a date formatter for the log timestamp
-            SimpleDateFormat formatter = new SimpleDateFormat("ss:mm:HH - dd/MM/yyyy");
+            } catch (SQLException e) {
+                writer.rollback();
+                throw e;
 
-            // Get the current date and time
-            String formattedDateTime = formatter.format(new Date());
+            } finally {
+                writer.setAutoCommit(true);
+            }
+        }
+    }
 
-            preparedStatement.setString(1, formattedDateTime);
-            preparedStatement.setString(2, log);
-            preparedStatement.executeUpdate();
+    @Override
+    public List<SalesLog> getAllLogs() {
+        return getLogs(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the partitions of the days in the range from one snapshot of the database,
+     * so an archive run in between cannot hide or repeat rows.
+     */
+    @Override
+    public List<SalesLog> getLogs(long fromMillis, long toMillis) {
+        List<SalesLog> salesLog = new ArrayList<>();
+        if (fromMillis >= toMillis) {
+            return salesLog;
+        }
+
+        try (Connection reader = SQLiteConnection.getInstance().getReader()) {
+            reader.setAutoCommit(false);
+            try {
+                for (Partition partition : findPartitions(reader, day(fromMillis), day(toMillis - 1))) {
+                    salesLog.addAll(readPartition(reader, partition, fromMillis, toMillis));
+                }
+
+            } finally {
+                reader.rollback();
+                reader.setAutoCommit(true);
+            }
+
+        } catch (SQLException | IOException e) {
+            System.out.println(e.getMessage());
+        }
+
+        return salesLog;
+    }
+
+    /**
+     * Compacts the partition tables of the days before the given time into archive files and drops the tables.
+     * A day is read and compressed without holding the writer; if rows arrived for it meanwhile, it is left
+     * for the next run. Returns the number of days archived.
+     */
+    @Override
+    public int archivePartitions(long beforeMillis) {
+        int archived = 0;
+        List<Partition> candidates;
+        try (Connection reader = SQLiteConnection.getInstance().getReader()) {
+            candidates = findPartitions(reader, Long.MIN_VALUE, day(beforeMillis) - 1);
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+            return 0;
+        }
+
+        for (Partition candidate : candidates) {
+            if (candidate.tableName() == null) {
+                continue;
+            }
+            try {
+                if (archive(candidate.day())) {
+                    archived++;
+                }
+
+            } catch (SQLException | IOException e) {
+                System.out.println("Failed to archive sales log partition " + candidate.tableName() + ": "
+                        + e.getMessage());
+            }
         }
+        return archived;
     }
 
+    /**
+     * Drops the partitions of the days before the given time, tables and archives, with one catalog delete;
+     * no row is deleted one by one. Returns the number of days dropped.
+     */
     @Override
-    public List<SalesLog> getAllLogs() {
-        List<SalesLog> salesLog = new ArrayList<>();
-        String query = "SELECT * FROM sales_log;";
+    public int dropPartitions(long beforeMillis) {
+        long beforeDay = day(beforeMillis);
+        List<Partition> dropped;
+        try (Connection writer = SQLiteConnection.getInstance().getWriter()) {
+            writer.setAutoCommit(false);
+            try (Statement stmt = writer.createStatement();
+                 PreparedStatement delete = writer.prepareStatement("DELETE FROM sales_partitions WHERE day < ?")) {
+                dropped = findPartitions(writer, Long.MIN_VALUE, beforeDay - 1);
+                for (Partition partition : dropped) {
+                    if (partition.tableName() != null) {
+                        stmt.execute("DROP TABLE IF EXISTS " + partition.tableName() + "_fts");
+                        stmt.execute("DROP TABLE IF EXISTS " + partition.tableName());
+                    }
+                }
+                delete.setLong(1, beforeDay);
+                delete.executeUpdate();
+                writer.commit();
+                for (Partition partition : dropped) {
+                    livePartitions.remove(partition.day());
+                }
 
-        try {   // Statement to execute the query
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(query);
+            } catch (SQLException e) {
+                writer.rollback();
+                throw e;
 
-            while (resultSet.next()) {
-                salesLog.add(new SalesLog(resultSet.getInt("sale_id"),
-                        resultSet.getString("date_time"),
-                        resultSet.getString("log")));
+            } finally {
+                writer.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+            return 0;
         }
 
-        return salesLog;
+        for (Partition partition : dropped) {
+            if (partition.archiveFile() != null) {
+                deleteArchive(partition.archiveFile());
+            }
+        }
+        return dropped.size();
+    }
+
+    /**
+     * Creates the partitions of today and tomorrow, so the rollover at midnight needs no DDL, then drops the
+     * days past the retention and archives the days past the archive age; 0 disables either step.
+     */
+    @Override
+    public void maintainPartitions(int archiveAfterDays, int retentionDays) {
+        long today = day(System.currentTimeMillis());
+        try (Connection writer = SQLiteConnection.getInstance().getWriter()) {
+            writer.setAutoCommit(false);
+            List<Long> created = new ArrayList<>();
+            try {
+                ensurePartition(writer, today, created);
+                ensurePartition(writer, today + 1, created);
+                writer.commit();
+                livePartitions.addAll(created);
+
+            } catch (SQLException e) {
+                writer.rollback();
+                throw e;
+
+            } finally {
+                writer.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        if (retentionDays > 0) {
+            dropPartitions((today - retentionDays + 1) * DAY_MILLIS);
+        }
+        if (archiveAfterDays > 0) {
+            archivePartitions((today - archiveAfterDays + 1) * DAY_MILLIS);
+        }
+    }
+
+    /**
+     * Inserts rows into the partitions of their days, creating partitions as needed; rows with an ID keep it,
+     * the others get the next sale IDs. The caller holds the writer in a transaction.
+     */
+    private static void insertRows(Connection writer, List<SalesLog> logs, List<Long> created) throws SQLException {
+        long nextId = lastSaleId(writer) + 1;
+        int start = 0;
+        while (start < logs.size()) {
+            long day = day(logs.get(start).getTimestamp());
+            int end = start + 1;
+            while (end < logs.size() && day(logs.get(end).getTimestamp()) == day) {
+                end++;
+            }
+            String table = ensurePartition(writer, day, created);
+
+            int from = start;
+            while (end - from >= MAX_ROWS_PER_INSERT) {
+                nextId = insert(writer, table, logs, from, MAX_ROWS_PER_INSERT, nextId);
+                from += MAX_ROWS_PER_INSERT;
+            }
+            for (int rows = MAX_ROWS_PER_INSERT / 2; rows > 0; rows /= 2) {
+                if (((end - from) & rows) != 0) {
+                    nextId = insert(writer, table, logs, from, rows, nextId);
+                    from += rows;
+                }
+            }
+            long lastId = nextId - 1;
+            for (SalesLog log : logs.subList(start, end)) {
+                lastId = Math.max(lastId, log.getId());
+            }
+
+            try (PreparedStatement preparedStatement = writer.prepareStatement(
+                    "UPDATE sales_partitions SET live_rows = live_rows + ?, last_sale_id = MAX(last_sale_id, ?) " +
+                            "WHERE day = ?")) {
+                preparedStatement.setInt(1, end - start);
+                preparedStatement.setLong(2, lastId);
+                preparedStatement.setLong(3, day);
+                preparedStatement.executeUpdate();
+            }
+            start = end;
+        }
+    }
+
+    // Inserts rows [from, from + rows) with one statement and returns the next free sale ID
+    private static long insert(Connection writer, String table, List<SalesLog> logs, int from, int rows, long nextId)
+            throws SQLException {
+        StringBuilder query = new StringBuilder("INSERT INTO " + table + "(sale_id, " + COLUMNS + ") VALUES "
+                + ROW_PARAMETERS);
+        query.append((", " + ROW_PARAMETERS).repeat(rows - 1));
+
+        try (PreparedStatement preparedStatement = writer.prepareStatement(query.toString())) {
+            int index = 1;
+            for (SalesLog salesLog : logs.subList(from, from + rows)) {
+                preparedStatement.setLong(index++, salesLog.getId() > 0 ? salesLog.getId() : nextId++);
+                preparedStatement.setLong(index++, salesLog.getTimestamp());
+                preparedStatement.setInt(index++, salesLog.getType().ordinal());
+                preparedStatement.setInt(index++, salesLog.getActorType().ordinal());
+                preparedStatement.setInt(index++, salesLog.getActorId());
+                preparedStatement.setString(index++, salesLog.getActorName());
+                preparedStatement.setInt(index++, salesLog.isVip() ? 1 : 0);
+                preparedStatement.setInt(index++, salesLog.getQuantity());
+                preparedStatement.setInt(index++, salesLog.getEventId());
+                preparedStatement.setString(index++, salesLog.getSeats());
+            }
+            preparedStatement.executeUpdate();
+        }
+        return nextId;
+    }
+
+    /**
+     * Creates the partition table of a day and its catalog row unless this process already did; newly created
+     * days are added to the list, to be marked live once the transaction commits. Returns the table name.
+     */
+    private static String ensurePartition(Connection writer, long day, List<Long> created) throws SQLException {
+        String table = tableName(day);
+        if (livePartitions.contains(day) || created.contains(day)) {
+            return table;
+        }
+        try (Statement stmt = writer.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + table + " (\n" +
+                    "    sale_id INTEGER PRIMARY KEY, -- Unique across partitions, see sales_partitions.last_sale_id\n" +
+                    "    occurred_at INTEGER NOT NULL, -- Epoch milliseconds\n" +
+                    "    event_type INTEGER NOT NULL, -- 0 = release, 1 = purchase\n" +
+                    "    actor_type INTEGER NOT NULL, -- 0 = vendor, 1 = customer\n" +
+                    "    actor_id INTEGER NOT NULL,\n" +
+                    "    actor_name TEXT, -- Vendor name, null for customers\n" +
+                    "    vip INTEGER NOT NULL DEFAULT 0,\n" +
+                    "    quantity INTEGER NOT NULL,\n" +
+                    "    event_id INTEGER NOT NULL,\n" +
+                    "    seats TEXT -- Seats of a purchase with assigned seating\n" +
+                    ");");
+            // Newest-first listings, overall, per event and per actor are index scans. The type is left out:
+            // half the rows match either type, so an index on it would cost every insert and save no reads
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + table + "_occurred_at ON " + table + " (occurred_at)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + table + "_event ON " + table + " (event_id, occurred_at)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + table + "_actor ON " + table
+                    + " (actor_type, actor_id, occurred_at)");
+            createSearchIndex(stmt, table);
+        }
+        try (PreparedStatement preparedStatement = writer.prepareStatement(
+                "INSERT INTO sales_partitions(day, table_name) VALUES (?, ?) " +
+                        "ON CONFLICT(day) DO UPDATE SET table_name = excluded.table_name")) {
+            preparedStatement.setLong(1, day);
+            preparedStatement.setString(2, table);
+            preparedStatement.executeUpdate();
+        }
+        created.add(day);
+        return table;
+    }
+
+    /**
+     * Creates the full-text index of a partition table: an FTS5 table over the vendor name and seats that reads
+     * its text from the partition, kept in sync by an insert trigger, so every writer updates it in the same
+     * transaction. Rows without text (most purchases) are not indexed. Rows are never updated or deleted one
+     * by one; the index is dropped with its table.
+     */
+    private static void createSearchIndex(Statement stmt, String table) throws SQLException {
+        String index = table + "_fts";
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS " + index + " USING fts5(actor_name, seats, " +
+                "content='" + table + "', content_rowid='sale_id', tokenize='unicode61')");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS " + index + "_insert AFTER INSERT ON " + table + "\n" +
+                "WHEN new.actor_name IS NOT NULL OR new.seats IS NOT NULL BEGIN\n" +
+                "    INSERT INTO " + index + "(rowid, actor_name, seats)\n" +
+                "    VALUES (new.sale_id, new.actor_name, new.seats);\n" +
+                "END");
+    }
+
+    /**
+     * Archives one day: reads its table and former archive from one snapshot, writes them to a new archive
+     * file, then swaps the catalog over and drops the table if no row arrived in between.
+     */
+    private boolean archive(long day) throws SQLException, IOException {
+        Partition partition;
+        List<SalesLog> rows;
+        try (Connection reader = SQLiteConnection.getInstance().getReader()) {
+            reader.setAutoCommit(false);
+            try {
+                List<Partition> partitions = findPartitions(reader, day, day);
+                if (partitions.isEmpty() || partitions.get(0).tableName() == null) {
+                    return false;
+                }
+                partition = partitions.get(0);
+                rows = readPartition(reader, partition, Long.MIN_VALUE, Long.MAX_VALUE);
+
+            } finally {
+                reader.rollback();
+                reader.setAutoCommit(true);
+            }
+        }
+
+        // A new name per generation, so the file of the previous archive stays valid until the catalog moves on
+        String archiveFile = partition.tableName() + "-" + rows.size() + ".sla";
+        SalesLogArchive.write(ARCHIVE_DIRECTORY.resolve(archiveFile), rows);
+
+        boolean swapped = false;
+        try (Connection writer = SQLiteConnection.getInstance().getWriter()) {
+            writer.setAutoCommit(false);
+            try {
+                // Swapped only if no row arrived since the read; the catalog cursor is closed before the drop
+                List<Partition> current = findPartitions(writer, day, day);
+                if (!current.isEmpty() && partition.equals(current.get(0))) {
+                    try (PreparedStatement update = writer.prepareStatement(
+                            "UPDATE sales_partitions SET table_name = NULL, live_rows = 0, archive_file = ?, " +
+                                    "archived_rows = ? WHERE day = ?");
+                         Statement stmt = writer.createStatement()) {
+                        update.setString(1, archiveFile);
+                        update.setInt(2, rows.size());
+                        update.setLong(3, day);
+                        update.executeUpdate();
+                        stmt.execute("DROP TABLE IF EXISTS " + partition.tableName() + "_fts");
+                        stmt.execute("DROP TABLE " + partition.tableName());
+                    }
+                    writer.commit();
+                    livePartitions.remove(day);
+                    swapped = true;
+                } else {
+                    writer.rollback();
+                }
+
+            } catch (SQLException e) {
+                writer.rollback();
+                throw e;
+
+            } finally {
+                writer.setAutoCommit(true);
+            }
+        }
+
+        if (!swapped) {
+            deleteArchive(archiveFile);
+        } else if (partition.archiveFile() != null && !partition.archiveFile().equals(archiveFile)) {
+            deleteArchive(partition.archiveFile());
+        }
+        return swapped;
+    }
+
+    // Rows of a partition inside the time range, oldest first: its archive, then its table
+    private static List<SalesLog> readPartition(Connection reader, Partition partition, long fromMillis, long toMillis)
+            throws SQLException, IOException {
+        List<SalesLog> rows = new ArrayList<>();
+        if (partition.archiveFile() != null) {
+            rows.addAll(SalesLogArchive.read(ARCHIVE_DIRECTORY.resolve(partition.archiveFile()), fromMillis, toMillis));
+        }
+        if (partition.tableName() != null) {
+            String query = "SELECT sale_id, " + COLUMNS + " FROM " + partition.tableName()
+                    + " WHERE occurred_at >= ? AND occurred_at < ? ORDER BY occurred_at, sale_id";
+            try (PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+                preparedStatement.setLong(1, fromMillis);
+                preparedStatement.setLong(2, toMillis);
+                ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    rows.add(readRow(resultSet));
+                }
+            }
+        }
+        if (partition.archiveFile() != null && partition.tableName() != null) { // Late rows of an archived day
+            rows.sort(Comparator.comparingLong(SalesLog::getTimestamp).thenComparingInt(SalesLog::getId));
+        }
+        return rows;
+    }
+
+    // Catalog rows of the days in [firstDay, lastDay], oldest first
+    private static List<Partition> findPartitions(Connection connection, long firstDay, long lastDay)
+            throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT day, table_name, live_rows, archive_file, archived_rows FROM sales_partitions " +
+                        "WHERE day >= ? AND day <= ? ORDER BY day")) {
+            preparedStatement.setLong(1, firstDay);
+            preparedStatement.setLong(2, lastDay);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                partitions.add(new Partition(resultSet.getLong("day"), resultSet.getString("table_name"),
+                        resultSet.getInt("live_rows"), resultSet.getString("archive_file"),
+                        resultSet.getInt("archived_rows")));
+            }
+        }
+        return partitions;
+    }
+
+    private static long lastSaleId(Connection writer) throws SQLException {
+        try (PreparedStatement preparedStatement = writer.prepareStatement(
+                "SELECT COALESCE(MAX(last_sale_id), 0) FROM sales_partitions")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static SalesLog readRow(ResultSet resultSet) throws SQLException {
+        return new SalesLog(resultSet.getInt("sale_id"),
+                resultSet.getLong("occurred_at"),
+                TicketEvent.Type.values()[resultSet.getInt("event_type")],
+                SalesLog.ActorType.values()[resultSet.getInt("actor_type")],
+                resultSet.getInt("actor_id"),
+                resultSet.getString("actor_name"),
+                resultSet.getInt("vip") != 0,
+                resultSet.getInt("quantity"),
+                resultSet.getInt("event_id"),
+                resultSet.getString("seats"));
+    }
+
+    private static void deleteArchive(String archiveFile) {
+        try {
+            Files.deleteIfExists(ARCHIVE_DIRECTORY.resolve(archiveFile));
+
+        } catch (IOException e) {
+            System.out.println("Failed to delete sales log archive: " + e.getMessage());
+        }
+    }
+
+    // UTC day of a time
+    private static long day(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MILLIS);
+    }
+
+    private static String tableName(long day) {
+        return "sales_events_" + LocalDate.ofEpochDay(day).format(PARTITION_DATE);
+    }
+
+    /**
+     * Moves the rows of the former text "sales_log" table into the partitions, keeping their IDs, and drops it,
+     * in one transaction. Rows whose text cannot be parsed are dropped with the table.
+     */
+    private static void migrateLegacyLog(Connection connection, Statement stmt) throws SQLException {
+        List<SalesLog> rows = new ArrayList<>();
+        int skipped = 0;
+        try (ResultSet resultSet = stmt.executeQuery("SELECT sale_id, date_time, log FROM sales_log ORDER BY sale_id")) {
+            while (resultSet.next()) {
+                SalesLog row = parseLegacyRow(resultSet.getInt("sale_id"), resultSet.getString("date_time"),
+                        resultSet.getString("log"));
+                if (row != null) {
+                    rows.add(row);
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        rows.sort(Comparator.comparingLong(SalesLog::getTimestamp).thenComparingInt(SalesLog::getId));
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        List<Long> created = new ArrayList<>();
+        try {
+            insertRows(connection, rows, created);
+            stmt.execute("DROP TABLE sales_log");
+            connection.commit();
+            livePartitions.addAll(created);
+
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        if (skipped > 0) {
+            System.out.println("Dropped " + skipped + " sales log entries that could not be migrated.");
+        }
+    }
+
+    /**
+     * Moves the rows of the former unpartitioned "sales_events" table into the partitions of their days,
+     * keeping their IDs, and drops it, in one transaction.
+     */
+    private static void migrateUnpartitioned(Connection connection, Statement stmt) throws SQLException {
+        List<Long> days = new ArrayList<>();
+        try (ResultSet resultSet = stmt.executeQuery(
+                "SELECT DISTINCT occurred_at / " + DAY_MILLIS + " AS day FROM sales_events ORDER BY day")) {
+            while (resultSet.next()) {
+                days.add(resultSet.getLong("day"));
+            }
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        List<Long> created = new ArrayList<>();
+        try {
+            for (long day : days) {
+                String table = ensurePartition(connection, day, created);
+                try (PreparedStatement copy = connection.prepareStatement(
+                        "INSERT INTO " + table + "(sale_id, " + COLUMNS + ") SELECT sale_id, " + COLUMNS
+                                + " FROM sales_events WHERE occurred_at >= ? AND occurred_at < ?");
+                     PreparedStatement count = connection.prepareStatement(
+                             "UPDATE sales_partitions SET live_rows = (SELECT COUNT(*) FROM " + table + "), " +
+                                     "last_sale_id = (SELECT COALESCE(MAX(sale_id), 0) FROM " + table + ") " +
+                                     "WHERE day = ?")) {
+                    copy.setLong(1, day * DAY_MILLIS);
+                    copy.setLong(2, (day + 1) * DAY_MILLIS);
+                    copy.executeUpdate();
+                    count.setLong(1, day);
+                    count.executeUpdate();
+                }
+            }
+            stmt.execute("DROP TABLE sales_events");
+            connection.commit();
+            livePartitions.addAll(created);
+
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Builds the full-text index of the partition tables created before the sales log had one
+    private static void indexPartitions(Connection connection, Statement stmt) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet resultSet = stmt.executeQuery("SELECT table_name FROM sales_partitions " +
+                "WHERE table_name IS NOT NULL ORDER BY day")) {
+            while (resultSet.next()) {
+                tables.add(resultSet.getString("table_name"));
+            }
+        }
+        for (String table : tables) {
+            if (!hasTable(connection, table + "_fts")) {
+                createSearchIndex(stmt, table);
+                stmt.execute("INSERT INTO " + table + "_fts(" + table + "_fts) VALUES ('rebuild')");
+            }
+        }
+    }
+
+    // Parses a row of the former text table, null if its text has an unknown format
+    private static SalesLog parseLegacyRow(int id, String timeAndDate, String log) {
+        long timestamp;
+        try {
+            timestamp = LocalDateTime.parse(timeAndDate, LEGACY_TIME_AND_DATE)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+
+        Matcher release = LEGACY_RELEASE.matcher(log);
+        if (release.matches()) {
+            return new SalesLog(id, timestamp, TicketEvent.Type.RELEASE, SalesLog.ActorType.VENDOR,
+                    Integer.parseInt(release.group(2)), release.group(3), false, Integer.parseInt(release.group(1)),
+                    release.group(4) != null ? Integer.parseInt(release.group(4)) : Event.DEFAULT_EVENT_ID, null);
+        }
+        Matcher purchase = LEGACY_PURCHASE.matcher(log);
+        if (purchase.matches()) {
+            return new SalesLog(id, timestamp, TicketEvent.Type.PURCHASE, SalesLog.ActorType.CUSTOMER,
+                    Integer.parseInt(purchase.group(2)), null, purchase.group(3) != null,
+                    Integer.parseInt(purchase.group(1)),
+                    purchase.group(5) != null ? Integer.parseInt(purchase.group(5)) : Event.DEFAULT_EVENT_ID,
+                    purchase.group(4));
+        }
+        return null;
+    }
+
+    // Checks whether a table exists; the cursor is closed so it cannot lock the migration
+    private static boolean hasTable(Connection connection, String table) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            preparedStatement.setString(1, table);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    // Catalog row of a day
+    private record Partition(long day, String tableName, int liveRows, String archiveFile, int archivedRows) {
     }
 }
@@ -0,0 +1,89 @@
+package main.dao.impl;
+
+import main.dao.SeatSectionDAO;
+import main.db.SQLiteConnection;
+import main.models.SeatSection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the SeatSectionDAO interface.
+ * A section row stores its layout and the seat bitmap (one bit per seat) as a blob.
+ */
+public class SeatSectionDAOImpl implements SeatSectionDAO {
+
+    public SeatSectionDAOImpl() {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             Statement stmt = writer.createStatement()) {
+
+            // Create the table if it doesn't exist; events without sections sell unassigned tickets
+            stmt.execute("CREATE TABLE IF NOT EXISTS event_sections (\n" +
+                    "    section_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                    "    event_id INTEGER NOT NULL,\n" +
+                    "    section_name TEXT NOT NULL,\n" +
+                    "    row_count INTEGER NOT NULL,\n" +
+                    "    seats_per_row INTEGER NOT NULL,\n" +
+                    "    seat_bitmap BLOB,\n" +
+                    "    UNIQUE (event_id, section_name)\n" +
+                    ");");
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean addSection(int eventId, String sectionName, int rows, int seatsPerRow) {
+        String query = "INSERT INTO event_sections(event_id, section_name, row_count, seats_per_row) VALUES (?, ?, ?, ?)";
+
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
+            preparedStatement.setInt(1, eventId);
+            preparedStatement.setString(2, sectionName);
+            preparedStatement.setInt(3, rows);
+            preparedStatement.setInt(4, seatsPerRow);
+            preparedStatement.executeUpdate();
+            return true;
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return false;
+    }
+
+    // Sections of an event in rank order (the order they were added), with their stored seats
+    @Override
+    public List<SeatSection> getSections(int eventId) throws SQLException {
+        List<SeatSection> sections = new ArrayList<>();
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(
+                "SELECT * FROM event_sections WHERE event_id = ? ORDER BY section_id")) {
+            preparedStatement.setInt(1, eventId);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                SeatSection section = new SeatSection(
+                        resultSet.getInt("section_id"),
+                        resultSet.getString("section_name"),
+                        resultSet.getInt("row_count"),
+                        resultSet.getInt("seats_per_row"));
+                section.loadBytes(resultSet.getBytes("seat_bitmap"));
+                sections.add(section);
+            }
+        }
+        return sections;
+    }
+
+    @Override
+    public void updateSeats(SeatSection section) throws SQLException {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(
+                "UPDATE event_sections SET seat_bitmap = ? WHERE section_id = ?")) {
+            preparedStatement.setBytes(1, section.toBytes());
+            preparedStatement.setInt(2, section.getId());
+            preparedStatement.executeUpdate();
+        }
+    }
+}
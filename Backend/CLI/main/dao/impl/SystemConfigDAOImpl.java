@@ -2,19 +2,40 @@ package main.dao.impl;
 
 import main.dao.SystemConfigDAO;
 import main.db.SQLiteConnection;
+import main.models.SystemConfiguration;
+import main.util.ConfigChangeBus;
 import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Implementation of the SystemConfigDAO interface.
  * Provides methods to interact with the "system_config" table in the SQLite database.
+ * Reads are served from an immutable copy of the table, loaded in one query and replaced as a whole together
+ * with its typed {@link SystemConfiguration}, so they cost no query and never see half of an update.
+ * Updates made here write through to the snapshot; changes committed by other processes (e.g. the API)
+ * are picked up by {@link #refreshIfChanged()}, which reloads the table only when SQLite's
+ * "PRAGMA data_version" shows that another connection committed.
+ * Changed values are published on the {@link ConfigChangeBus}, whichever side made the change.
  */
 public class SystemConfigDAOImpl implements SystemConfigDAO {
+    private static volatile boolean initialized; // Table created and defaults inserted, once per process
+    private static volatile Map<String, Integer> values = Map.of(); // Rows of the table, replaced as a whole
+    private static volatile SystemConfiguration snapshot = SystemConfiguration.of(values); // Typed view of the same rows
+    private static long dataVersion = -1; // data_version seen by the last reload, guarded by the class lock
 
     public SystemConfigDAOImpl() {
-        try {
-            Connection connection = SQLiteConnection.getInstance().getConnection();
-            Statement stmt = connection.createStatement();
+        if (!initialized) {
+            initialize();
+        }
+    }
 
+    private static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             Statement stmt = writer.createStatement()) {
             // Create the table if it doesn't exist
             stmt.execute("CREATE TABLE IF NOT EXISTS system_config (\n" +
                     "    id INTEGER PRIMARY KEY,\n" +
@@ -22,65 +43,159 @@ public class SystemConfigDAOImpl implements SystemConfigDAO {
                     "    config_value INT NOT NULL \n" +
                     ")");
 
-            // Insert default configuration values
-            insertDefaultInputs("total_tickets", 50);
-            insertDefaultInputs("ticket_release_rate", 60);
-            insertDefaultInputs("customer_retrieval_rate", 60);
-            insertDefaultInputs("max_ticket_capacity", 500);
-            insertDefaultInputs("system_status", 0);
+            // Insert default configuration values, in one transaction; the nested writer borrows below join it
+            // and a failure is rolled back when the writer is given back
+            writer.setAutoCommit(false);
+            // Intervals are kept in microseconds, taken over from the former whole-second keys
+            migrateToMicros("ticket_release_rate", "ticket_release_interval_us");
+            migrateToMicros("customer_retrieval_rate", "customer_retrieval_interval_us");
+            for (Map.Entry<String, Integer> entry : SystemConfiguration.defaults().entrySet()) {
+                insertDefaultInputs(entry.getKey(), entry.getValue());
+            }
+            writer.commit();
+            writer.setAutoCommit(true);
+
+            reload();
+            initialized = true;
 
         } catch (SQLException e) { // Log any SQL exceptions
             System.out.println(e.getMessage());
         }
     }
 
-    // Prepare and execute the statement
-    private void insertDefaultInputs(String configKey, int configValue) throws SQLException {
-        String query = "INSERT OR IGNORE INTO system_config (config_key, config_value) VALUES (?, ?)";
+    /**
+     * Reloads the snapshot if another connection committed since the last reload, and publishes the
+     * changed values and the database change, outside the class lock.
+     * data_version does not change for this process's own commits, which update the snapshot directly.
+     * Returns true if the database changed.
+     */
+    public static boolean refreshIfChanged() throws SQLException {
+        Map<String, Integer> changes = reloadIfChanged();
+        if (changes == null) {
+            return false;
+        }
+        ConfigChangeBus.publishConfig(changes);
+        ConfigChangeBus.publishDatabaseChanged();
+        return true;
+    }
 
-        Connection connection = SQLiteConnection.getInstance().getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
+    // Returns the values the reload changed, or null if no other connection committed
+    private static synchronized Map<String, Integer> reloadIfChanged() throws SQLException {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement("PRAGMA data_version")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next() || resultSet.getLong(1) == dataVersion) {
+                return null;
+            }
+        }
+        Map<String, Integer> previous = values;
+        reload();
+        Map<String, Integer> changes = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (!value.equals(previous.get(key))) {
+                changes.put(key, value);
+            }
+        });
+        return changes;
+    }
 
-        preparedStatement.setString(1, configKey);
-        preparedStatement.setInt(2, configValue);
-        preparedStatement.executeUpdate();
+    // Reads the whole table into a new snapshot, under the class lock
+    private static void reload() throws SQLException {
+        Map<String, Integer> rows = new HashMap<>();
+        try (Connection writer = SQLiteConnection.getInstance().getWriter()) {
+            try (PreparedStatement preparedStatement = writer.prepareStatement("PRAGMA data_version")) {
+                ResultSet versionResult = preparedStatement.executeQuery();
+                dataVersion = versionResult.next() ? versionResult.getLong(1) : -1;
+            }
+            try (PreparedStatement preparedStatement = writer.prepareStatement("SELECT config_key, config_value FROM system_config")) {
+                ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    rows.put(resultSet.getString(1), resultSet.getInt(2));
+                }
+            }
+        }
+        publish(rows);
     }
 
-    @Override
-    public int findConfigValue(String configKey) throws SQLException {
-        String query = "SELECT config_value FROM system_config WHERE config_key = ?";
+    // Replaces the rows and their typed snapshot, under the class lock
+    private static void publish(Map<String, Integer> rows) {
+        values = Map.copyOf(rows);
+        snapshot = SystemConfiguration.of(values);
+    }
 
-        Connection connection = SQLiteConnection.getInstance().getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
+    // Prepare and execute the statement
+    private static void insertDefaultInputs(String configKey, int configValue) throws SQLException {
+        String query = "INSERT OR IGNORE INTO system_config (config_key, config_value) VALUES (?, ?)";
 
-        preparedStatement.setString(1, configKey);
-        ResultSet resultSet = preparedStatement.executeQuery();
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
+            preparedStatement.setString(1, configKey);
+            preparedStatement.setInt(2, configValue);
+            preparedStatement.executeUpdate();
+        }
+    }
 
-        if (resultSet.next()) {
-            return resultSet.getInt("config_value");
+    // Creates a microsecond key from a former seconds key, or with the default, and drops the seconds key
+    private static void migrateToMicros(String secondsKey, String microsKey) throws SQLException {
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement insert = writer.prepareStatement(
+                "INSERT OR IGNORE INTO system_config (config_key, config_value) " +
+                "SELECT ?, COALESCE((SELECT config_value * 1000000 FROM system_config WHERE config_key = ?), ?)");
+             PreparedStatement delete = writer.prepareStatement("DELETE FROM system_config WHERE config_key = ?")) {
+            insert.setString(1, microsKey);
+            insert.setString(2, secondsKey);
+            insert.setInt(3, SystemConfiguration.defaults().get(microsKey));
+            insert.executeUpdate();
+
+            delete.setString(1, secondsKey);
+            delete.executeUpdate();
+        }
+    }
 
-        } else {
+    @Override
+    public int findConfigValue(String configKey) throws SQLException {
+        Integer configValue = values.get(configKey);
+        if (configValue == null) {
             System.out.println(configKey + " No matching config key found.");
             return -1;
         }
+        return configValue;
+    }
+
+    // Current snapshot; read several settings from it to get values that belong together
+    @Override
+    public SystemConfiguration getConfiguration() throws SQLException {
+        return snapshot;
     }
 
     @Override
     public void updateConfigValue(String configKey, int configValue) throws SQLException {
         String query = "UPDATE system_config SET config_value = ? WHERE config_key = ?";
 
-        Connection connection = SQLiteConnection.getInstance().getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-
-        preparedStatement.setInt(1, configValue);
-        preparedStatement.setString(2, configKey);
-
-        int rowsAffected = preparedStatement.executeUpdate();
-        if (rowsAffected > 0) {
-//                System.out.println("Config value updated successfully.");
-
-        } else {
-            System.out.println("No matching config key found.");
+        // Holds the class lock, so a concurrent reload cannot publish a snapshot older than this write
+        boolean changed;
+        synchronized (SystemConfigDAOImpl.class) {
+            try (Connection writer = SQLiteConnection.getInstance().getWriter();
+                 PreparedStatement preparedStatement = writer.prepareStatement(query)) {
+                preparedStatement.setInt(1, configValue);
+                preparedStatement.setString(2, configKey);
+
+                int rowsAffected = preparedStatement.executeUpdate();
+                if (rowsAffected > 0) {
+                    Integer previous = values.get(configKey);
+                    changed = previous == null || previous != configValue;
+                    Map<String, Integer> rows = new HashMap<>(values);
+                    rows.put(configKey, configValue);
+                    publish(rows);
+
+                } else {
+                    System.out.println("No matching config key found.");
+                    return;
+                }
+            }
+        }
+        if (changed) {
+            ConfigChangeBus.publishConfig(Map.of(configKey, configValue));
         }
     }
 
@@ -3,6 +3,7 @@ package main.dao.impl;
 import main.dao.VendorDAO;
 import main.db.SQLiteConnection;
 import main.models.Vendor;
+import main.util.ConfigChangeBus;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -10,86 +11,113 @@ import java.util.List;
 
  // Implementation of the VendorDAO interface
 public class VendorDAOImpl implements VendorDAO
- {  // // Database connection instance
-    private static Connection connection = SQLiteConnection.getInstance().getConnection();
+ {
 
     public VendorDAOImpl() {
-        try {
-            Statement stmt = connection.createStatement();
+        // The writer is given back before the default vendors are added, whose change is published to listeners
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             Statement stmt = writer.createStatement()) {
 
             // Create the table if it doesn't exist
             stmt.execute("CREATE TABLE IF NOT EXISTS vendors (\n" +
                     "    vendor_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
                     "    vendor_name TEXT UNIQUE NOT NULL,\n" +
                     "    tickets_per_release INTEGER NOT NULL, \n" +
-                    "    release_rate_sec INTEGER NOT NULL  \n" +
+                    "    release_interval_us INTEGER NOT NULL, \n" +
+                    "    event_id INTEGER NOT NULL DEFAULT 1 \n" +
                     ");");
-            // Add default vendors if there are fewer than 3 in the table
-            if (getVendorCount() < 3) {
-                addVendor(new Vendor("vendor - 1", 1, 30));
-                addVendor(new Vendor("vendor - 2", 2, 60));
-                addVendor(new Vendor("vendor - 3", 3, 120));
+            // Vendors created before events existed release tickets for the default event
+            if (!hasColumn(writer, "event_id")) {
+                stmt.execute("ALTER TABLE vendors ADD COLUMN event_id INTEGER NOT NULL DEFAULT 1");
+            }
+            // Release rates used to be whole seconds
+            if (hasColumn(writer, "release_rate_sec")) {
+                migrateReleaseRates(writer, stmt);
             }
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
+        // Add default vendors if there are fewer than 3 in the table
+        if (getVendorCount() < 3) {
+            addVendor(new Vendor("vendor - 1", 1, 30_000_000));
+            addVendor(new Vendor("vendor - 2", 2, 60_000_000));
+            addVendor(new Vendor("vendor - 3", 3, 120_000_000));
+        }
     }
 
     @Override
     public boolean addVendor(Vendor vendor) {
-        String query = "INSERT OR IGNORE INTO vendors(vendor_name, tickets_per_release, release_rate_sec) VALUES (?, ?, ?)";
-
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "INSERT OR IGNORE INTO vendors(vendor_name, tickets_per_release, release_interval_us, event_id) VALUES (?, ?, ?, ?)";
 
+        boolean added = false;
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, vendor.getVendorName());
             preparedStatement.setInt(2, vendor.getTicketsPerRelease());
-            preparedStatement.setInt(3, vendor.getReleaseRateSec());
-            preparedStatement.executeUpdate();
-            return true;
+            preparedStatement.setInt(3, vendor.getReleaseIntervalMicros());
+            preparedStatement.setInt(4, vendor.getEventId());
+            if (preparedStatement.executeUpdate() > 0) {
+                try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        vendor.setId(keys.getInt(1));
+                        added = true;
+                    }
+                }
+            }
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+            return false;
         }
-        return false;
+        if (added) {
+            ConfigChangeBus.publishVendor(vendor.getId()); // Running schedules follow the table
+        }
+        return true;
     }
 
     @Override
     public boolean updateVendor(Vendor vendor) {
-        String query = "UPDATE vendors SET vendor_name = ?, tickets_per_release = ?, release_rate_sec = ? WHERE vendor_id = ?";
-
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "UPDATE vendors SET vendor_name = ?, tickets_per_release = ?, release_interval_us = ?, event_id = ? WHERE vendor_id = ?";
 
+        int rowsAffected;
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
             preparedStatement.setString(1, vendor.getVendorName());
             preparedStatement.setInt(2, vendor.getTicketsPerRelease());
-            preparedStatement.setInt(3, vendor.getReleaseRateSec());
-            preparedStatement.setInt(4, vendor.getId());
-            preparedStatement.executeUpdate();
-            return true;
+            preparedStatement.setInt(3, vendor.getReleaseIntervalMicros());
+            preparedStatement.setInt(4, vendor.getEventId());
+            preparedStatement.setInt(5, vendor.getId());
+            rowsAffected = preparedStatement.executeUpdate();
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+            return false;
         }
-        return false;
+        if (rowsAffected > 0) {
+            ConfigChangeBus.publishVendor(vendor.getId()); // Running schedules follow the table
+        }
+        return true;
     }
 
     @Override
     public boolean deleteVendor(int vendorId) {
         String query = "DELETE FROM vendors WHERE vendor_id = ?";
 
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
-
+        int rowsAffected;
+        try (Connection writer = SQLiteConnection.getInstance().getWriter();
+             PreparedStatement preparedStatement = writer.prepareStatement(query)) {
             preparedStatement.setInt(1, vendorId);
-            preparedStatement.executeUpdate();
-            return true;
+            rowsAffected = preparedStatement.executeUpdate();
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+            return false;
         }
-        return false;
+        if (rowsAffected > 0) {
+            ConfigChangeBus.publishVendor(vendorId); // Running schedules follow the table
+        }
+        return true;
     }
 
     @Override
@@ -97,15 +125,17 @@ public class VendorDAOImpl implements VendorDAO
         Vendor vendor = new Vendor();
         String query = "SELECT * FROM vendors WHERE vendor_id = ?";
 
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(query);
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            preparedStatement.setInt(1, vendorId);
+            ResultSet resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
                 vendor.setId(resultSet.getInt("vendor_id"));
                 vendor.setVendorName(resultSet.getString("vendor_name"));
                 vendor.setTicketsPerRelease(resultSet.getInt("tickets_per_release"));
-                vendor.setReleaseRateSec(resultSet.getInt("release_rate_sec"));
+                vendor.setReleaseIntervalMicros(resultSet.getInt("release_interval_us"));
+                vendor.setEventId(resultSet.getInt("event_id"));
             }
 
         } catch (SQLException e) {
@@ -119,8 +149,8 @@ public class VendorDAOImpl implements VendorDAO
     public boolean existsVendor(int vendorId) {
         String query = "SELECT COUNT(*) FROM vendors WHERE vendor_id = ?";
 
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
             preparedStatement.setInt(1, vendorId); // Set the vendorId in the query
 
             ResultSet resultSet = preparedStatement.executeQuery();
@@ -140,16 +170,17 @@ public class VendorDAOImpl implements VendorDAO
         List<Vendor> vendors = new ArrayList<>();
         String query = "SELECT * FROM vendors;";
 
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(query);
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
                 vendors.add(new Vendor(
                         resultSet.getInt("vendor_id"),
                         resultSet.getString("vendor_name"),
                         resultSet.getInt("tickets_per_release"),
-                        resultSet.getInt("release_rate_sec")
+                        resultSet.getInt("release_interval_us"),
+                        resultSet.getInt("event_id")
                 ));
             }
 
@@ -162,8 +193,8 @@ public class VendorDAOImpl implements VendorDAO
     @Override
     public int getVendorCount() {
         String query = "SELECT COUNT(*) FROM vendors;";
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        try (Connection reader = SQLiteConnection.getInstance().getReader();
+             PreparedStatement preparedStatement = reader.prepareStatement(query)) {
             ResultSet resultSet = preparedStatement.executeQuery();
             if (resultSet.next()) {
                 return resultSet.getInt(1); // Get the count from the first column
@@ -174,4 +205,39 @@ public class VendorDAOImpl implements VendorDAO
         }
         return 0;
     }
+
+    /**
+     * Moves a vendors table that stores "release_rate_sec" over to the interval in microseconds,
+     * in one transaction.
+     */
+    private void migrateReleaseRates(Connection connection, Statement stmt) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            stmt.execute("ALTER TABLE vendors ADD COLUMN release_interval_us INTEGER NOT NULL DEFAULT 0");
+            stmt.execute("UPDATE vendors SET release_interval_us = release_rate_sec * 1000000");
+            stmt.execute("ALTER TABLE vendors DROP COLUMN release_rate_sec");
+            connection.commit();
+
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Checks whether the vendors table already has a column; the cursor is closed so it cannot lock the migration
+    private boolean hasColumn(Connection connection, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(vendors)")) {
+            while (resultSet.next()) {
+                if (column.equalsIgnoreCase(resultSet.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,250 @@
+package main.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQLite connections to one database file: a single writer and a fixed number of read-only readers.
+ * SQLite allows one writer at a time anyway, so all writes share the writer connection, while readers
+ * run in parallel on their own connections and, in WAL mode, never wait for the writer or for another
+ * process (the API). Every connection is tuned when it is opened:
+ * WAL journal, synchronous=NORMAL (safe in WAL, no fsync per commit), a busy timeout instead of an
+ * immediate SQLITE_BUSY, a larger page cache and memory-mapped reads.
+ * Connections are borrowed and given back by closing them, so they belong in a try-with-resources block.
+ * The writer is held by one thread at a time (the same thread may borrow it again, e.g. inside its own
+ * transaction), which keeps other threads' statements out of an open transaction.
+ * Each connection keeps its prepared statements in a {@link StatementCache}: prepareStatement(sql) on a
+ * borrowed connection returns the statement prepared before for the same SQL, and closing it keeps it cached.
+ */
+public class ConnectionPool {
+    private static final int BUSY_TIMEOUT_MS = 5000; // Wait for a lock held by another connection or process
+    private static final int CACHE_SIZE_KIB = 16 * 1024; // Page cache per connection
+    private static final long MMAP_SIZE_BYTES = 256L * 1024 * 1024; // Database bytes read through memory mapping
+    private static final long BORROW_TIMEOUT_MS = 10_000; // Wait for a free reader or the writer before giving up
+    private static final int STATEMENT_CACHE_SIZE = 64; // Prepared statements kept per connection
+
+    private final String url;
+    private final BlockingQueue<Pooled> readers;
+    private final List<Pooled> allReaders = new ArrayList<>();
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private Pooled writer; // Guarded by writerLock
+
+    // Metrics
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder borrowWaits = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    public ConnectionPool(String url, int readerCount) throws SQLException {
+        this.url = url;
+        this.readers = new ArrayBlockingQueue<>(Math.max(1, readerCount));
+        this.writer = openWriter();
+        for (int i = 0; i < Math.max(1, readerCount); i++) {
+            Connection reader = open();
+            execute(reader, "PRAGMA query_only = ON");
+            Pooled pooled = pooled(reader);
+            allReaders.add(pooled);
+            readers.add(pooled);
+        }
+    }
+
+    /**
+     * Borrows the connection all writes go through, waiting while another thread holds it;
+     * reopened if it was closed. Closing the returned connection gives it back, rolling back a transaction
+     * that was left open.
+     */
+    public Connection borrowWriter() throws SQLException {
+        try {
+            if (!writerLock.tryLock()) {
+                borrowWaits.increment();
+                if (!writerLock.tryLock(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("The database writer did not become free within " + BORROW_TIMEOUT_MS + " ms.");
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer.", e);
+        }
+        try {
+            if (writerLock.getHoldCount() == 1 && writer.connection.isClosed()) {
+                writer = openWriter();
+            }
+
+        } catch (SQLException e) {
+            writerLock.unlock();
+            throw e;
+        }
+        borrows.increment();
+        Pooled held = writer;
+        return lease(held, () -> {
+            try {
+                if (writerLock.getHoldCount() == 1 && !held.connection.isClosed() && !held.connection.getAutoCommit()) {
+                    held.connection.rollback();
+                    held.connection.setAutoCommit(true);
+                }
+
+            } finally {
+                writerLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Borrows a read-only connection, waiting while all are in use.
+     * Closing the returned connection gives it back to the pool instead of closing it.
+     */
+    public Connection borrowReader() throws SQLException {
+        Pooled reader = readers.poll();
+        if (reader == null) {
+            borrowWaits.increment();
+            try {
+                reader = readers.poll(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database reader.", e);
+            }
+            if (reader == null) {
+                throw new SQLException("No database reader became free within " + BORROW_TIMEOUT_MS + " ms.");
+            }
+        }
+        borrows.increment();
+        Pooled borrowed = reader;
+        return lease(borrowed, () -> {
+            if (!borrowed.connection.getAutoCommit()) {
+                borrowed.connection.rollback();
+                borrowed.connection.setAutoCommit(true);
+            }
+            readers.add(borrowed);
+        });
+    }
+
+    public int getReaderCount() {
+        return allReaders.size();
+    }
+
+    public long getBorrows() {
+        return borrows.sum();
+    }
+
+    // Number of borrows that had to wait for a reader
+    public long getBorrowWaits() {
+        return borrowWaits.sum();
+    }
+
+    // Prepares that reused a cached statement
+    public long getStatementHits() {
+        return statementHits.sum();
+    }
+
+    // Prepares that had to parse the SQL
+    public long getStatementMisses() {
+        return statementMisses.sum();
+    }
+
+    // Closes every connection and its cached statements; borrowed readers are closed too
+    public void close() throws SQLException {
+        for (Pooled reader : allReaders) {
+            reader.close();
+        }
+        writerLock.lock();
+        try {
+            writer.close();
+
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private Pooled openWriter() throws SQLException {
+        Connection connection = open();
+        execute(connection, "PRAGMA journal_mode = WAL"); // Stored in the file, readers and the API follow it
+        return pooled(connection);
+    }
+
+    private Pooled pooled(Connection connection) {
+        return new Pooled(connection, new StatementCache(connection, STATEMENT_CACHE_SIZE, statementHits, statementMisses));
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        execute(connection, "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+        execute(connection, "PRAGMA synchronous = NORMAL");
+        execute(connection, "PRAGMA cache_size = -" + CACHE_SIZE_KIB);
+        execute(connection, "PRAGMA mmap_size = " + MMAP_SIZE_BYTES);
+        return connection;
+    }
+
+    private static void execute(Connection connection, String pragma) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(pragma);
+        }
+    }
+
+    // Wraps a borrowed connection so that close() gives it back, once, and prepareStatement(sql) uses its cache
+    private Connection lease(Pooled pooled, Release release) {
+        Connection connection = pooled.connection;
+        boolean[] returned = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                release.run();
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return returned[0] || connection.isClosed();
+                        }
+                        case "unwrap", "isWrapperFor", "equals", "hashCode", "toString" -> {
+                            // Fall through to the connection below
+                        }
+                        default -> {
+                            if (returned[0]) {
+                                throw new SQLException("Connection was already returned to the pool.");
+                            }
+                            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                                return pooled.statements.prepare((String) args[0]);
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    // Gives a borrowed connection back
+    private interface Release {
+        void run() throws SQLException;
+    }
+
+    // A pooled connection and the statements prepared on it
+    private record Pooled(Connection connection, StatementCache statements) {
+        void close() throws SQLException {
+            try {
+                statements.close();
+
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -1,47 +1,80 @@
 package main.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
-// Create a class for managing the SQLite database connection
+// Create a class for managing the SQLite database connections
 public class SQLiteConnection {
+    private static final String URL = "jdbc:sqlite:../realtime_event_ticketing_system_db.db";
 
-    private static SQLiteConnection instance;
-    private Connection connection; // Database connection object
+    // Readers for the DAOs' queries; writes have their own connection
+    private static final int READER_CONNECTIONS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private volatile ConnectionPool pool; // Writer and reader connections to the database
 
     private SQLiteConnection() {
         connect();
     }
 
-    // Establishes a connection to the SQLite database
+    // Opens the writer and reader connections to the SQLite database
     private void connect() {
-        String url = "jdbc:sqlite:../realtime_event_ticketing_system_db.db";
-
         try {
-            this.connection = DriverManager.getConnection(url);
+            this.pool = new ConnectionPool(URL, READER_CONNECTIONS);
 
         } catch (SQLException e) {
             System.out.println("Error connecting to database: " + e.getMessage());
         }
     }
 
+    // Created on first use by the class loader, which makes the lazy initialization thread-safe
+    private static final class Holder {
+        private static final SQLiteConnection INSTANCE = new SQLiteConnection();
+    }
+
     public static SQLiteConnection getInstance() {
-        if (instance == null) {
-            instance = new SQLiteConnection();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
-    public Connection getConnection() {
+    // Whether the database could be opened
+    public boolean isConnected() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connect(); // Reconnect if the connection is closed
-            }
+            getPool();
+            return true;
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    // Borrows the writer connection, which all inserts, updates, schema changes and "data_version" checks use; close it to give it back
+    public Connection getWriter() throws SQLException {
+        return getPool().borrowWriter(); // Reopened if the connection is closed
+    }
+
+    // Borrows a read-only connection; close it to give it back
+    public Connection getReader() throws SQLException {
+        return getPool().borrowReader();
+    }
+
+    // Reconnects if the database could not be opened before
+    public ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    connect();
+                }
+            }
+        }
+        if (pool == null) {
+            throw new SQLException("Database is not connected.");
+        }
+        return pool;
+    }
+
+    // Closes the writer and all reader connections
+    public void close() throws SQLException {
+        if (pool != null) {
+            pool.close();
         }
-        return connection;
     }
 }
@@ -0,0 +1,141 @@
+package main.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements of one connection keyed by their SQL text, so a statement is parsed once per
+ * connection instead of on every call. A statement handed out is a wrapper: closing it closes its result set,
+ * which ends the read, clears its parameters and keeps it for the next caller instead of freeing the native
+ * statement. The least recently used statements beyond the capacity are freed.
+ * Only the connection's current holder uses the cache, so it needs no locking; a statement that is
+ * still open when the same SQL is prepared again (nested use) is not shared, the second caller gets its own.
+ */
+final class StatementCache {
+    private final Connection connection;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection connection, int capacity, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        Entry entry = statements.get(sql);
+        if (entry == null) {
+            misses.increment();
+            entry = new Entry(connection.prepareStatement(sql));
+            statements.put(sql, entry);
+            evict();
+        } else if (entry.inUse) {
+            misses.increment();
+            return connection.prepareStatement(sql); // Nested use of the same SQL, closed by its caller
+        } else {
+            hits.increment();
+        }
+        entry.inUse = true;
+        return wrap(entry);
+    }
+
+    // Frees every cached statement, before the connection is closed
+    void close() throws SQLException {
+        for (Entry entry : statements.values()) {
+            entry.statement.close();
+        }
+        statements.clear();
+    }
+
+    // Frees the least recently used statements over the capacity; statements in use are freed when returned
+    private void evict() throws SQLException {
+        Iterator<Map.Entry<String, Entry>> iterator = statements.entrySet().iterator();
+        while (statements.size() > capacity && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            if (eldest.inUse) {
+                eldest.evicted = true;
+            } else {
+                eldest.statement.close();
+            }
+        }
+    }
+
+    // Puts a statement back after use, ready for the next caller
+    private void release(Entry entry) throws SQLException {
+        try {
+            if (entry.resultSet != null) {
+                entry.resultSet.close();
+            }
+            entry.statement.clearParameters();
+
+        } finally {
+            entry.resultSet = null;
+            entry.inUse = false;
+            if (entry.evicted) {
+                entry.statement.close();
+            }
+        }
+    }
+
+    // Wraps a cached statement so that close() releases it, once, and the result set it opens is tracked
+    private PreparedStatement wrap(Entry entry) {
+        boolean[] released = new boolean[1];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!released[0]) {
+                                released[0] = true;
+                                release(entry);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return released[0];
+                        }
+                        case "equals", "hashCode", "toString" -> {
+                            // Answered by the statement below
+                        }
+                        default -> {
+                            if (released[0]) {
+                                throw new SQLException("Statement was already closed.");
+                            }
+                        }
+                    }
+                    try {
+                        Object result = method.invoke(entry.statement, args);
+                        if (result instanceof ResultSet resultSet && method.getName().equals("executeQuery")) {
+                            entry.resultSet = resultSet;
+                        }
+                        return result;
+
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static final class Entry {
+        private final PreparedStatement statement;
+        private ResultSet resultSet; // Result of the last executeQuery, closed on release
+        private boolean inUse;
+        private boolean evicted; // Dropped from the cache while in use, freed on release
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package main.models;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single lock-free counter updated with CAS loops.
+ * Cheapest option while the number of concurrent buyers stays low.
+ */
+public class AtomicTicketCounter implements TicketCounter {
+    private final AtomicInteger total = new AtomicInteger(); // Current number of tickets
+
+    @Override
+    public boolean tryAdd(int count, int capacity) {
+        while (true) {
+            int current = total.get();
+            if (current + count > capacity) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int addUpTo(int count, int capacity) {
+        while (true) {
+            int current = total.get();
+            int added = Math.min(count, capacity - current);
+            if (added <= 0) {
+                return 0;
+            }
+            if (total.compareAndSet(current, current + added)) {
+                return added;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryRemove(int count) {
+        while (true) {
+            int current = total.get();
+            if (current < count) {
+                return false;
+            }
+            if (total.compareAndSet(current, current - count)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int removeUpTo(int count) {
+        while (true) {
+            int current = total.get();
+            int removed = Math.min(count, current);
+            if (removed <= 0) {
+                return 0;
+            }
+            if (total.compareAndSet(current, current - removed)) {
+                return removed;
+            }
+        }
+    }
+
+    @Override
+    public int sum() {
+        return total.get();
+    }
+
+    @Override
+    public void reset(int total) {
+        this.total.set(total);
+    }
+}
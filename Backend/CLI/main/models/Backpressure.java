@@ -0,0 +1,105 @@
+package main.models;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backpressure state of one ticket pool, derived from watermarks on its stock: the available tickets
+ * plus the held ones, which take up capacity and come back when their hold expires.
+ * At or above the pause watermark (a percentage of the maximum capacity) vendors of the event are
+ * paused until the pool drains below the resume watermark, so a full pool costs no release attempts.
+ * An empty pool sheds arriving customers until a vendor releases again, unless customers wait for
+ * releases ("customer_wait_sec" above 0) or some are already waiting in line for the next one.
+ * The state is evaluated on demand and published for the status display: a pool held at the top
+ * is consumer-bound, an empty pool is producer-bound.
+ */
+public class Backpressure {
+    public enum State { BALANCED, CONSUMER_BOUND, PRODUCER_BOUND }
+
+    // Watermarks shared by all pools, in percent of the maximum capacity
+    private static volatile int pauseWatermarkPct = 100;
+    private static volatile int resumeWatermarkPct = 90;
+    private static volatile boolean customersWait; // Arriving customers wait for a release instead of leaving
+
+    private final TicketPool ticketPool;
+    private final AtomicReference<State> state = new AtomicReference<>(State.BALANCED);
+
+    // Metrics
+    private final LongAdder transitions = new LongAdder();
+    private final LongAdder pausedReleases = new LongAdder();
+    private final LongAdder shedCustomers = new LongAdder();
+
+    Backpressure(TicketPool ticketPool) {
+        this.ticketPool = ticketPool;
+    }
+
+    /**
+     * Changes the watermarks of all pools at runtime.
+     * A pause watermark above 100 never pauses vendors; the resume watermark is kept below it.
+     * Customers are never shed while they wait for releases.
+     */
+    public static void configure(int pauseWatermarkPct, int resumeWatermarkPct, int customerWaitSec) {
+        Backpressure.pauseWatermarkPct = Math.max(1, pauseWatermarkPct);
+        Backpressure.resumeWatermarkPct = Math.max(0, Math.min(resumeWatermarkPct, pauseWatermarkPct - 1));
+        Backpressure.customersWait = customerWaitSec > 0;
+    }
+
+    // Re-evaluates the state from the current stock and capacity
+    public State evaluate() {
+        long tickets = (long) ticketPool.getTotalTickets() + ticketPool.getHeldTickets();
+        long capacity = ticketPool.getMaxCapacity();
+        State current = state.get();
+        State next;
+        if (tickets <= 0 && capacity > 0) {
+            next = State.PRODUCER_BOUND;
+        } else if (tickets * 100 >= capacity * pauseWatermarkPct) {
+            next = State.CONSUMER_BOUND;
+        } else if (current == State.CONSUMER_BOUND && tickets * 100 > capacity * resumeWatermarkPct) {
+            next = State.CONSUMER_BOUND; // Stays paused until the pool drained below the resume watermark
+        } else {
+            next = State.BALANCED;
+        }
+        if (next != current && state.compareAndSet(current, next)) {
+            transitions.increment();
+        }
+        return next;
+    }
+
+    // Whether vendors should skip this release; counts the skipped release
+    public boolean pauseRelease() {
+        if (evaluate() == State.CONSUMER_BOUND) {
+            pausedReleases.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // Whether an arriving customer should be turned away; counts the shed customer.
+    // A customer who would wait for the next release, or join others waiting for it, is let in
+    public boolean shedCustomer() {
+        if (evaluate() == State.PRODUCER_BOUND && !customersWait && ticketPool.getWaitingCustomers() == 0) {
+            shedCustomers.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // Last evaluated state
+    public State getState() {
+        return state.get();
+    }
+
+    public long getTransitions() {
+        return transitions.sum();
+    }
+
+    // Number of vendor releases skipped while the pool was at the pause watermark
+    public long getPausedReleases() {
+        return pausedReleases.sum();
+    }
+
+    // Number of arriving customers turned away while the pool was out of stock
+    public long getShedCustomers() {
+        return shedCustomers.sum();
+    }
+}
@@ -1,9 +1,10 @@
 package main.models;
 
-import main.dao.impl.SalesLogDAOImpl;
 import main.dao.impl.SystemConfigDAOImpl;
 import java.sql.SQLException;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents a customer who interacts with the ticket pool to purchase tickets.
@@ -12,39 +13,106 @@ import java.util.Random;
 public class Customer implements Runnable {
     private final int id; // Unique identifier for the customer
     private final boolean vip; // Indicates if the customer is a VIP
-    private final TicketPool ticketPool; // Reference to the shared ticket pool
+    private final int ticketsWanted; // Size of the customer's group order
+    private final int eventId; // Event the customer buys tickets for
 
-    // Constructs a Customer object with a randomly generated ID and VIP status
-    public Customer(TicketPool ticketPool) throws SQLException {
-        this.ticketPool = ticketPool;
+    // DAO for reading the system status and customer settings
+    private static final SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
+
+    // Constructs a Customer of an event with a randomly generated ID, VIP status and group size
+    public Customer(int eventId) throws SQLException {
+        this.eventId = eventId;
         Random random = new Random(); // Generate a random ID for the customer
         this.id = random.nextInt(100) + 1;
         this.vip = random.nextInt(2) + 1 == 1; // Randomly assign VIP status (50% chance)
+        this.ticketsWanted = random.nextInt(Math.max(1, configDAO.findConfigValue("max_tickets_per_customer"))) + 1;
     }
 
-    // The run method executed by threads. Simulates the customer attempting to purchase a ticket.
+    /**
+     * The run method executed by threads. Simulates the customer attempting to purchase the whole group order.
+     * The pool is looked up when the customer is admitted, not when it arrived, and pinned while the customer
+     * uses it, so a pool evicted while the customer was queued is never sold from.
+     */
     @Override
     public void run() {
+        TicketPool ticketPool = null;
         try {
             // Check if the system is active
-            if (new SystemConfigDAOImpl().findConfigValue("system_status") == 1 ) {
-                ticketPool.reloadSetMaxCapacity();
-                ticketPool.reloadSetTotalTickets();
-                // Attempt to remove a ticket from the pool
-                if (TicketPool.getInstance().removeTicket()) {
-                    // Log the ticket purchase event
-                    new SalesLogDAOImpl().addLog(vip
-                            ? "Buy 1 ticket from ticket pool [ID - " + id + "] VIP Customer"
-                            : "Buy 1 ticket from ticket pool [ID - " + id + "] Customer");
+            if (configDAO.findConfigValue("system_status") == 1) {
+                ticketPool = TicketPoolRegistry.getInstance().pinPool(eventId);
+                int holdSeconds = configDAO.findConfigValue("checkout_hold_sec");
+                if (holdSeconds > 0) {
+                    checkout(ticketPool, holdSeconds);
+
+                // Seated events assign the best block of adjacent seats to the whole group
+                } else if (ticketPool.hasSeatMap()) {
+                    SeatBlock seats = ticketPool.reserveSeats(ticketsWanted);
+                    if (seats != null) {
+                        logPurchase(seats);
+                    }
+
+                // Attempt to remove all tickets of the group order from the pool at once
+                } else if (ticketPool.tryReserve(ticketsWanted)) {
+                    logPurchase(null);
+
+                // A single-ticket customer waits in line for the next release instead of leaving
+                } else if (ticketsWanted == 1 && ticketPool.awaitTicket(
+                        configDAO.findConfigValue("customer_wait_sec"), TimeUnit.SECONDS) != null) {
+                    logPurchase(null);
                 }
             }
 
         } catch (SQLException e) {
             System.out.println(e.getMessage()); // Handle database errors
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Stopped while waiting for a ticket
+
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage()); // The event was removed while the customer was queued
+
+        } finally {
+            if (ticketPool != null) {
+                ticketPool.unpin();
+            }
+        }
+    }
+
+    /**
+     * Two-phase checkout: holds the tickets, simulates the payment and confirms.
+     * Payment takes up to twice the hold time, so some holds expire and their tickets go back to the pool.
+     */
+    private void checkout(TicketPool ticketPool, int holdSeconds) {
+        TicketHold hold = ticketPool.getHolds().hold(ticketsWanted, holdSeconds, TimeUnit.SECONDS);
+        if (hold == null) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(holdSeconds * 2000L));
+
+        } catch (InterruptedException e) {
+            ticketPool.getHolds().release(hold);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (ticketPool.getHolds().confirm(hold)) {
+            logPurchase(hold.getSeats());
         }
     }
+
+    // Publishes the whole purchase as one event, with its seats for seated events
+    private void logPurchase(SeatBlock seats) {
+        TicketEventPipeline.getInstance().publishPurchase(eventId, id, vip, ticketsWanted,
+                seats != null ? seats.toString() : null);
+    }
+
     // Retrieves the VIP status of the customer
     public boolean isVip() {
         return vip;
     }
+
+    // Retrieves the number of tickets the customer wants to buy
+    public int getTicketsWanted() {
+        return ticketsWanted;
+    }
 }
@@ -0,0 +1,65 @@
+package main.models;
+
+/**
+ * An event that tickets are sold for, with its own inventory and capacity.
+ */
+public class Event {
+    public static final int DEFAULT_EVENT_ID = 1; // Event the single-event settings were migrated to
+
+    private int id; // Unique ID of the event
+    private String eventName; // Name of the event
+    private int totalTickets; // Tickets currently in the event's pool
+    private int maxCapacity; // Maximum tickets the event's pool may hold
+
+    // Nun argument constructor
+    public Event() {
+    }
+
+    // Constructor with all fields
+    public Event(int id, String eventName, int totalTickets, int maxCapacity) {
+        this.id = id;
+        this.eventName = eventName;
+        this.totalTickets = totalTickets;
+        this.maxCapacity = maxCapacity;
+    }
+
+    // Constructor without ID (for new events)
+    public Event(String eventName, int totalTickets, int maxCapacity) {
+        this.eventName = eventName;
+        this.totalTickets = totalTickets;
+        this.maxCapacity = maxCapacity;
+    }
+
+    // Getter and setter methods for event attributes
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public int getTotalTickets() {
+        return totalTickets;
+    }
+
+    public void setTotalTickets(int totalTickets) {
+        this.totalTickets = totalTickets;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+}
@@ -1,24 +1,110 @@
 package main.models;
 
+/**
+ * One row of the sales log: a ticket release by a vendor or a purchase by a customer.
+ * Rows are stored as typed columns; the text shown to users is rendered by the presentation layer.
+ * Rows on their way from the event pipeline to the database are pre-allocated slots that are overwritten
+ * for every new row, so the steady state allocates none; rows read from the database never change.
+ */
 public class SalesLog {
-    private int id; // Unique identifier for the sales log entry
-    private String timeAndDate; // Timestamp of when the log entry was created
-    private String log; // Description or details of the sales log entry
+    // Who caused the sale; stored by ordinal, so new constants go at the end
+    public enum ActorType { VENDOR, CUSTOMER }
 
-    //Constructor to initialize a SalesLog object with the specified details
-    public SalesLog(int id, String timeAndDate, String log) {
+    private int id; // Unique identifier for the sales log entry, 0 before it is stored
+    private long timestamp; // Epoch milliseconds at which the sale happened
+    private TicketEvent.Type type; // Release or purchase; stored by ordinal
+    private ActorType actorType; // Vendor or customer
+    private int actorId; // Vendor or customer ID
+    private String actorName; // Vendor name, null for customers
+    private boolean vip; // Whether the customer is a VIP
+    private int quantity; // Number of tickets released or bought
+    private int eventId; // Event the tickets belong to
+    private String seats; // Seats assigned to a purchase, null for unassigned tickets
+
+    // Constructor with all fields
+    public SalesLog(int id, long timestamp, TicketEvent.Type type, ActorType actorType, int actorId, String actorName,
+                    boolean vip, int quantity, int eventId, String seats) {
         this.id = id;
-        this.timeAndDate = timeAndDate;
-        this.log = log;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.actorType = actorType;
+        this.actorId = actorId;
+        this.actorName = actorName;
+        this.vip = vip;
+        this.quantity = quantity;
+        this.eventId = eventId;
+        this.seats = seats;
+    }
+
+    // Empty slot for the rows of pipeline events
+    SalesLog() {
+    }
+
+    // Overwrites this slot with the row of a pipeline event; releases are caused by vendors, purchases by customers
+    void set(TicketEvent event) {
+        this.id = 0;
+        this.timestamp = event.getTimestamp();
+        this.type = event.getType();
+        this.actorType = event.getType() == TicketEvent.Type.RELEASE ? ActorType.VENDOR : ActorType.CUSTOMER;
+        this.actorId = event.getActorId();
+        this.actorName = event.getActorName();
+        this.vip = event.isVip();
+        this.quantity = event.getQuantity();
+        this.eventId = event.getEventId();
+        this.seats = event.getSeats();
+    }
+
+    // Overwrites this slot with a copy of another row
+    void set(SalesLog row) {
+        this.id = row.id;
+        this.timestamp = row.timestamp;
+        this.type = row.type;
+        this.actorType = row.actorType;
+        this.actorId = row.actorId;
+        this.actorName = row.actorName;
+        this.vip = row.vip;
+        this.quantity = row.quantity;
+        this.eventId = row.eventId;
+        this.seats = row.seats;
+    }
+
+    public int getId() {
+        return id;
     }
-    // Retrieves the timestamp of the sales log entry
-    public String getTimeAndDate() {
-        return timeAndDate;
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public TicketEvent.Type getType() {
+        return type;
     }
 
-    // Retrieves the description or details of the sales log entry
-    public String getLog() {
-        return log;
+    public ActorType getActorType() {
+        return actorType;
     }
 
+    public int getActorId() {
+        return actorId;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public boolean isVip() {
+        return vip;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public String getSeats() {
+        return seats;
+    }
 }
@@ -0,0 +1,37 @@
+package main.models;
+
+import main.util.concurrent.EventHandler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipeline stage that writes the sales log.
+ * Every event is copied into a pre-allocated row; rows are collected for the whole batch and handed to the
+ * {@link SalesLogWriter}, which commits them together with the rows appended close to them.
+ * The rows and the list are reused for every batch, so the stage allocates nothing per event.
+ */
+public class SalesLogEventHandler implements EventHandler<TicketEvent> {
+    private static final int MAX_ROWS_PER_WRITE = 500; // Upper bound on rows per append
+
+    private final SalesLogWriter salesLogWriter;
+    private final SalesLog[] rows = new SalesLog[MAX_ROWS_PER_WRITE]; // Row slots, overwritten every batch
+    private final List<SalesLog> pending = new ArrayList<>(MAX_ROWS_PER_WRITE); // Rows of the current batch
+
+    public SalesLogEventHandler(SalesLogWriter salesLogWriter) {
+        this.salesLogWriter = salesLogWriter;
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new SalesLog();
+        }
+    }
+
+    @Override
+    public void onEvent(TicketEvent event, long sequence, boolean endOfBatch) {
+        SalesLog row = rows[pending.size()];
+        row.set(event);
+        pending.add(row);
+        if (endOfBatch || pending.size() >= MAX_ROWS_PER_WRITE) {
+            salesLogWriter.append(pending); // Copies the rows, so the slots can be overwritten right after
+            pending.clear();
+        }
+    }
+}
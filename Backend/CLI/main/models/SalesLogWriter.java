@@ -0,0 +1,384 @@
+package main.models;
+
+import main.dao.SalesLogDAO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group-commit writer for the sales log.
+ * Appending threads put their rows on a bounded queue, and whoever commits next takes everything queued and
+ * writes it in one transaction, so appends that arrive while a commit is running share the next one.
+ * With {@link Durability#ACK_AFTER_COMMIT} an append returns once the transaction holding its rows committed:
+ * the appending thread waits for the commit lock and, unless the previous holder already wrote its rows,
+ * commits the queue itself (leader/follower), so no thread hand-off is paid and nobody lingers for more rows.
+ * With {@link Durability#FIRE_AND_FORGET} an append returns as soon as its rows are queued, and a writer thread
+ * waits up to the maximum delay for more rows (or until the batch is full) to commit fewer, larger batches.
+ * A full queue makes appending threads wait instead of dropping rows.
+ * A batch that fails to commit is rolled back and its appends are retried with the next commit, up to
+ * {@value #MAX_WRITE_ATTEMPTS} times; only then are their rows dropped, counted and reported to acknowledged appends.
+ * Appended rows are copied into pre-allocated slots that are reused once their rows are written or dropped,
+ * and batches are collected in reused lists, so a steady stream of appends allocates nothing per row.
+ */
+public class SalesLogWriter {
+    public enum Durability { FIRE_AND_FORGET, ACK_AFTER_COMMIT }
+
+    private static final long IDLE_POLL_MS = 100; // How often an idle writer checks for shutdown and retries
+    private static final int MAX_WRITE_ATTEMPTS = 3; // Commits tried for the rows of an append before they are dropped
+    private static final long RETRY_DELAY_MS = 50; // Pause of an acknowledged append before it tries again
+
+    private final SalesLogDAO salesLogDAO;
+    private final BlockingQueue<Append> queue; // Appends waiting for a commit
+    private final BlockingQueue<Append> free; // Appends whose rows were written or dropped, for reuse
+    private final ReentrantLock commitLock = new ReentrantLock(); // Held while a batch is taken and written
+    private final List<Append> retries = new ArrayList<>(); // Appends of failed commits, only touched under the commit lock
+    private final List<Append> drainBatch = new ArrayList<>(); // Batch of drain(), reused under the commit lock
+    private final List<SalesLog> drainRows = new ArrayList<>(); // Rows of that batch
+    private final int maxBatchRows; // Rows that end the wait for more appends
+    private final long maxDelayNanos; // Longest wait for more appends after the first one
+    private final Durability durability;
+    private final Thread thread; // Commits fire-and-forget appends, null when commits are acknowledged
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicInteger queuedRows = new AtomicInteger(); // Rows appended but not yet written
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private final LongAdder failedCommits = new LongAdder();
+    private final LongAdder rowsDropped = new LongAdder();
+
+    public SalesLogWriter(SalesLogDAO salesLogDAO, int queueCapacity, int maxBatchRows, long maxDelay, TimeUnit unit,
+                          Durability durability) {
+        this.salesLogDAO = salesLogDAO;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.free = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.maxBatchRows = Math.max(1, maxBatchRows);
+        this.maxDelayNanos = unit.toNanos(Math.max(0, maxDelay));
+        this.durability = durability;
+        if (durability == Durability.FIRE_AND_FORGET) {
+            this.thread = new Thread(this::run, "sales-log-writer");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } else {
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Queues rows for the next commit; the list is copied, so the caller may reuse it.
+     * Once the writer is shut down the rows are written directly.
+     * Returns false if the rows were dropped because their commits failed; fire-and-forget appends that were
+     * queued return true right away.
+     */
+    public boolean append(List<SalesLog> rows) {
+        if (rows.isEmpty()) {
+            return true;
+        }
+        if (!running) {
+            return writeDirectly(rows);
+        }
+        Append append = free.poll();
+        if (append == null) {
+            append = new Append();
+        }
+        append.fill(rows);
+        // An acknowledged append is read and recycled by its own thread, any other one by the commit
+        append.awaited = durability == Durability.ACK_AFTER_COMMIT;
+        queuedRows.addAndGet(rows.size());
+        try {
+            queue.put(append);
+
+        } catch (InterruptedException e) {
+            queuedRows.addAndGet(-rows.size());
+            recycle(append);
+            Thread.currentThread().interrupt();
+            return writeDirectly(rows); // Not queued, written directly instead of lost
+        }
+        if (append.awaited) {
+            // A holder before us may have written our rows already; otherwise we commit everything queued
+            while (true) {
+                commitLock.lock();
+                try {
+                    if (!append.committed && !append.dropped) {
+                        drain();
+                    }
+                    if (append.committed || append.dropped) {
+                        boolean written = append.committed;
+                        recycle(append);
+                        return written;
+                    }
+
+                } finally {
+                    commitLock.unlock();
+                }
+                pause(); // The commit failed and the rows wait for another attempt
+            }
+        }
+        if (!running) {
+            // The writer thread may have stopped after checking the queue, so the queue is committed here
+            commitLock.lock();
+            try {
+                drain();
+
+            } finally {
+                commitLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    // Rows appended but not yet written
+    public int getQueuedRows() {
+        return queuedRows.get();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    // Average rows per commit
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) rowsWritten.sum() / count;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    // Commits that failed and were rolled back
+    public long getFailedCommits() {
+        return failedCommits.sum();
+    }
+
+    // Rows given up on after their last attempt
+    public long getRowsDropped() {
+        return rowsDropped.sum();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Writes the queued rows (up to the timeout), then stops the writer thread; later appends are written directly.
+     * Rows of failed commits get their remaining attempts.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(unit.toMillis(timeout));
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        commitLock.lock();
+        try {
+            drain();
+            while (!retries.isEmpty()) {
+                pause();
+                drain();
+            }
+
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Writer thread of fire-and-forget appends
+    private void run() {
+        List<Append> batch = new ArrayList<>();
+        List<SalesLog> rows = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Append append = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (append == null) {
+                    retryFailed();
+                    continue;
+                }
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (append != null) {
+                    batch.add(append);
+                    append.addTo(rows);
+                    if (rows.size() >= maxBatchRows) {
+                        break;
+                    }
+                    append = queue.poll();
+                    long wait = deadline - System.nanoTime();
+                    if (append == null && wait > 0 && running) {
+                        append = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+            } catch (InterruptedException e) {
+                running = false; // Writes what was taken, then drains the queue
+            }
+            if (!batch.isEmpty()) {
+                commitLock.lock();
+                try {
+                    write(batch, rows);
+
+                } finally {
+                    commitLock.unlock();
+                }
+            }
+        }
+    }
+
+    // Writes the appends of failed commits again, when the queue was idle
+    private void retryFailed() {
+        commitLock.lock();
+        try {
+            if (!retries.isEmpty()) {
+                drain();
+            }
+
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Writes the appends of failed commits and everything queued, in batches of at most about the maximum rows;
+    // the caller holds the commit lock
+    private void drain() {
+        for (int i = 0; i < retries.size(); i++) {
+            drainBatch.add(retries.get(i));
+            retries.get(i).addTo(drainRows);
+        }
+        retries.clear();
+        Append append;
+        while ((append = queue.poll()) != null) {
+            drainBatch.add(append);
+            append.addTo(drainRows);
+            if (drainRows.size() >= maxBatchRows) {
+                write(drainBatch, drainRows);
+            }
+        }
+        if (!drainBatch.isEmpty()) {
+            write(drainBatch, drainRows);
+        }
+    }
+
+    /**
+     * Writes the rows of a batch in one transaction and marks its appends committed.
+     * If the commit fails, the appends are kept for another attempt, or dropped after their last one.
+     * Appends nobody waits for are recycled once they are committed or dropped. The caller holds the commit lock.
+     */
+    private void write(List<Append> batch, List<SalesLog> rows) {
+        try {
+            salesLogDAO.addLogs(rows);
+            batches.increment();
+            rowsWritten.add(rows.size());
+            maxBatchSize.accumulateAndGet(rows.size(), Math::max);
+            queuedRows.addAndGet(-rows.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Append append = batch.get(i);
+                append.committed = true;
+                if (!append.awaited) {
+                    recycle(append);
+                }
+            }
+
+        } catch (SQLException | RuntimeException e) {
+            failedCommits.increment();
+            int dropped = 0;
+            for (Append append : batch) {
+                if (++append.attempts < MAX_WRITE_ATTEMPTS) {
+                    retries.add(append);
+                } else {
+                    append.dropped = true;
+                    dropped += append.size;
+                    if (!append.awaited) {
+                        recycle(append);
+                    }
+                }
+            }
+            queuedRows.addAndGet(-dropped);
+            rowsDropped.add(dropped);
+            System.out.println("Failed to write " + rows.size() + " sales log rows"
+                    + (dropped > 0 ? ", dropped " + dropped + " after " + MAX_WRITE_ATTEMPTS + " attempts" : "")
+                    + ": " + e.getMessage());
+
+        } finally {
+            batch.clear();
+            rows.clear();
+        }
+    }
+
+    // Writes rows that could not be queued in their own transaction
+    private boolean writeDirectly(List<SalesLog> rows) {
+        try {
+            salesLogDAO.addLogs(rows);
+            return true;
+
+        } catch (SQLException e) {
+            rowsDropped.add(rows.size());
+            System.out.println("Failed to write " + rows.size() + " sales log rows: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Makes an append available for reuse; its rows may be overwritten from now on
+    private void recycle(Append append) {
+        append.size = 0;
+        append.committed = false;
+        append.dropped = false;
+        append.attempts = 0;
+        free.offer(append);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Rows of one append, copied into reused slots; the state is only read and written under the commit lock
+    private static final class Append {
+        private SalesLog[] rows = new SalesLog[0]; // Row slots, the first size of them in use
+        private int size;
+        private boolean awaited; // The appending thread waits for the outcome and recycles the append
+        private boolean committed; // Written in a committed transaction
+        private boolean dropped; // Given up on after the last failed attempt
+        private int attempts; // Failed commits the rows were part of
+
+        // Copies the rows into the slots, adding slots the first time more rows come in
+        private void fill(List<SalesLog> source) {
+            if (rows.length < source.size()) {
+                int length = rows.length;
+                rows = Arrays.copyOf(rows, source.size());
+                for (int i = length; i < rows.length; i++) {
+                    rows[i] = new SalesLog();
+                }
+            }
+            for (int i = 0; i < source.size(); i++) {
+                rows[i].set(source.get(i));
+            }
+            size = source.size();
+        }
+
+        // Adds the rows in use to a batch
+        private void addTo(List<SalesLog> batch) {
+            for (int i = 0; i < size; i++) {
+                batch.add(rows[i]);
+            }
+        }
+    }
+}
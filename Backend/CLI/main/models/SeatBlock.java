@@ -0,0 +1,39 @@
+package main.models;
+
+/**
+ * Adjacent seats in one row of a section, assigned to a purchase or a hold.
+ */
+public class SeatBlock {
+    private final SeatSection section; // Section the seats are in
+    private final int firstSeat; // Index of the first seat in the section
+    private final int count; // Number of seats
+
+    SeatBlock(SeatSection section, int firstSeat, int count) {
+        this.section = section;
+        this.firstSeat = firstSeat;
+        this.count = count;
+    }
+
+    public SeatSection getSection() {
+        return section;
+    }
+
+    public int getFirstSeat() {
+        return firstSeat;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Seat range shown to the buyer, e.g. "A-R3-S12" or "A-R3-S12..S15"
+    @Override
+    public String toString() {
+        String first = section.label(firstSeat);
+        if (count == 1) {
+            return first;
+        }
+        String last = section.label(firstSeat + count - 1);
+        return first + ".." + last.substring(last.lastIndexOf('-') + 1);
+    }
+}
@@ -0,0 +1,56 @@
+package main.models;
+
+import java.util.List;
+
+/**
+ * Assigned seating of one event: its sections ranked from best to worst.
+ * Buyers get the best block of adjacent seats, trying the sections in rank order.
+ */
+public class SeatMap {
+    private final List<SeatSection> sections; // Sections in rank order
+
+    public SeatMap(List<SeatSection> sections) {
+        this.sections = List.copyOf(sections);
+    }
+
+    // Claims the best block of count adjacent seats; returns null if no section has one
+    public SeatBlock allocate(int count) {
+        for (SeatSection section : sections) {
+            if (section.getFreeSeats() < count) {
+                continue;
+            }
+            int firstSeat = section.claimBest(count);
+            if (firstSeat >= 0) {
+                return new SeatBlock(section, firstSeat, count);
+            }
+        }
+        return null;
+    }
+
+    // Frees the seats of a block
+    public void release(SeatBlock block) {
+        block.getSection().release(block.getFirstSeat(), block.getCount());
+    }
+
+    public List<SeatSection> getSections() {
+        return sections;
+    }
+
+    // Total seats of all sections
+    public int getCapacity() {
+        int capacity = 0;
+        for (SeatSection section : sections) {
+            capacity += section.getCapacity();
+        }
+        return capacity;
+    }
+
+    // Seats that are neither sold nor on hold
+    public int getFreeSeats() {
+        int free = 0;
+        for (SeatSection section : sections) {
+            free += section.getFreeSeats();
+        }
+        return free;
+    }
+}
@@ -0,0 +1,251 @@
+package main.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A section of assigned seats stored as a bitmap, one bit per seat (1 = taken).
+ * Every row starts on a new 64-bit word, so a row is scanned a word at a time and a seat block
+ * never needs more than ceil(count / 64) + 1 compare-and-set operations to claim.
+ * Rows are ranked front to back; the best block is the leftmost free run in the front-most row.
+ */
+public class SeatSection {
+    private final int id; // Unique ID of the section
+    private final String sectionName; // Name shown on the ticket, e.g. "A"
+    private final int rows; // Number of rows
+    private final int seatsPerRow; // Seats in every row
+    private final int wordsPerRow; // 64-bit words per row
+    private final long lastWordMask; // Valid seat bits of the last word of a row
+    private final AtomicLongArray seats; // Seat bitmap, row by row
+    private final AtomicIntegerArray freeInRow; // Free seats per row, lets searches skip crowded rows
+    private final AtomicInteger freeSeats; // Free seats in the section
+    private final AtomicBoolean dirty = new AtomicBoolean(); // Set when the bitmap changed since it was last stored
+    private final AtomicInteger firstOpenRow = new AtomicInteger(); // Rows before this one are full
+
+    public SeatSection(int id, String sectionName, int rows, int seatsPerRow) {
+        if (rows <= 0 || seatsPerRow <= 0) {
+            throw new IllegalArgumentException("Rows and seats per row must be greater than 0");
+        }
+        this.id = id;
+        this.sectionName = sectionName;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.wordsPerRow = (seatsPerRow + 63) >>> 6;
+        this.lastWordMask = (seatsPerRow & 63) == 0 ? -1L : (1L << (seatsPerRow & 63)) - 1;
+        this.seats = new AtomicLongArray(rows * wordsPerRow);
+        this.freeInRow = new AtomicIntegerArray(rows);
+        for (int row = 0; row < rows; row++) {
+            freeInRow.set(row, seatsPerRow);
+        }
+        this.freeSeats = new AtomicInteger(rows * seatsPerRow);
+    }
+
+    /**
+     * Claims the best block of count adjacent seats in one row.
+     * Returns the first seat as row * seatsPerRow + seat, or -1 if no row has such a block.
+     */
+    public int claimBest(int count) {
+        if (count <= 0 || count > seatsPerRow) {
+            return -1;
+        }
+        for (int row = firstOpenRow.get(); row < rows; row++) {
+            if (freeInRow.get(row) < count) {
+                continue;
+            }
+            int from = 0;
+            int start;
+            while ((start = findRun(row, from, count)) >= 0) {
+                if (claim(row, start, count)) {
+                    freeInRow.addAndGet(row, -count);
+                    freeSeats.addAndGet(-count);
+                    dirty.set(true);
+                    advanceFirstOpenRow(row);
+                    return row * seatsPerRow + start;
+                }
+                from = start; // Another buyer took part of the run, search again from there
+            }
+        }
+        return -1;
+    }
+
+    // Frees a block claimed by claimBest
+    public void release(int firstSeat, int count) {
+        int row = firstSeat / seatsPerRow;
+        int seat = firstSeat % seatsPerRow;
+        int base = row * wordsPerRow;
+        for (int word = seat >>> 6; word <= (seat + count - 1) >>> 6; word++) {
+            long mask = rangeMask(word, seat, seat + count);
+            seats.getAndUpdate(base + word, bits -> bits & ~mask);
+        }
+        freeInRow.addAndGet(row, count);
+        freeSeats.addAndGet(count);
+        dirty.set(true);
+        lowerFirstOpenRow(row);
+    }
+
+    // Finds the first run of count free seats in a row at or after the given seat, or -1
+    private int findRun(int row, int from, int count) {
+        int seat = from;
+        while (seat + count <= seatsPerRow) {
+            int free = nextSeat(row, seat, seatsPerRow, false);
+            if (free < 0 || free + count > seatsPerRow) {
+                return -1;
+            }
+            int taken = nextSeat(row, free, free + count, true);
+            if (taken < 0) {
+                return free;
+            }
+            seat = taken + 1;
+        }
+        return -1;
+    }
+
+    // Word-level scan for the next taken (or free) seat in [from, to) of a row, -1 if there is none
+    private int nextSeat(int row, int from, int to, boolean taken) {
+        int base = row * wordsPerRow;
+        int word = from >>> 6;
+        long bits = wordBits(base, word, taken) & (-1L << (from & 63));
+        while (true) {
+            if (bits != 0) {
+                int seat = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return seat < to ? seat : -1;
+            }
+            if (++word << 6 >= to) {
+                return -1;
+            }
+            bits = wordBits(base, word, taken);
+        }
+    }
+
+    // Bits of a word with 1 for every seat in the wanted state, restricted to real seats
+    private long wordBits(int base, int word, boolean taken) {
+        long bits = seats.get(base + word);
+        long valid = word == wordsPerRow - 1 ? lastWordMask : -1L;
+        return (taken ? bits : ~bits) & valid;
+    }
+
+    /**
+     * Sets the bits of the block word by word with compare-and-set.
+     * If a word was taken in the meantime the words already set are cleared again and the claim fails.
+     */
+    private boolean claim(int row, int start, int count) {
+        int base = row * wordsPerRow;
+        int firstWord = start >>> 6;
+        int lastWord = (start + count - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long mask = rangeMask(word, start, start + count);
+            while (true) {
+                long bits = seats.get(base + word);
+                if ((bits & mask) != 0) {
+                    for (int done = firstWord; done < word; done++) {
+                        long doneMask = rangeMask(done, start, start + count);
+                        seats.getAndUpdate(base + done, current -> current & ~doneMask);
+                    }
+                    return false;
+                }
+                if (seats.compareAndSet(base + word, bits, bits | mask)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Bits of one word that lie in the seat range [from, to) of its row
+    private static long rangeMask(int word, int from, int to) {
+        int low = Math.max(from - (word << 6), 0);
+        int high = Math.min(to - (word << 6), 64);
+        long upTo = high == 64 ? -1L : (1L << high) - 1;
+        return upTo & (-1L << low);
+    }
+
+    /**
+     * Moves the full-row hint past rows that filled up.
+     * A row is re-checked after the hint moved, so a release that raced with the move is not skipped.
+     */
+    private void advanceFirstOpenRow(int row) {
+        while (row < rows && freeInRow.get(row) == 0 && firstOpenRow.compareAndSet(row, row + 1)) {
+            if (freeInRow.get(row) > 0) {
+                lowerFirstOpenRow(row);
+                return;
+            }
+            row++;
+        }
+    }
+
+    // Moves the full-row hint back to a row that has free seats again
+    private void lowerFirstOpenRow(int row) {
+        int open;
+        while (row < (open = firstOpenRow.get()) && !firstOpenRow.compareAndSet(open, row)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Seat label of a seat index, e.g. "A-R3-S12" (rows and seats counted from 1)
+    public String label(int seatIndex) {
+        return sectionName + "-R" + (seatIndex / seatsPerRow + 1) + "-S" + (seatIndex % seatsPerRow + 1);
+    }
+
+    // Copies the bitmap for storage, little-endian words
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(seats.length() * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < seats.length(); i++) {
+            buffer.putLong(seats.get(i));
+        }
+        return buffer.array();
+    }
+
+    // Restores a stored bitmap; ignored if it was stored for a different layout
+    public void loadBytes(byte[] bitmap) {
+        if (bitmap == null || bitmap.length != seats.length() * Long.BYTES) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bitmap).order(ByteOrder.LITTLE_ENDIAN);
+        int free = 0;
+        for (int row = 0; row < rows; row++) {
+            int taken = 0;
+            for (int word = 0; word < wordsPerRow; word++) {
+                long bits = buffer.getLong() & (word == wordsPerRow - 1 ? lastWordMask : -1L);
+                seats.set(row * wordsPerRow + word, bits);
+                taken += Long.bitCount(bits);
+            }
+            freeInRow.set(row, seatsPerRow - taken);
+            free += seatsPerRow - taken;
+        }
+        freeSeats.set(free);
+        firstOpenRow.set(0);
+    }
+
+    // Clears the dirty flag and returns whether the bitmap changed since the last call
+    boolean takeDirty() {
+        return dirty.getAndSet(false);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return rows * seatsPerRow;
+    }
+
+    public int getFreeSeats() {
+        return freeSeats.get();
+    }
+}
@@ -0,0 +1,198 @@
+package main.models;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ticket counter split into independent shards to avoid a single contended cache line.
+ * Customers take tickets from a home shard picked by thread and steal from the neighbouring
+ * shards when it is empty. Every shard owns an equal slice of the capacity, so the global
+ * capacity holds without a shared counter on the purchase path.
+ */
+public class StripedTicketCounter implements TicketCounter {
+    private static final int PADDING = 16; // Ints per shard, keeps every shard on its own 64-byte cache line
+
+    private final int shardCount; // Number of shards
+    private final AtomicIntegerArray shards; // Padded per-shard counters
+    private final ReentrantLock releaseLock = new ReentrantLock(); // Serializes vendor releases and all-or-nothing group purchases
+    private int nextReleaseShard; // Shard the next release starts filling from, guarded by releaseLock
+
+    public StripedTicketCounter(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        this.shardCount = shardCount;
+        this.shards = new AtomicIntegerArray(shardCount * PADDING);
+    }
+
+    /**
+     * Spreads the release across the shards starting from a rotating shard.
+     * Releases are serialized and purchases only lower shard counts, so the free room seen by the
+     * check can only grow before the tickets are placed and the release never ends half applied.
+     */
+    @Override
+    public boolean tryAdd(int count, int capacity) {
+        releaseLock.lock();
+        try {
+            int room = 0;
+            for (int i = 0; i < shardCount; i++) {
+                room += Math.max(0, shardCapacity(i, capacity) - shards.get(i * PADDING));
+            }
+            if (room < count) {
+                return false;
+            }
+            spread(count, capacity);
+            return true;
+
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    @Override
+    public int addUpTo(int count, int capacity) {
+        releaseLock.lock();
+        try {
+            return spread(count, capacity);
+
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    /**
+     * Single tickets are taken lock-free. A group purchase that has to be all-or-nothing may need
+     * to give back what it already took, so it runs under the release lock: with vendors held off,
+     * the shards it took from still have room for the tickets it returns.
+     */
+    @Override
+    public boolean tryRemove(int count) {
+        if (count == 1) {
+            return removeUpTo(1) == 1;
+        }
+
+        releaseLock.lock();
+        try {
+            if (sum() < count) {
+                return false;
+            }
+            int home = homeShard();
+            int[] taken = new int[shardCount];
+            int remaining = count;
+            for (int i = 0; i < shardCount && remaining > 0; i++) {
+                int shard = (home + i) % shardCount;
+                taken[shard] = take(shard, remaining);
+                remaining -= taken[shard];
+            }
+            if (remaining == 0) {
+                return true;
+            }
+
+            // Other customers emptied the shards in the meantime, return the partial group
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (taken[shard] > 0) {
+                    shards.addAndGet(shard * PADDING, taken[shard]);
+                }
+            }
+            return false;
+
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    @Override
+    public int removeUpTo(int count) {
+        int home = homeShard();
+        int removed = 0;
+        for (int i = 0; i < shardCount && removed < count; i++) {
+            removed += take((home + i) % shardCount, count - removed);
+        }
+        return removed;
+    }
+
+    @Override
+    public int sum() {
+        int total = 0;
+        for (int i = 0; i < shardCount; i++) {
+            total += shards.get(i * PADDING);
+        }
+        return total;
+    }
+
+    /**
+     * Brings the total to the new value by adding or removing the difference to the current sum, spread
+     * evenly across the shards. Purchases keep running lock-free, so one that lands during the reset is
+     * taken from the new total instead of being overwritten by a plain store into its shard.
+     */
+    @Override
+    public void reset(int total) {
+        releaseLock.lock();
+        try {
+            int delta = total - sum();
+            if (delta > 0) {
+                for (int i = 0; i < shardCount; i++) {
+                    shards.addAndGet(i * PADDING, delta / shardCount + (i < delta % shardCount ? 1 : 0));
+                }
+            } else if (delta < 0) {
+                removeUpTo(-delta);
+            }
+
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // Places up to count tickets starting from the rotating shard, must be called under releaseLock
+    private int spread(int count, int capacity) {
+        int remaining = count;
+        for (int i = 0; i < shardCount && remaining > 0; i++) {
+            int shard = (nextReleaseShard + i) % shardCount;
+            remaining -= fill(shard, remaining, shardCapacity(shard, capacity));
+        }
+        nextReleaseShard = (nextReleaseShard + 1) % shardCount;
+        return count - remaining;
+    }
+
+    // Capacity slice of a shard; the remainder goes to the first shards so the slices add up to the capacity
+    private int shardCapacity(int shard, int capacity) {
+        return capacity / shardCount + (shard < capacity % shardCount ? 1 : 0);
+    }
+
+    // Adds up to count tickets to a shard without exceeding its slice and returns how many were added
+    private int fill(int shard, int count, int shardCapacity) {
+        while (true) {
+            int current = shards.get(shard * PADDING);
+            int added = Math.min(count, shardCapacity - current);
+            if (added <= 0) {
+                return 0;
+            }
+            if (shards.compareAndSet(shard * PADDING, current, current + added)) {
+                return added;
+            }
+        }
+    }
+
+    // Removes up to count tickets from a shard and returns how many were removed
+    private int take(int shard, int count) {
+        while (true) {
+            int current = shards.get(shard * PADDING);
+            int removed = Math.min(count, current);
+            if (removed <= 0) {
+                return 0;
+            }
+            if (shards.compareAndSet(shard * PADDING, current, current - removed)) {
+                return removed;
+            }
+        }
+    }
+
+    // Each thread keeps buying from the same shard so concurrent customers spread across shards
+    private int homeShard() {
+        return (int) (Thread.currentThread().threadId() % shardCount);
+    }
+}
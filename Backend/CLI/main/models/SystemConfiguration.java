@@ -0,0 +1,105 @@
+package main.models;
+
+import java.util.Map;
+
+/**
+ * Immutable typed snapshot of the "system_config" table, read in one query.
+ * Values taken from the same snapshot belong together even while the table is being updated,
+ * so code that needs several settings at once reads them all from one snapshot.
+ * {@link #of(Map)} is the one place that maps the rows of the table to the settings: it knows their keys,
+ * their defaults and their smallest valid values.
+ */
+public record SystemConfiguration(
+        boolean running,
+        int ticketReleaseIntervalMicros,
+        int customerRetrievalIntervalMicros,
+        int customersPerTick,
+        int customerWaitSec,
+        int admissionQueueCapacity,
+        int vipAdmissionWeight,
+        int admissionMaxWaitSec,
+        int vendorTicketsPerSec,
+        int vendorTicketBurst,
+        int releaseTicketsPerSec,
+        int releaseTicketBurst,
+        int customerAdmissionsPerSec,
+        int customerAdmissionBurst,
+        int vendorPauseWatermarkPct,
+        int vendorResumeWatermarkPct) {
+
+    // Value of every key the CLI inserts into a new table
+    private static final Map<String, Integer> DEFAULTS = Map.ofEntries(
+            Map.entry("system_status", 0),
+            // Intervals are kept in microseconds
+            Map.entry("ticket_release_interval_us", 60_000_000),
+            Map.entry("customer_retrieval_interval_us", 60_000_000),
+            Map.entry("ticket_pool_shards", 1),
+            Map.entry("max_tickets_per_customer", 1),
+            Map.entry("checkout_hold_sec", 0),
+            Map.entry("customer_wait_sec", 30),
+            Map.entry("admission_queue_capacity", 1000),
+            Map.entry("vip_admission_weight", 3),
+            Map.entry("admission_max_wait_sec", 10),
+            Map.entry("event_ring_size", 1024),
+            Map.entry("event_wait_strategy", 0),
+            Map.entry("event_idle_evict_sec", 300),
+            // Sales log group commit: 1 = appends wait for their commit, 0 = fire-and-forget
+            Map.entry("sales_log_durability", 1),
+            Map.entry("sales_log_max_delay_us", 2000),
+            Map.entry("sales_log_max_batch", 1000),
+            Map.entry("sales_log_queue_capacity", 1024),
+            // Sales log partitions: days after which a day is archived and dropped, 0 = never
+            Map.entry("sales_log_archive_after_days", 7),
+            Map.entry("sales_log_retention_days", 0),
+            // Ticket journal: 1 = every count change is journaled for crash recovery, 0 = off
+            Map.entry("journal_enabled", 1),
+            Map.entry("journal_snapshot_sec", 30),
+            Map.entry("journal_sync_ms", 1000),
+            Map.entry("journal_segment_records", 1048576),
+            Map.entry("max_resident_events", 10000),
+            Map.entry("execution_mode", 1),
+            Map.entry("max_concurrent_customers", 10000),
+            Map.entry("max_concurrent_vendors", 100),
+            Map.entry("customers_per_tick", 2),
+            // Token bucket limits, 0 = unlimited; a burst of 0 allows one second worth
+            Map.entry("vendor_tickets_per_sec", 0),
+            Map.entry("vendor_ticket_burst", 0),
+            Map.entry("release_tickets_per_sec", 0),
+            Map.entry("release_ticket_burst", 0),
+            Map.entry("customer_admissions_per_sec", 0),
+            Map.entry("customer_admission_burst", 0),
+            // Backpressure watermarks in percent of the maximum capacity, vendors pause at the first and resume below the second
+            Map.entry("vendor_pause_watermark_pct", 100),
+            Map.entry("vendor_resume_watermark_pct", 90));
+
+    // Snapshot of the rows of the table; a missing key takes its default, a value below its minimum the minimum
+    public static SystemConfiguration of(Map<String, Integer> values) {
+        return new SystemConfiguration(
+                setting(values, "system_status", 0) == 1,
+                setting(values, "ticket_release_interval_us", 1),
+                setting(values, "customer_retrieval_interval_us", 1),
+                setting(values, "customers_per_tick", 1),
+                setting(values, "customer_wait_sec", 0),
+                setting(values, "admission_queue_capacity", 1),
+                setting(values, "vip_admission_weight", 0),
+                setting(values, "admission_max_wait_sec", 0),
+                setting(values, "vendor_tickets_per_sec", 0),
+                setting(values, "vendor_ticket_burst", 0),
+                setting(values, "release_tickets_per_sec", 0),
+                setting(values, "release_ticket_burst", 0),
+                setting(values, "customer_admissions_per_sec", 0),
+                setting(values, "customer_admission_burst", 0),
+                setting(values, "vendor_pause_watermark_pct", 1),
+                setting(values, "vendor_resume_watermark_pct", 0));
+    }
+
+    // Keys and values a new table starts with
+    public static Map<String, Integer> defaults() {
+        return DEFAULTS;
+    }
+
+    private static int setting(Map<String, Integer> values, String configKey, int minimum) {
+        Integer configValue = values.get(configKey);
+        return Math.max(minimum, configValue != null ? configValue : DEFAULTS.get(configKey));
+    }
+}
@@ -0,0 +1,26 @@
+package main.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single ticket handed to a customer that waited for it.
+ */
+public class Ticket {
+    private static final AtomicLong SEQUENCE = new AtomicLong(); // Source of ticket serial numbers
+
+    private final long serial; // Unique serial number of the ticket
+    private final long issuedAt; // Epoch milliseconds at which the ticket was handed out
+
+    public Ticket() {
+        this.serial = SEQUENCE.incrementAndGet();
+        this.issuedAt = System.currentTimeMillis();
+    }
+
+    public long getSerial() {
+        return serial;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+}
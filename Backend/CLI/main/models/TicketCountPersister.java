@@ -0,0 +1,134 @@
+package main.models;
+
+import main.dao.EventDAO;
+import main.dao.SeatSectionDAO;
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind persister for the ticket counter of one event.
+ * Ticket operations only mark the count as dirty and queue the persister once; a shared
+ * background task ({@link #flushDirty()}, run by the {@link TicketPoolRegistry}) writes the
+ * latest value of every queued event, so any number of sales between two flushes costs one
+ * database write per event, and idle events cost nothing. Seat bitmaps of seated events are
+ * written along with the count, only for the sections that changed. Every value known to be stored is
+ * recorded in the {@link TicketJournal}, which recovery compares with the stored count.
+ * A count written by another process is adopted as a change relative to the last value stored here, so it
+ * adds up with the sales made since, and a write only replaces the value it expects in the database.
+ */
+public class TicketCountPersister {
+    // Persisters whose counter changed since their last flush, each queued at most once
+    private static final Queue<TicketCountPersister> dirtyPersisters = new ConcurrentLinkedQueue<>();
+
+    private final TicketPool ticketPool; // Pool whose counter is persisted
+    private final EventDAO eventDAO; // DAO used to store the counter
+    private final SeatSectionDAO seatSectionDAO; // DAO used to store the seat bitmaps
+    private final TicketJournal journal; // Records the values stored in the database
+    private final AtomicBoolean dirty = new AtomicBoolean(); // Set when the counter changed since the last flush
+    private volatile boolean closed; // Set once the pool was evicted or shut down
+    private int lastPersisted; // Last value known to be stored in the database
+
+    public TicketCountPersister(TicketPool ticketPool, EventDAO eventDAO, SeatSectionDAO seatSectionDAO,
+                                TicketJournal journal) {
+        this.ticketPool = ticketPool;
+        this.eventDAO = eventDAO;
+        this.seatSectionDAO = seatSectionDAO;
+        this.journal = journal;
+    }
+
+    /**
+     * Records that the in-memory counter changed.
+     * Called on every sale, so the flag is only written when it is clear: between two flushes all threads
+     * merely read it and its cache line stays shared instead of bouncing between the cores.
+     * A pool that is no longer registered writes straight through, so a sale that raced with
+     * its eviction is not lost.
+     */
+    public void markDirty() {
+        if (!dirty.get() && dirty.compareAndSet(false, true)) {
+            if (closed) {
+                flushQuietly();
+            } else {
+                dirtyPersisters.add(this);
+            }
+        }
+    }
+
+    // Records a value that is already stored in the database
+    public synchronized void markPersisted(int value) {
+        lastPersisted = value;
+        journal.recordPersisted(ticketPool.getEventId(), value);
+    }
+
+    // Writes every queued counter, called periodically by the registry
+    public static void flushDirty() {
+        TicketCountPersister persister;
+        while ((persister = dirtyPersisters.poll()) != null) {
+            persister.flushQuietly();
+        }
+    }
+
+    /**
+     * Writes the current counter value, and the changed seat sections, if they changed since the last flush.
+     * If another process changed the stored count since it was last read, its change is adopted first.
+     */
+    public synchronized void flush() throws SQLException {
+        if (dirty.getAndSet(false)) {
+            int current = ticketPool.getTotalTickets();
+            while (current != lastPersisted
+                    && !eventDAO.compareAndSetTotalTickets(ticketPool.getEventId(), lastPersisted, current)) {
+                int stored = eventDAO.findTotalTickets(ticketPool.getEventId());
+                if (stored < 0) {
+                    return; // The event was removed
+                }
+                adopt(stored);
+                current = ticketPool.getTotalTickets();
+            }
+            if (current != lastPersisted) {
+                markPersisted(current);
+            }
+            if (ticketPool.hasSeatMap()) {
+                for (SeatSection section : ticketPool.getSeatMap().getSections()) {
+                    if (section.takeDirty()) {
+                        seatSectionDAO.updateSeats(section);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adopts a "total_tickets" value written by another process (e.g. the API).
+     * A stored value that differs from the last value written here can only be an external change.
+     */
+    public synchronized void reconcile(int stored) {
+        if (stored >= 0 && stored != lastPersisted) {
+            adopt(stored);
+            if (ticketPool.getTotalTickets() != stored) {
+                markDirty(); // Sales since the last flush still have to be written on top
+            }
+        }
+    }
+
+    // Flushes the final value; later changes are written through
+    public void close() {
+        closed = true;
+        flushQuietly();
+    }
+
+    // Applies the difference between the stored value and the last one written here to the counter
+    private void adopt(int stored) {
+        ticketPool.adjustTotalTickets(stored - lastPersisted);
+        markPersisted(stored);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Failed to persist total tickets of event " + ticketPool.getEventId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package main.models;
+
+/**
+ * Counter engine behind the ticket pool.
+ * Implementations must never let the count drop below zero or exceed the given capacity.
+ */
+public interface TicketCounter {
+    boolean tryAdd(int count, int capacity); // Adds all tickets if they fit within the capacity
+    int addUpTo(int count, int capacity); // Adds as many tickets as fit and returns how many were added
+    boolean tryRemove(int count); // Removes all tickets if that many are available
+    int removeUpTo(int count); // Removes as many tickets as are available and returns how many were removed
+    int sum(); // Aggregated number of tickets currently held
+    void reset(int total); // Replaces the current count (used when the stored value is reloaded)
+}
@@ -0,0 +1,62 @@
+package main.models;
+
+/**
+ * Release or purchase event passed from vendors and customers to the event pipeline.
+ * Instances are pre-allocated by the ring buffer and overwritten for every new event.
+ */
+public class TicketEvent {
+    public enum Type { RELEASE, PURCHASE } // Stored by ordinal in the sales log, so new constants go at the end
+
+    private Type type; // Kind of event
+    private int eventId; // Event the tickets belong to
+    private int actorId; // Vendor or customer ID
+    private String actorName; // Vendor name, null for customers
+    private boolean vip; // Whether the customer is a VIP
+    private int quantity; // Number of tickets released or bought
+    private String seats; // Seats assigned to a purchase, null for unassigned tickets
+    private long timestamp; // Epoch milliseconds at which the event happened
+
+    // Overwrites this entry with a new event
+    void set(Type type, int eventId, int actorId, String actorName, boolean vip, int quantity, String seats) {
+        this.type = type;
+        this.eventId = eventId;
+        this.actorId = actorId;
+        this.actorName = actorName;
+        this.vip = vip;
+        this.quantity = quantity;
+        this.seats = seats;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public int getActorId() {
+        return actorId;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public boolean isVip() {
+        return vip;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getSeats() {
+        return seats;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,207 @@
+package main.models;
+
+import main.dao.SalesLogDAO;
+import main.dao.impl.SalesLogDAOImpl;
+import main.dao.impl.SystemConfigDAOImpl;
+import main.util.concurrent.EventPipeline;
+import main.util.concurrent.RingBuffer;
+import main.util.concurrent.WaitStrategy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton pipeline that carries release and purchase events from vendors and customers
+ * to the side-effect stages (metrics, then the sales log).
+ * Publishing claims a pre-allocated ring buffer entry, so vendors and customers only pay for
+ * the ticket pool operation itself; persistence happens in batches on the stage threads, and the
+ * sales log rows are group-committed by a {@link SalesLogWriter}.
+ * A background thread maintains the sales log's day partitions: it creates the next day's partition ahead of
+ * the rollover, archives days older than "sales_log_archive_after_days" and drops days older than
+ * "sales_log_retention_days".
+ */
+public class TicketEventPipeline {
+    private static final long PARTITION_MAINTENANCE_INTERVAL_MIN = 60; // Delay between two partition maintenance runs
+
+    private static volatile TicketEventPipeline instance; // Singleton instance
+
+    private final EventPipeline<TicketEvent> pipeline;
+    private final RingBuffer<TicketEvent> ringBuffer;
+    private final TicketMetricsEventHandler metrics = new TicketMetricsEventHandler();
+    private final SalesLogWriter salesLogWriter;
+
+    // Single daemon thread, so a running archive never keeps the JVM alive
+    private final ScheduledExecutorService partitionMaintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sales-log-partitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TicketEventPipeline(int bufferSize, WaitStrategy waitStrategy, SalesLogDAO salesLogDAO,
+                                SalesLogWriter salesLogWriter, int archiveAfterDays, int retentionDays) {
+        this.salesLogWriter = salesLogWriter;
+        this.pipeline = new EventPipeline<>("ticket-events", TicketEvent::new, bufferSize, waitStrategy)
+                .then(metrics)
+                .then(new SalesLogEventHandler(salesLogWriter));
+        this.ringBuffer = pipeline.getRingBuffer();
+        pipeline.start();
+        partitionMaintenance.scheduleWithFixedDelay(() -> maintainPartitions(salesLogDAO, archiveAfterDays, retentionDays),
+                0, PARTITION_MAINTENANCE_INTERVAL_MIN, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Provides the Singleton instance, sized and tuned by "event_ring_size" and
+     * "event_wait_strategy" (0 blocking, 1 yielding, 2 busy-spin); the sales log writer and partitions by the
+     * "sales_log_*" settings.
+     */
+    public static TicketEventPipeline getInstance() {
+        if (instance == null) {
+            synchronized (TicketEventPipeline.class) {
+                if (instance == null) {
+                    try {
+                        SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
+                        SalesLogDAO salesLogDAO = new SalesLogDAOImpl();
+                        SalesLogWriter salesLogWriter = new SalesLogWriter(salesLogDAO,
+                                configDAO.findConfigValue("sales_log_queue_capacity"),
+                                configDAO.findConfigValue("sales_log_max_batch"),
+                                configDAO.findConfigValue("sales_log_max_delay_us"), TimeUnit.MICROSECONDS,
+                                configDAO.findConfigValue("sales_log_durability") == 0
+                                        ? SalesLogWriter.Durability.FIRE_AND_FORGET
+                                        : SalesLogWriter.Durability.ACK_AFTER_COMMIT);
+                        instance = new TicketEventPipeline(
+                                ringSize(configDAO.findConfigValue("event_ring_size")),
+                                waitStrategy(configDAO.findConfigValue("event_wait_strategy")),
+                                salesLogDAO, salesLogWriter,
+                                configDAO.findConfigValue("sales_log_archive_after_days"),
+                                configDAO.findConfigValue("sales_log_retention_days"));
+
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to initialize ticket event pipeline.", e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Publishes a vendor release for an event
+    public void publishRelease(int eventId, int vendorId, String vendorName, int quantity) {
+        long sequence = claim(1);
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            ringBuffer.get(sequence).set(TicketEvent.Type.RELEASE, eventId, vendorId, vendorName, false, quantity, null);
+
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    /**
+     * Publishes the releases of vendors that were released together as one batch.
+     * The released tickets are credited to the vendors in order, each up to the quantity it asked for,
+     * and the events are claimed and published as one range of the ring buffer.
+     */
+    public void publishReleases(int eventId, List<Vendor> vendors, int[] quantities, int released) {
+        int index = 0;
+        int remaining = released;
+        while (remaining > 0 && index < vendors.size()) {
+            int pending = 0; // Vendors credited by this claim, at most one ring buffer
+            for (int i = index, left = remaining; i < vendors.size() && left > 0
+                    && pending < ringBuffer.getBufferSize(); i++, pending++) {
+                left -= quantities[i];
+            }
+            long high = claim(pending);
+            if (high < 0) {
+                return;
+            }
+            long low = high - pending + 1;
+            try {
+                for (long sequence = low; sequence <= high; sequence++) {
+                    Vendor vendor = vendors.get(index);
+                    int quantity = Math.min(remaining, quantities[index++]);
+                    remaining -= quantity;
+                    ringBuffer.get(sequence).set(TicketEvent.Type.RELEASE, eventId, vendor.getId(),
+                            vendor.getVendorName(), false, quantity, null);
+                }
+
+            } finally {
+                ringBuffer.publish(low, high);
+            }
+        }
+    }
+
+    // Publishes a customer purchase for an event; seats is null for unassigned tickets
+    public void publishPurchase(int eventId, int customerId, boolean vip, int quantity, String seats) {
+        long sequence = claim(1);
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            ringBuffer.get(sequence).set(TicketEvent.Type.PURCHASE, eventId, customerId, null, vip, quantity, seats);
+
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    public TicketMetricsEventHandler getMetrics() {
+        return metrics;
+    }
+
+    public SalesLogWriter getSalesLogWriter() {
+        return salesLogWriter;
+    }
+
+    // Events published but not yet written to the sales log
+    public long getBacklog() {
+        return pipeline.getBacklog();
+    }
+
+    // Writes the remaining events and stops the stage threads, then commits the queued sales log rows
+    public void shutdown() {
+        partitionMaintenance.shutdownNow();
+        pipeline.shutdown(5, TimeUnit.SECONDS);
+        salesLogWriter.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    // Claims entries for n events and returns the highest sequence, or -1 once the pipeline is shut down:
+    // nothing would handle the events any more, so they are dropped instead of waiting for space
+    private long claim(int n) {
+        try {
+            return ringBuffer.next(n);
+
+        } catch (IllegalStateException e) {
+            return -1;
+        }
+    }
+
+    private static void maintainPartitions(SalesLogDAO salesLogDAO, int archiveAfterDays, int retentionDays) {
+        try {
+            salesLogDAO.maintainPartitions(archiveAfterDays, retentionDays);
+
+        } catch (RuntimeException e) {
+            System.out.println("Failed to maintain sales log partitions: " + e.getMessage());
+        }
+    }
+
+    // Rounds the configured size up to a power of two
+    private static int ringSize(int configured) {
+        int size = 1;
+        while (size < Math.max(configured, 2)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static WaitStrategy waitStrategy(int configured) {
+        return switch (configured) {
+            case 1 -> WaitStrategy.yielding();
+            case 2 -> WaitStrategy.busySpin();
+            default -> WaitStrategy.blocking();
+        };
+    }
+}
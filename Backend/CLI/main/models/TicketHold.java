@@ -0,0 +1,65 @@
+package main.models;
+
+import main.util.concurrent.HashedTimingWheel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tickets taken out of the pool for a bounded time during checkout.
+ * A hold ends exactly once: confirmed by the buyer, released early, or expired by the timer.
+ */
+public class TicketHold {
+    public enum Status { ACTIVE, CONFIRMED, RELEASED, EXPIRED }
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(); // Source of hold IDs
+
+    private final long id; // Unique ID of the hold
+    private final int count; // Number of tickets held
+    private final long expiresAt; // Epoch milliseconds at which the hold expires
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.ACTIVE);
+    private volatile HashedTimingWheel.Timeout timeout; // Expiry timer, cancelled when the hold ends early
+    private final SeatBlock seats; // Seats assigned to the hold, null for events without seat sections
+
+    TicketHold(int count, long ttlMillis, SeatBlock seats) {
+        this.id = SEQUENCE.incrementAndGet();
+        this.count = count;
+        this.seats = seats;
+        this.expiresAt = System.currentTimeMillis() + ttlMillis;
+    }
+
+    // Ends the hold with the given status if it is still active
+    boolean end(Status endStatus) {
+        if (!status.compareAndSet(Status.ACTIVE, endStatus)) {
+            return false;
+        }
+        HashedTimingWheel.Timeout pending = timeout;
+        if (pending != null && endStatus != Status.EXPIRED) {
+            pending.cancel();
+        }
+        return true;
+    }
+
+    void setTimeout(HashedTimingWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public SeatBlock getSeats() {
+        return seats;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+}
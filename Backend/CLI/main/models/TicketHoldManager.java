@@ -0,0 +1,111 @@
+package main.models;
+
+import main.util.concurrent.HashedTimingWheel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-phase checkout for the ticket pool.
+ * A hold takes tickets out of the pool and schedules its expiry on a timing wheel shared by
+ * the pools of all events; confirming sells the tickets, while releasing or expiring returns
+ * them to the pool.
+ */
+public class TicketHoldManager {
+    private static final long TICK_MILLIS = 100; // Expiry precision
+    private static final int TICKS_PER_WHEEL = 512; // One turn of the wheel covers about 51 seconds
+
+    // One timer thread for the holds of every event
+    private static final HashedTimingWheel timingWheel = new HashedTimingWheel("ticket-hold-timer",
+            TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+
+    private final TicketPool ticketPool; // Pool the held tickets come from
+
+    // Metrics
+    private final AtomicInteger activeHolds = new AtomicInteger();
+    private final LongAdder confirmations = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TicketHoldManager(TicketPool ticketPool) {
+        this.ticketPool = ticketPool;
+    }
+
+    // Holds the tickets for the given time; returns null if the pool does not have enough tickets
+    public TicketHold hold(int count, long ttl, TimeUnit unit) {
+        if (!ticketPool.holdTickets(count)) {
+            return null;
+        }
+        SeatBlock seats = null;
+        if (ticketPool.hasSeatMap() && (seats = ticketPool.holdSeats(count)) == null) {
+            ticketPool.restoreHeldTickets(count, null); // No block of adjacent seats is free
+            return null;
+        }
+        TicketHold hold = new TicketHold(count, unit.toMillis(ttl), seats);
+        activeHolds.incrementAndGet();
+        try {
+            hold.setTimeout(timingWheel.newTimeout(() -> expire(hold), ttl, unit));
+
+        } catch (IllegalStateException e) {
+            // The timer stopped on shutdown, so nothing would ever end the hold; its tickets go back first
+            activeHolds.decrementAndGet();
+            ticketPool.restoreHeldTickets(count, seats);
+            throw e;
+        }
+        return hold;
+    }
+
+    // Sells the held tickets; returns false if the hold already ended
+    public boolean confirm(TicketHold hold) {
+        if (!hold.end(TicketHold.Status.CONFIRMED)) {
+            return false;
+        }
+        ticketPool.confirmHeldTickets(hold.getCount());
+        activeHolds.decrementAndGet();
+        confirmations.increment();
+        return true;
+    }
+
+    // Gives the held tickets back before the hold expires; returns false if the hold already ended
+    public boolean release(TicketHold hold) {
+        if (!hold.end(TicketHold.Status.RELEASED)) {
+            return false;
+        }
+        ticketPool.restoreHeldTickets(hold.getCount(), hold.getSeats());
+        activeHolds.decrementAndGet();
+        releases.increment();
+        return true;
+    }
+
+    // Returns the tickets of all active holds of every event and stops the timer
+    public static void shutdown() {
+        for (HashedTimingWheel.Timeout timeout : timingWheel.stop()) {
+            timeout.getTask().run();
+        }
+    }
+
+    // Called by the timing wheel when the hold time is over
+    private void expire(TicketHold hold) {
+        if (hold.end(TicketHold.Status.EXPIRED)) {
+            ticketPool.restoreHeldTickets(hold.getCount(), hold.getSeats());
+            activeHolds.decrementAndGet();
+            expirations.increment();
+        }
+    }
+
+    public int getActiveHolds() {
+        return activeHolds.get();
+    }
+
+    public long getConfirmations() {
+        return confirmations.sum();
+    }
+
+    public long getReleases() {
+        return releases.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+}
@@ -0,0 +1,314 @@
+package main.models;
+
+import main.util.journal.MappedJournal;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Durable history of the ticket counts of all events, in a memory-mapped {@link MappedJournal}.
+ * Every change of a pool's tickets or held tickets is appended as it happens, while the "events" table
+ * only gets the count written behind by the {@link TicketCountPersister}; the journal also records each
+ * value adopted from, and each value written to, the database.
+ * A periodic snapshot folds the complete part of the journal into the state of every event and writes it
+ * to one small file, then deletes the journal segments it covers. After a crash, opening the journal loads
+ * the snapshot and replays the records after it; a pool loaded afterwards adopts the recovered count
+ * (with the tickets that were on hold back in the pool) if its stored count is still the one the journal saw
+ * persisted last. A different stored count was written by another process, and the database wins.
+ * Events with seat sections keep using the stored count, because seats are not journaled.
+ */
+public class TicketJournal {
+    // Record types
+    private static final int SET = 1; // Count adopted from the database: key event, first total, second held tickets
+    private static final int CHANGE = 2; // Key event, first tickets delta, second held tickets delta
+    private static final int PERSISTED = 3; // Count stored in the database: key event, first total
+    private static final int CLOSED = 4; // Pool dropped from memory, its state is no longer needed
+
+    private static final int SNAPSHOT_MAGIC = 0x544A534E;
+    private static final String NAME = "ticket-journal";
+
+    private final MappedJournal journal; // Null when journaling is disabled
+    private final Path snapshotFile;
+    private final Map<Integer, EventState> folded = new HashMap<>(); // State up to position, guarded by this
+    private long position; // Journal index the folded state covers up to, guarded by this
+    private final Map<Integer, EventState> recovered = new ConcurrentHashMap<>(); // States from before the restart, taken once
+
+    // Metrics
+    private final LongAdder snapshots = new LongAdder();
+    private long recoveredRecords; // Records replayed after the snapshot when the journal was opened
+    private long recoveryMillis; // Time taken to load the snapshot and replay the journal
+
+    private TicketJournal(MappedJournal journal, Path snapshotFile) {
+        this.journal = journal;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Opens the journal in the directory and recovers the state it holds: the snapshot, then the records after it.
+     * The recovered counts are handed to the pools as they are loaded.
+     */
+    public static TicketJournal open(Path directory, int recordsPerSegment) {
+        try {
+            TicketJournal ticketJournal = new TicketJournal(new MappedJournal(directory, NAME, recordsPerSegment),
+                    directory.resolve(NAME + ".snapshot"));
+            ticketJournal.recover();
+            return ticketJournal;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the ticket journal in " + directory + ".", e);
+        }
+    }
+
+    // A journal that records nothing and recovers nothing
+    public static TicketJournal disabled() {
+        return new TicketJournal(null, null);
+    }
+
+    // Records a change of an event's tickets in the pool and tickets on hold
+    void recordChange(int eventId, int tickets, int held) {
+        if (journal != null) {
+            journal.append(CHANGE, eventId, tickets, held);
+        }
+    }
+
+    // Records a count the pool adopted from the database, with the tickets on hold at the time
+    void recordSet(int eventId, int total, int held) {
+        if (journal != null) {
+            journal.append(SET, eventId, total, held);
+        }
+    }
+
+    // Records a count that is stored in the database
+    void recordPersisted(int eventId, int total) {
+        if (journal != null) {
+            journal.append(PERSISTED, eventId, total, 0);
+        }
+    }
+
+    // Records that a pool was dropped from memory after writing its count
+    void recordClosed(int eventId) {
+        if (journal != null) {
+            journal.append(CLOSED, eventId, 0, 0);
+        }
+    }
+
+    /**
+     * Returns the count to start a pool with: the recovered count if the journal has one for the event and the
+     * stored count is the one it saw persisted last, otherwise the stored count. Used once per event.
+     */
+    int recoveredTotal(int eventId, int storedTotal, int maxCapacity) {
+        EventState state = recovered.remove(eventId);
+        if (state == null || state.persisted != storedTotal) {
+            return storedTotal;
+        }
+        return Math.max(0, Math.min(state.total + state.held, Math.max(maxCapacity, state.total)));
+    }
+
+    /**
+     * Folds the complete part of the journal into the event states, writes them as the new snapshot and
+     * deletes the journal segments it covers. Runs on the registry's thread, next to ticket operations.
+     */
+    public synchronized void snapshot() {
+        if (journal == null) {
+            return;
+        }
+        long end = journal.read(position, this::fold);
+        if (end == position && Files.exists(snapshotFile)) {
+            return;
+        }
+        try {
+            writeSnapshot(end);
+            position = end;
+            journal.deleteBefore(end);
+            snapshots.increment();
+
+        } catch (IOException e) {
+            position = end; // Folded already; the segments stay until a snapshot is written
+            System.out.println("Failed to write the ticket journal snapshot: " + e.getMessage());
+        }
+    }
+
+    // Makes the records appended so far survive a crash of the machine, not only of the process
+    public void force() {
+        if (journal != null) {
+            journal.force();
+        }
+    }
+
+    // Writes a final snapshot and unmaps the journal, after the pools wrote their counts
+    public void close() {
+        if (journal != null) {
+            snapshot();
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    // Records appended since the journal began
+    public long getRecords() {
+        return journal == null ? 0 : journal.getNextIndex();
+    }
+
+    // Records not yet covered by a snapshot
+    public synchronized long getTailRecords() {
+        return journal == null ? 0 : journal.getNextIndex() - position;
+    }
+
+    public int getSegmentCount() {
+        return journal == null ? 0 : journal.getSegmentCount();
+    }
+
+    public long getSnapshots() {
+        return snapshots.sum();
+    }
+
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    // Loads the snapshot, replays the journal after it and keeps the result for the pools
+    private synchronized void recover() throws IOException {
+        long start = System.nanoTime();
+        readSnapshot();
+        long[] replayed = new long[1];
+        position = journal.recover(position, (index, timestamp, type, eventId, first, second) -> {
+            replayed[0]++;
+            fold(index, timestamp, type, eventId, first, second);
+        });
+        recoveredRecords = replayed[0];
+        recovered.putAll(folded);
+        recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // Applies one record to the event states, called with the lock held
+    private void fold(long index, long timestamp, int type, int eventId, int first, int second) {
+        switch (type) {
+            case SET -> {
+                EventState state = folded.computeIfAbsent(eventId, id -> new EventState());
+                state.total = first;
+                state.held = second;
+            }
+            case CHANGE -> {
+                EventState state = folded.get(eventId);
+                if (state != null) { // A pool always records its loaded count first
+                    state.total += first;
+                    state.held += second;
+                }
+            }
+            case PERSISTED -> {
+                EventState state = folded.get(eventId);
+                if (state != null) {
+                    state.persisted = first;
+                }
+            }
+            case CLOSED -> folded.remove(eventId);
+            default -> {
+                // Unknown record, written by a newer version
+            }
+        }
+    }
+
+    /**
+     * Replaces the snapshot file as a whole, so a crash leaves either the old or the new one.
+     * The new file is on the storage device before it is renamed, and the rename before the segments it covers
+     * are deleted, so a crash of the machine cannot leave an empty snapshot in place of those segments.
+     */
+    private void writeSnapshot(long end) throws IOException {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream output = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)), checksum))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(end);
+            output.writeInt(folded.size());
+            for (Map.Entry<Integer, EventState> entry : folded.entrySet()) {
+                output.writeInt(entry.getKey());
+                output.writeInt(entry.getValue().total);
+                output.writeInt(entry.getValue().held);
+                output.writeInt(entry.getValue().persisted);
+            }
+            output.writeLong(checksum.getValue()); // Of everything before it
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(snapshotFile.getParent());
+    }
+
+    // Makes a rename in the directory durable; not every platform can open a directory, they skip it
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+
+        } catch (IOException e) {
+            // Directories cannot be synced here, e.g. on Windows
+        }
+    }
+
+    // Loads the snapshot if there is a valid one; otherwise the journal is replayed from its start
+    private void readSnapshot() throws IOException {
+        CRC32 checksum = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotFile)), checksum))) {
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a ticket journal snapshot");
+            }
+            long end = input.readLong();
+            int count = input.readInt();
+            Map<Integer, EventState> states = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                EventState state = new EventState();
+                int eventId = input.readInt();
+                state.total = input.readInt();
+                state.held = input.readInt();
+                state.persisted = input.readInt();
+                states.put(eventId, state);
+            }
+            long expected = checksum.getValue();
+            if (input.readLong() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            folded.putAll(states);
+            position = end;
+
+        } catch (NoSuchFileException e) {
+            // First start, nothing to load
+
+        } catch (IOException e) {
+            System.out.println("Ignoring the ticket journal snapshot: " + e.getMessage());
+        }
+    }
+
+    // Folded state of one event
+    private static final class EventState {
+        private int total; // Tickets in the pool
+        private int held; // Tickets on hold
+        private int persisted = -1; // Count last stored in the database, -1 if not known
+    }
+}
@@ -0,0 +1,51 @@
+package main.models;
+
+import main.util.concurrent.EventHandler;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline stage that counts releases and purchases.
+ */
+public class TicketMetricsEventHandler implements EventHandler<TicketEvent> {
+    private final LongAdder releases = new LongAdder(); // Release events
+    private final LongAdder purchases = new LongAdder(); // Purchase events
+    private final LongAdder ticketsReleased = new LongAdder(); // Tickets added by vendors
+    private final LongAdder ticketsSold = new LongAdder(); // Tickets bought by customers
+    private final LongAdder batches = new LongAdder(); // Batches handed to this stage
+
+    @Override
+    public void onEvent(TicketEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == TicketEvent.Type.RELEASE) {
+            releases.increment();
+            ticketsReleased.add(event.getQuantity());
+        } else {
+            purchases.increment();
+            ticketsSold.add(event.getQuantity());
+        }
+        if (endOfBatch) {
+            batches.increment();
+        }
+    }
+
+    public long getReleases() {
+        return releases.sum();
+    }
+
+    public long getPurchases() {
+        return purchases.sum();
+    }
+
+    public long getTicketsReleased() {
+        return ticketsReleased.sum();
+    }
+
+    public long getTicketsSold() {
+        return ticketsSold.sum();
+    }
+
+    // Average number of events the stage processed per batch
+    public double getAverageBatchSize() {
+        long batchCount = batches.sum();
+        return batchCount == 0 ? 0 : (double) (releases.sum() + purchases.sum()) / batchCount;
+    }
+}
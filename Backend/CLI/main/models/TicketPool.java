@@ -1,119 +1,382 @@
 package main.models;
 
-import main.dao.impl.SystemConfigDAOImpl;
+import main.dao.EventDAO;
+import main.dao.SeatSectionDAO;
 import java.sql.SQLException;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A Singleton class that represents the shared pool of tickets.
- * Ensures thread-safe operations for adding and removing tickets.
+ * The pool of tickets of one event, handed out by the {@link TicketPoolRegistry}.
+ * The in-memory counter is the source of truth and is updated with lock-free CAS operations,
+ * while the event's stored "total_tickets" value is written behind by a {@link TicketCountPersister}
+ * and every change is appended to the {@link TicketJournal} as it happens.
+ * The "ticket_pool_shards" setting selects a single counter (1), one shard per available
+ * processor (0) or a fixed number of shards.
+ * Tickets on hold during checkout are out of the pool but still count against the capacity.
+ * Customers can wait for a ticket; new tickets are handed to waiting customers first, in arrival order.
+ * Events with seat sections also assign seats: every purchase or hold claims a block of adjacent
+ * seats in the event's {@link SeatMap}, and vendors can only release tickets for free seats.
  */
 public class TicketPool {
-    private static int totalTickets; // Current number of tickets in the pool
-    private static int maxCapacity; // Maximum ticket capacity for the pool
-    private final ReentrantLock lock = new ReentrantLock(); // Lock for thread-safe operations
-    private static volatile TicketPool ticketPool; // Singleton instance
+    private final int eventId; // Event the tickets belong to
+    private final TicketCounter totalTickets; // Current number of tickets in the pool
+    private final AtomicInteger heldTickets = new AtomicInteger(); // Tickets taken out by active holds
+    private volatile int maxCapacity; // Maximum ticket capacity for the pool
+    private volatile long lastAccess = System.nanoTime(); // Last time the pool was handed out, for idle eviction
+    private final AtomicInteger pins = new AtomicInteger(); // Callers that keep the pool beyond one operation
+    private volatile boolean evicted; // Set by the registry while it drops the pool, and for good once dropped
+    private SeatMap seatMap; // Assigned seating, null for events without seat sections
 
-    // Data Access Object for interacting with system configurations
-    private static final SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
+    // Data Access Object for the event's inventory
+    private final EventDAO eventDAO;
 
-    // Private constructor to enforce Singleton pattern
-    private TicketPool() {}
+    // Background writer that coalesces ticket count changes into periodic database updates
+    private final TicketCountPersister persister;
+
+    // Journal of every count change, for recovery after a crash
+    private final TicketJournal journal;
+
+    // Two-phase checkout with timed holds
+    private final TicketHoldManager holds = new TicketHoldManager(this);
+
+    // Customers waiting for tickets to arrive
+    private final TicketWaiters waiters;
+
+    // Watermark state that pauses vendors of a full pool and sheds customers of an empty one
+    private final Backpressure backpressure = new Backpressure(this);
+
+    // Created by the registry when the event is first used
+    TicketPool(int eventId, TicketCounter totalTickets, EventDAO eventDAO, SeatSectionDAO seatSectionDAO,
+               TicketJournal journal) {
+        this.eventId = eventId;
+        this.totalTickets = totalTickets;
+        this.eventDAO = eventDAO;
+        this.journal = journal;
+        this.persister = new TicketCountPersister(this, eventDAO, seatSectionDAO, journal);
+        this.waiters = new TicketWaiters(totalTickets, tickets -> changed(tickets, 0));
+    }
+
+    // Creates the counter engine selected by the shard count setting
+    static TicketCounter createCounter(int shards) {
+        if (shards == 1) {
+            return new AtomicTicketCounter();
+        }
+        return new StripedTicketCounter(shards <= 0 ? Runtime.getRuntime().availableProcessors() : shards);
+    }
+
+    /**
+     * Initializes total tickets, maximum capacity and seating from the stored event, or with the count the
+     * journal recovered after a crash, which is then written back.
+     */
+    void load(Event event, SeatMap seatMap) {
+        this.seatMap = seatMap;
+        setMaxCapacity(event.getMaxCapacity());
+        int total = seatMap == null
+                ? journal.recoveredTotal(eventId, event.getTotalTickets(), event.getMaxCapacity())
+                : event.getTotalTickets();
+        setTotalTickets(total);
+        persister.markPersisted(event.getTotalTickets());
+        if (total != event.getTotalTickets()) {
+            persister.markDirty();
+        }
+    }
+
+    /**
+     * Creates a pool that is not registered and not backed by the database or the journal, for benchmarks.
+     * Its count is never written.
+     */
+    public static TicketPool detached(int eventId, TicketCounter counter, int maxCapacity) {
+        TicketPool pool = new TicketPool(eventId, counter, null, null, TicketJournal.disabled());
+        pool.setMaxCapacity(maxCapacity);
+        return pool;
+    }
 
     /**
-    * Provides the Singleton instance of the TicketPool.
-    * Uses double-checked locking for thread-safe and efficient initialization.
+    * Provides the pool of the default event.
+    * Kept for the single-event callers; other events are reached through {@link TicketPoolRegistry}.
     */
     public static TicketPool getInstance() {
-        if (ticketPool == null) {
-            synchronized (TicketPool.class) {
-                if (ticketPool == null) {
-                    ticketPool = new TicketPool();
-                    try {
-                        // Initialize total tickets and maximum capacity from the database
-                        ticketPool.setMaxCapacity(configDAO.findConfigValue("max_ticket_capacity"));
-                        ticketPool.setTotalTickets(configDAO.findConfigValue("total_tickets"));
-
-                    } catch (SQLException e) {
-                        throw new RuntimeException("Failed to initialize ticket pool from database.", e);
-                    }
-                }
-            }
-        }
-        return ticketPool;
+        return TicketPoolRegistry.getInstance().getPool(Event.DEFAULT_EVENT_ID);
     }
 
     // Adds tickets to the pool if the total count does not exceed the maximum capacity
     public boolean addTickets(int count) {
-        lock.lock(); // Acquire lock for thread safety
-        try {
-            if (totalTickets + count <= maxCapacity) {
-                configDAO.updateConfigValue("total_tickets", totalTickets + count); // Update database
-                totalTickets += count;
-                return true;
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating total tickets in database.", e);
-
-        } finally {
-            lock.unlock(); // Release lock
+        if (totalTickets.tryAdd(count, availableCapacity())) {
+            changed(count, 0);
+            waiters.handOff();
+            return true;
         }
         return false;
     }
 
+    // Adds as many of the tickets as fit within the maximum capacity and returns how many were added
+    public int addTicketsUpTo(int count) {
+        int added = totalTickets.addUpTo(count, availableCapacity());
+        if (added > 0) {
+            changed(added, 0);
+            waiters.handOff();
+        }
+        return added;
+    }
+
     // Removes ticket from the pool if there are tickets available
     public boolean removeTicket() {
-        lock.lock();
-        try {
-            if (totalTickets > 0) {
-                configDAO.updateConfigValue("total_tickets", totalTickets -= 1);
-                totalTickets -= 1;
-                return true;
-            }
+        return tryReserve(1);
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating ticket count in database.", e);
+    // Removes all requested tickets in one step, or none if not enough are available
+    public boolean tryReserve(int count) {
+        if (totalTickets.tryRemove(count)) {
+            changed(-count, 0);
+            return true;
+        }
+        return false;
+    }
+
+    // Removes up to the requested number of tickets and returns how many were removed
+    public int reserveUpTo(int count) {
+        int reserved = totalTickets.removeUpTo(count);
+        if (reserved > 0) {
+            changed(-reserved, 0);
+        }
+        return reserved;
+    }
+
+    /**
+     * Removes the tickets and assigns them the best block of adjacent seats.
+     * Returns null, and leaves the pool unchanged, if there are not enough tickets or no block of
+     * that size is free.
+     */
+    public SeatBlock reserveSeats(int count) {
+        if (!tryReserve(count)) {
+            return null;
+        }
+        SeatBlock seats = seatMap.allocate(count);
+        if (seats == null) {
+            returnTickets(count);
+            return null;
+        }
+        persister.markDirty();
+        return seats;
+    }
 
-        } finally {
-            lock.unlock();
+    /**
+     * Waits up to the given time for a ticket and returns null if none arrived.
+     * Served immediately when nobody is queued and the pool has a ticket.
+     */
+    public Ticket awaitTicket(long timeout, TimeUnit unit) throws InterruptedException {
+        if (waiters.getWaiting() == 0 && tryReserve(1)) {
+            return new Ticket();
         }
+        return waiters.await(unit.toNanos(timeout));
+    }
+
+    // Returns a future that completes with a ticket once one is available; cancelling it leaves the queue
+    public CompletableFuture<Ticket> reserveAsync() {
+        if (waiters.getWaiting() == 0 && tryReserve(1)) {
+            return CompletableFuture.completedFuture(new Ticket());
+        }
+        return waiters.enqueue();
+    }
+
+    // Returns the number of customers waiting for a ticket
+    public int getWaitingCustomers() {
+        return waiters.getWaiting();
+    }
+
+    /**
+     * Takes tickets out of the pool for a hold.
+     * The held count is raised before the tickets leave the pool, so vendors never see room
+     * that is still taken by the hold.
+     */
+    boolean holdTickets(int count) {
+        heldTickets.addAndGet(count);
+        if (totalTickets.tryRemove(count)) {
+            changed(-count, count);
+            return true;
+        }
+        heldTickets.addAndGet(-count);
         return false;
     }
+
+    // Assigns seats to a hold that already took its tickets; null if no block is free
+    SeatBlock holdSeats(int count) {
+        SeatBlock seats = seatMap.allocate(count);
+        if (seats != null) {
+            persister.markDirty();
+        }
+        return seats;
+    }
+
+    // Marks held tickets as sold
+    void confirmHeldTickets(int count) {
+        heldTickets.addAndGet(-count);
+        journal.recordChange(eventId, 0, -count);
+    }
+
+    /**
+     * Puts the tickets of an ended hold back into the pool.
+     * Their room was reserved the whole time, so they are added without a capacity check
+     * and only then removed from the held count.
+     */
+    void restoreHeldTickets(int count, SeatBlock seats) {
+        if (seats != null) {
+            seatMap.release(seats);
+        }
+        totalTickets.tryAdd(count, Integer.MAX_VALUE);
+        heldTickets.addAndGet(-count);
+        changed(count, -count);
+        waiters.handOff();
+    }
+
+    // Returns the current number of tickets held in memory, aggregated over all shards
+    public int getTotalTickets() {
+        return totalTickets.sum();
+    }
+
+    // Returns the number of tickets currently on hold
+    public int getHeldTickets() {
+        return heldTickets.get();
+    }
+
+    // Returns the backpressure state of the pool
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    // Returns the hold manager for two-phase checkout
+    public TicketHoldManager getHolds() {
+        return holds;
+    }
+
+    // Returns the current maximum capacity of the pool
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    // Whether the event assigns seats
+    public boolean hasSeatMap() {
+        return seatMap != null;
+    }
+
+    // Returns the assigned seating of the event, null for events without seat sections
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    // Returns the ID of the event the pool belongs to
+    public int getEventId() {
+        return eventId;
+    }
+
     // Reloads and updates the maximum capacity from the database
     public void reloadSetMaxCapacity() {
         try {
-            ticketPool.setMaxCapacity(configDAO.findConfigValue("max_ticket_capacity"));
+            setMaxCapacity(eventDAO.findMaxCapacity(eventId));
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to reload max capacity in ticket pool.", e);
         }
     }
-    // Reloads and updates the total tickets count from the database
+
+    /**
+     * Reloads the total tickets count from the database after it was changed deliberately (e.g. by an
+     * administrator). The change is added to the in-memory counter, so sales that were not written yet are kept.
+     */
     public void reloadSetTotalTickets() {
         try {
-            ticketPool.setTotalTickets(configDAO.findConfigValue("total_tickets"));
+            persister.reconcile(eventDAO.findTotalTickets(eventId));
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to reload total ticket in ticket pool.", e);
         }
     }
+
+    // Writes any pending ticket count change; called by the registry when the pool is evicted or on shutdown
+    void close() {
+        persister.close();
+        journal.recordClosed(eventId);
+    }
+
+    // Records that the pool was handed out
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    // Keeps the pool in memory until unpin, for callers that use it longer than one operation
+    void pin() {
+        pins.incrementAndGet();
+    }
+
+    void unpin() {
+        pins.decrementAndGet();
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void setEvicted(boolean evicted) {
+        this.evicted = evicted;
+    }
+
+    // Whether the pool can be dropped from memory without losing holds, waiting customers or pinned users
+    boolean isIdle() {
+        return pins.get() == 0 && holds.getActiveHolds() == 0 && heldTickets.get() == 0 && waiters.getWaiting() == 0;
+    }
+
+    TicketCountPersister getPersister() {
+        return persister;
+    }
+
+    // Capacity left for vendors once the held tickets, and for seated events the taken seats, are accounted for
+    private int availableCapacity() {
+        int capacity = maxCapacity - heldTickets.get();
+        return seatMap == null ? capacity : Math.min(capacity, seatMap.getFreeSeats());
+    }
+
+    // Journals a change of the tickets in the pool and on hold, and queues the count for the write-behind
+    private void changed(int tickets, int held) {
+        journal.recordChange(eventId, tickets, held);
+        persister.markDirty();
+    }
+
+    // Puts back tickets that were removed for a purchase that could not be seated
+    private void returnTickets(int count) {
+        totalTickets.tryAdd(count, Integer.MAX_VALUE);
+        changed(count, 0);
+        waiters.handOff();
+    }
+
     // Sets the maximum capacity of the ticket pool
-    private void setMaxCapacity(int maxCapacity) {
-        lock.lock();
-        try {
-            TicketPool.maxCapacity = maxCapacity;
-        } finally {
-            lock.unlock();
+    void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Adds a change made by another process to the tickets in the pool, atomically with concurrent sales.
+     * A decrease larger than the tickets left empties the pool.
+     */
+    void adjustTotalTickets(int delta) {
+        int applied = delta >= 0
+                ? (totalTickets.tryAdd(delta, Integer.MAX_VALUE) ? delta : 0)
+                : -totalTickets.removeUpTo(-delta);
+        if (applied != 0) {
+            journal.recordChange(eventId, applied, 0);
+            waiters.handOff();
         }
     }
+
     // Sets the total tickets in the pool
-    private void setTotalTickets(int totalTickets) {
-        lock.lock();
-        try {
-            TicketPool.totalTickets = totalTickets;
-        } finally {
-            lock.unlock();
-        }
+    void setTotalTickets(int totalTickets) {
+        this.totalTickets.reset(totalTickets);
+        journal.recordSet(eventId, totalTickets, heldTickets.get());
+        waiters.handOff();
     }
 }
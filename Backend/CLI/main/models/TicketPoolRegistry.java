@@ -0,0 +1,339 @@
+package main.models;
+
+import main.dao.EventDAO;
+import main.dao.SeatSectionDAO;
+import main.dao.impl.EventDAOImpl;
+import main.dao.impl.SeatSectionDAOImpl;
+import main.dao.impl.SystemConfigDAOImpl;
+import main.util.ConfigChangeBus;
+import main.util.ConfigChangeListener;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton registry of the ticket pools of all events, keyed by event ID.
+ * Every event has its own counter, capacity, holds and waiting customers, so events never
+ * contend with each other. A pool is loaded from the "events" table the first time it is used
+ * and dropped again after "event_idle_evict_sec" without use, or least recently used first once more
+ * than "max_resident_events" pools are in memory. Pools with holds, waiting customers or pinned users are
+ * kept, and a pool is never handed out while it is being evicted.
+ * One background thread writes the changed ticket counts of all events and picks up counts,
+ * capacities and configuration changed by other processes, so ticket operations never read them
+ * from the database. Changes announced on the {@link ConfigChangeBus} are picked up right away;
+ * the periodic "data_version" check covers writers that do not announce them.
+ * The same thread syncs and snapshots the {@link TicketJournal}, which pools loaded after a crash recover from.
+ */
+public class TicketPoolRegistry {
+    private static final long FLUSH_INTERVAL_MS = 200; // Delay between two write-behind flushes
+    private static final long MAINTENANCE_INTERVAL_SEC = 5; // Delay between two reconcile and eviction passes
+    private static final long CHANGE_CHECK_INTERVAL_MS = 250; // Delay between two checks for changes by other processes
+    private static final long EVICT_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1); // Pools used this recently are never evicted
+    private static final Path JOURNAL_DIRECTORY = Path.of("../ticket_journal"); // Next to the database file
+
+    private static volatile TicketPoolRegistry registry; // Singleton instance
+
+    private final Map<Integer, TicketPool> pools = new ConcurrentHashMap<>(); // Resident pools by event ID
+    private final EventDAO eventDAO;
+    private final SeatSectionDAO seatSectionDAO;
+    private final TicketJournal journal;
+    private final int shards; // Counter shards per pool
+    private final long idleEvictNanos; // Idle time after which a pool is evicted
+    private final int maxResidentEvents; // Upper bound on pools kept in memory
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    // Metrics
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Single daemon thread, so a pending flush never keeps the JVM alive
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-pool-registry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TicketPoolRegistry(EventDAO eventDAO, SeatSectionDAO seatSectionDAO, TicketJournal journal, int shards,
+                               int idleEvictSec, int maxResidentEvents, int journalSyncMs, int journalSnapshotSec) {
+        this.eventDAO = eventDAO;
+        this.seatSectionDAO = seatSectionDAO;
+        this.journal = journal;
+        this.shards = shards;
+        this.idleEvictNanos = TimeUnit.SECONDS.toNanos(Math.max(1, idleEvictSec));
+        this.maxResidentEvents = Math.max(1, maxResidentEvents);
+
+        executorService.scheduleWithFixedDelay(TicketCountPersister::flushDirty,
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        executorService.scheduleWithFixedDelay(this::maintain,
+                MAINTENANCE_INTERVAL_SEC, MAINTENANCE_INTERVAL_SEC, TimeUnit.SECONDS);
+        executorService.scheduleWithFixedDelay(this::checkExternalChanges,
+                CHANGE_CHECK_INTERVAL_MS, CHANGE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (journal.isEnabled()) {
+            long syncMs = Math.max(1, journalSyncMs);
+            long snapshotSec = Math.max(1, journalSnapshotSec);
+            executorService.scheduleWithFixedDelay(journal::force, syncMs, syncMs, TimeUnit.MILLISECONDS);
+            executorService.scheduleWithFixedDelay(journal::snapshot, snapshotSec, snapshotSec, TimeUnit.SECONDS);
+        }
+        ConfigChangeBus.subscribe(new ConfigChangeListener() {
+            @Override
+            public void databaseChanged() {
+                if (!stopped.get()) {
+                    executorService.execute(TicketPoolRegistry.this::refreshExternalChanges);
+                }
+            }
+        });
+    }
+
+    /**
+     * Provides the Singleton instance of the registry.
+     * Uses double-checked locking for thread-safe and efficient initialization.
+     */
+    public static TicketPoolRegistry getInstance() {
+        if (registry == null) {
+            synchronized (TicketPoolRegistry.class) {
+                if (registry == null) {
+                    try {
+                        SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
+                        TicketJournal journal = configDAO.findConfigValue("journal_enabled") == 1
+                                ? TicketJournal.open(JOURNAL_DIRECTORY, configDAO.findConfigValue("journal_segment_records"))
+                                : TicketJournal.disabled();
+                        registry = new TicketPoolRegistry(new EventDAOImpl(), new SeatSectionDAOImpl(), journal,
+                                configDAO.findConfigValue("ticket_pool_shards"),
+                                configDAO.findConfigValue("event_idle_evict_sec"),
+                                configDAO.findConfigValue("max_resident_events"),
+                                configDAO.findConfigValue("journal_sync_ms"),
+                                configDAO.findConfigValue("journal_snapshot_sec"));
+
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to initialize ticket pool registry from database.", e);
+                    }
+                }
+            }
+        }
+        return registry;
+    }
+
+    // Returns the pool of an event, loading it from the database on first use
+    public TicketPool getPool(int eventId) {
+        return acquire(eventId, false);
+    }
+
+    /**
+     * Returns the pool of an event and keeps it in memory until {@link TicketPool#unpin()}, for callers
+     * that hold on to it longer than one operation, like a customer during checkout.
+     */
+    TicketPool pinPool(int eventId) {
+        return acquire(eventId, true);
+    }
+
+    // Returns the pool of an event if it is in memory, without loading it
+    public TicketPool getLoadedPool(int eventId) {
+        return pools.get(eventId);
+    }
+
+    // Number of pools currently in memory
+    public int getResidentEvents() {
+        return pools.size();
+    }
+
+    // Pools currently in memory, for status displays
+    public Collection<TicketPool> getResidentPools() {
+        return pools.values();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public TicketJournal getJournal() {
+        return journal;
+    }
+
+    // Returns held tickets to their pools, writes every pending ticket count, closes the journal and stops the background thread
+    public void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        TicketHoldManager.shutdown();
+        TicketCountPersister.flushDirty();
+        for (TicketPool pool : pools.values()) {
+            pool.close();
+        }
+        journal.close();
+    }
+
+    /**
+     * Hands out the resident pool, never one that is being evicted.
+     * The use is recorded before the evicted flag is read, while an eviction sets the flag before it reads
+     * the pins and the access time, so either the eviction sees this use or this use sees the eviction and
+     * waits for it to finish before it looks again.
+     */
+    private TicketPool acquire(int eventId, boolean pin) {
+        while (true) {
+            TicketPool pool = pools.get(eventId);
+            if (pool == null) {
+                pool = pools.computeIfAbsent(eventId, this::load);
+            }
+            if (pin) {
+                pool.pin();
+            }
+            pool.touch();
+            if (!pool.isEvicted()) {
+                return pool;
+            }
+            if (pin) {
+                pool.unpin();
+            }
+            pools.compute(eventId, (id, current) -> current != null ? current : load(id));
+        }
+    }
+
+    // Runs inside computeIfAbsent, so concurrent first users of an event share one pool
+    private TicketPool load(int eventId) {
+        Event event = eventDAO.getEvent(eventId);
+        if (event == null) {
+            throw new IllegalArgumentException("No event found with ID " + eventId + ".");
+        }
+        TicketPool pool = new TicketPool(eventId, TicketPool.createCounter(shards), eventDAO, seatSectionDAO, journal);
+        try {
+            List<SeatSection> sections = seatSectionDAO.getSections(eventId);
+            pool.load(event, sections.isEmpty() ? null : new SeatMap(sections));
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load the seat sections of event " + eventId + ".", e);
+        }
+        loads.increment();
+        return pool;
+    }
+
+    private void maintain() {
+        try {
+            reconcile();
+            evict();
+
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Failed to maintain ticket pools: " + e.getMessage());
+        }
+    }
+
+    // Reloads the configuration snapshot when another process committed; costs one PRAGMA query otherwise
+    private void checkExternalChanges() {
+        try {
+            SystemConfigDAOImpl.refreshIfChanged();
+
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Failed to check external changes: " + e.getMessage());
+        }
+    }
+
+    // Adopts the counts and capacities of the resident events after another process committed
+    private void refreshExternalChanges() {
+        try {
+            if (!pools.isEmpty()) {
+                reconcile();
+                Map<Integer, Integer> capacities = eventDAO.findAllMaxCapacities();
+                for (TicketPool pool : pools.values()) {
+                    Integer capacity = capacities.get(pool.getEventId());
+                    if (capacity != null) {
+                        pool.setMaxCapacity(capacity);
+                    }
+                }
+            }
+
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Failed to refresh external changes: " + e.getMessage());
+        }
+    }
+
+    // Adopts ticket counts changed by other processes, one query for all resident events
+    private void reconcile() throws SQLException {
+        if (pools.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> stored = eventDAO.findAllTotalTickets();
+        for (TicketPool pool : pools.values()) {
+            Integer total = stored.get(pool.getEventId());
+            if (total != null) {
+                pool.getPersister().reconcile(total);
+            }
+        }
+    }
+
+    // Drops idle pools, and the least recently used ones while over the resident limit
+    private void evict() {
+        long now = System.nanoTime();
+        List<Candidate> candidates = new ArrayList<>(pools.size());
+        for (TicketPool pool : pools.values()) {
+            long lastAccess = pool.getLastAccess();
+            if (now - lastAccess >= idleEvictNanos) {
+                evict(pool, lastAccess);
+            } else if (now - lastAccess >= EVICT_GRACE_NANOS) {
+                candidates.add(new Candidate(pool, lastAccess));
+            }
+        }
+
+        int excess = pools.size() - maxResidentEvents;
+        if (excess > 0) {
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            for (Candidate candidate : candidates) {
+                if (excess <= 0) {
+                    break;
+                }
+                if (evict(candidate.pool(), candidate.lastAccess())) {
+                    excess--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a pool after writing its count, unless it was used since lastAccess was read.
+     * The flush runs inside computeIfPresent, so a concurrent getPool for the same event waits
+     * and then loads the value just written instead of a stale one.
+     */
+    private boolean evict(TicketPool pool, long lastAccess) {
+        boolean[] evicted = new boolean[1];
+        pools.computeIfPresent(pool.getEventId(), (eventId, current) -> {
+            if (current != pool || !current.isIdle()) {
+                return current;
+            }
+            // Flag first, then look for users that came in meanwhile (see acquire)
+            current.setEvicted(true);
+            if (!current.isIdle() || current.getLastAccess() != lastAccess) {
+                current.setEvicted(false);
+                return current;
+            }
+            current.close();
+            evicted[0] = true;
+            return null;
+        });
+        if (evicted[0]) {
+            evictions.increment();
+        }
+        return evicted[0];
+    }
+
+    // Pool picked for eviction, with the access time it was picked by
+    private record Candidate(TicketPool pool, long lastAccess) {}
+}
@@ -0,0 +1,135 @@
+package main.models;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * FIFO queue of customers waiting for a ticket while the pool is empty.
+ * Whoever adds tickets to the pool calls {@link #handOff()}, which moves tickets straight to the
+ * waiters in arrival order, so a parked customer is served by the vendor's own release call.
+ * Waiters register and re-check the pool under the same lock, and the waiting count is raised
+ * before that re-check, so a release can never slip past a customer that is about to park.
+ */
+public class TicketWaiters {
+    private final TicketCounter counter; // Counter of the pool the tickets are taken from
+    private final IntConsumer onChange; // Called with the change of the pool's count whenever waiters take or give back tickets
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ticketHandedOff = lock.newCondition(); // Signalled when a waiter got its ticket
+    private final ArrayDeque<CompletableFuture<Ticket>> queue = new ArrayDeque<>(); // Waiters in arrival order, guarded by lock
+    private final AtomicInteger waiting = new AtomicInteger(); // Lock-free view of the queue length
+
+    public TicketWaiters(TicketCounter counter, IntConsumer onChange) {
+        this.counter = counter;
+        this.onChange = onChange;
+    }
+
+    // Registers an asynchronous waiter; the future completes once a ticket is handed to it
+    public CompletableFuture<Ticket> enqueue() {
+        lock.lock();
+        try {
+            CompletableFuture<Ticket> waiter = new CompletableFuture<>();
+            queue.add(waiter);
+            waiting.incrementAndGet();
+            drain();
+            return waiter;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Parks the caller until a ticket is handed to it or the timeout runs out; returns null on timeout
+    public Ticket await(long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        CompletableFuture<Ticket> waiter = enqueue();
+        try {
+            long nanos = timeoutNanos;
+            while (!waiter.isDone()) {
+                if (nanos <= 0) {
+                    leave(waiter);
+                    return null;
+                }
+                nanos = ticketHandedOff.awaitNanos(nanos);
+            }
+            return waiter.join();
+
+        } catch (InterruptedException e) {
+            if (!waiter.isDone()) {
+                leave(waiter);
+
+            } else {
+                giveBack(); // The ticket arrived together with the interrupt
+                onChange.accept(1);
+                drain(); // The next waiter gets it, instead of waiting for an unrelated release
+            }
+            throw e;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hands available tickets to waiting customers; cheap no-op while nobody waits
+    public void handOff() {
+        if (waiting.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            drain();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of customers currently waiting
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    // Serves waiters from the head of the queue while the pool has tickets, must hold lock
+    private void drain() {
+        int handedOff = 0;
+        while (!queue.isEmpty()) {
+            CompletableFuture<Ticket> head = queue.peek();
+            if (head.isDone()) { // Cancelled by its owner
+                queue.poll();
+                waiting.decrementAndGet();
+                continue;
+            }
+            if (!counter.tryRemove(1)) {
+                break;
+            }
+            queue.poll();
+            waiting.decrementAndGet();
+            if (head.complete(new Ticket())) {
+                handedOff++;
+
+            } else {
+                giveBack(); // Cancelled between the check and the hand-off
+            }
+        }
+        if (handedOff > 0) {
+            onChange.accept(-handedOff);
+            ticketHandedOff.signalAll();
+        }
+    }
+
+    // Removes a waiter that gave up, must hold lock
+    private void leave(CompletableFuture<Ticket> waiter) {
+        if (queue.remove(waiter)) {
+            waiting.decrementAndGet();
+        }
+        waiter.cancel(false);
+    }
+
+    // Returns a ticket that was just taken for a waiter; its room in the pool is still free
+    private void giveBack() {
+        counter.tryAdd(1, Integer.MAX_VALUE);
+    }
+}
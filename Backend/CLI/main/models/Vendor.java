@@ -1,82 +1,45 @@
 package main.models;
 
-import main.dao.impl.SalesLogDAOImpl;
-import main.dao.impl.SystemConfigDAOImpl;
-import java.sql.SQLException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 /**
- * Represents a Vendor responsible for periodically adding tickets to the ticket pool.
- * Implements Runnable to facilitate scheduling periodic tasks.
+ * Represents a Vendor responsible for periodically adding tickets to the ticket pool of its event.
+ * The releases themselves are scheduled and run by the {@link VendorReleaseScheduler}.
  */
-public class Vendor implements Runnable {
+public class Vendor {
     private int id; // Unique ID of the vendor
     private String vendorName; // Name of the vendor
     private int ticketsPerRelease; // Number of tickets released per cycle
-    private int releaseRateSec; // Time interval (in seconds) between ticket releases
-    private TicketPool ticketPool; // Reference to the shared ticket pool
-    private final SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();  // DAO for fetching system configurations
-
-    /**
-     * The task executed periodically by the ScheduledExecutorService.
-     * Adds tickets to the ticket pool if the system is active.
-     */
-    @Override
-    public void run() {
-        try {
-            if (configDAO.findConfigValue("system_status") == 1) {
-                checkVendorDetails(); // Check vendor details and update settings
-
-                ticketPool.reloadSetMaxCapacity();
-                ticketPool.reloadSetTotalTickets();
-                // Add tickets to the pool and log the action
-                if (TicketPool.getInstance().addTickets(ticketsPerRelease)) {
-                    new SalesLogDAOImpl().addLog("Add " + ticketsPerRelease +
-                            " tickets into ticket pool [ID - " + id + "] Vendor " + vendorName);
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    // Starts the vendor's ticket release process at fixed intervals
-    public void start(ScheduledExecutorService executorService, TicketPool ticketPool) throws SQLException {
-        checkVendorDetails(); // Ensure vendor details are properly set
-        this.ticketPool = ticketPool;
-        executorService.scheduleAtFixedRate(this, 0, releaseRateSec, TimeUnit.SECONDS);
-    }
-
-    /**
-    * Validates and updates vendor details.
-    * Ensures all vendor attributes are properly set and updates release rate if needed.
-    */
-    private void checkVendorDetails() throws SQLException {
-        if (id == 0 || vendorName == null || ticketsPerRelease == 0 || releaseRateSec == 0) {
-            throw new IllegalStateException("Before start or run vendor, setup vendor details");
-        }
-        setReleaseRateSec(Math.max(configDAO.findConfigValue("ticket_release_rate"), releaseRateSec));
-    }
+    private int releaseIntervalMicros; // Time interval (in microseconds) between ticket releases
+    private int eventId = Event.DEFAULT_EVENT_ID; // Event the vendor releases tickets for
 
     // Nun argument constructor
     public Vendor() {
     }
 
     // Constructor with all fields
-    public Vendor(int id, String vendorName, int ticketsPerRelease, int releaseRateSec) {
+    public Vendor(int id, String vendorName, int ticketsPerRelease, int releaseIntervalMicros) {
         this.id = id;
         this.vendorName = vendorName;
         this.ticketsPerRelease = ticketsPerRelease;
-        this.releaseRateSec = releaseRateSec;
+        this.releaseIntervalMicros = releaseIntervalMicros;
+    }
+
+    // Constructor with all fields and the target event
+    public Vendor(int id, String vendorName, int ticketsPerRelease, int releaseIntervalMicros, int eventId) {
+        this(id, vendorName, ticketsPerRelease, releaseIntervalMicros);
+        this.eventId = eventId;
     }
 
     // Constructor without ID (for new vendors)
-    public Vendor(String vendorName, int ticketsPerRelease, int releaseRateSec) {
+    public Vendor(String vendorName, int ticketsPerRelease, int releaseIntervalMicros) {
         this.vendorName = vendorName;
         this.ticketsPerRelease = ticketsPerRelease;
-        this.releaseRateSec = releaseRateSec;
+        this.releaseIntervalMicros = releaseIntervalMicros;
+    }
+
+    // Constructor without ID (for new vendors of a specific event)
+    public Vendor(String vendorName, int ticketsPerRelease, int releaseIntervalMicros, int eventId) {
+        this(vendorName, ticketsPerRelease, releaseIntervalMicros);
+        this.eventId = eventId;
     }
 
     // Getter and setter methods for vendor attribute
@@ -104,11 +67,19 @@ public class Vendor implements Runnable {
         this.ticketsPerRelease = ticketsPerRelease;
     }
 
-    public int getReleaseRateSec() {
-        return releaseRateSec;
+    public int getReleaseIntervalMicros() {
+        return releaseIntervalMicros;
+    }
+
+    public void setReleaseIntervalMicros(int releaseIntervalMicros) {
+        this.releaseIntervalMicros = releaseIntervalMicros;
+    }
+
+    public int getEventId() {
+        return eventId;
     }
 
-    public void setReleaseRateSec(int releaseRateSec) {
-        this.releaseRateSec = releaseRateSec;
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
     }
 }
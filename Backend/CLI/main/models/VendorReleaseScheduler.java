@@ -0,0 +1,401 @@
+package main.models;
+
+import main.dao.SystemConfigDAO;
+import main.util.concurrent.ExecutionEngine;
+import main.util.concurrent.HashedTimingWheel;
+import main.util.concurrent.TokenBucket;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schedules the periodic ticket releases of all vendors on one timing wheel.
+ * Vendors that come due in the same tick are collected and released as one batch: one
+ * "system_status" check, one addTicketsUpTo per event, and one ring buffer
+ * claim for the log events, so the cost of a tick grows with the number of events rather than
+ * the number of vendors. Releases keep a fixed rate measured from the first release; missed
+ * periods are skipped instead of released in a burst. A vendor whose interval is shorter than a
+ * tick comes due several times per tick and releases those periods together. Schedule lag is the
+ * time between a release's due time and the moment its batch ran.
+ * Token buckets, one per vendor and one for all vendors, cap the tickets released per second;
+ * tickets over the limit are not released. When the shared limit or the pool's room cuts an event's batch, the
+ * released tickets are shared among its vendors in proportion to what each was granted, and every vendor gets
+ * the permits of its unreleased tickets back, as does the shared limit.
+ * Events whose pool is at its pause watermark are skipped (see {@link Backpressure}).
+ * The scheduled vendors are a registry keyed by vendor ID: a changed vendor or a changed minimum
+ * interval only reschedules the vendors whose settings actually differ, and the others keep their phase.
+ */
+public class VendorReleaseScheduler {
+    private static final long TICK_MILLIS = 100; // Release precision, shorter intervals are released per tick
+    private static final int TICKS_PER_WHEEL = 1024; // One turn of the wheel covers about 102 seconds
+
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel("vendor-release-timer",
+            TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+    private final ExecutionEngine engine; // Runs the release batches
+    private final SystemConfigDAO configDAO;
+    private final Map<Integer, Schedule> schedules = new ConcurrentHashMap<>(); // Scheduled vendors by vendor ID
+    private final TokenBucket releaseLimiter = new TokenBucket(0, 0); // Tickets per second over all vendors
+    private volatile long vendorTicketsPerSec; // Limit of every vendor, 0 = unlimited
+    private volatile int vendorTicketBurst;
+    private volatile int minReleaseIntervalMicros; // Floor of every vendor's interval
+    private List<Due> due = new ArrayList<>(); // Releases collected during the current tick, only touched by the timer
+
+    // Metrics
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder lagNanos = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final LongAdder reschedules = new LongAdder();
+
+    public VendorReleaseScheduler(ExecutionEngine engine, SystemConfigDAO configDAO) {
+        this.engine = engine;
+        this.configDAO = configDAO;
+        timingWheel.setTickListener(this::dispatch);
+    }
+
+    /**
+     * Schedules a vendor's releases, the first one right away, replacing any earlier schedule.
+     * The period is the vendor's release interval, but never shorter than the minimum release interval.
+     */
+    public void schedule(Vendor vendor) {
+        if (vendor.getId() == 0 || vendor.getVendorName() == null
+                || vendor.getTicketsPerRelease() == 0 || vendor.getReleaseIntervalMicros() <= 0) {
+            throw new IllegalStateException("Before start or run vendor, setup vendor details");
+        }
+        Schedule schedule = new Schedule(vendor, periodNanos(vendor));
+        Schedule previous = schedules.put(vendor.getId(), schedule);
+        if (previous != null) {
+            previous.cancel();
+            reschedules.increment();
+        }
+        schedule.start();
+    }
+
+    // Schedules a vendor unless it is already scheduled with the same settings; returns true if it was (re)scheduled
+    public boolean update(Vendor vendor) {
+        Schedule current = schedules.get(vendor.getId());
+        if (current != null && current.matches(vendor, periodNanos(vendor))) {
+            return false;
+        }
+        schedule(vendor);
+        return true;
+    }
+
+    /**
+     * Brings the schedules in line with the vendors table: new and changed vendors are (re)scheduled,
+     * vendors that are gone are cancelled, unchanged vendors are left running.
+     * Returns the number of vendors that were scheduled, rescheduled or cancelled.
+     */
+    public int sync(Collection<Vendor> vendors) {
+        int changed = 0;
+        Set<Integer> present = new HashSet<>();
+        for (Vendor vendor : vendors) {
+            present.add(vendor.getId());
+            if (update(vendor)) {
+                changed++;
+            }
+        }
+        for (Integer vendorId : schedules.keySet()) {
+            if (!present.contains(vendorId)) {
+                cancel(vendorId);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Changes the floor of every vendor's release interval; only vendors whose period changes are rescheduled.
+     * Returns the number of rescheduled vendors.
+     */
+    public int setMinReleaseInterval(int minReleaseIntervalMicros) {
+        if (this.minReleaseIntervalMicros == minReleaseIntervalMicros) {
+            return 0;
+        }
+        this.minReleaseIntervalMicros = minReleaseIntervalMicros;
+        int changed = 0;
+        for (Schedule schedule : schedules.values()) {
+            if (update(schedule.vendor)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Changes the release limits at runtime, in tickets per second with their bursts (0 = unlimited).
+     * The vendor limit applies to every vendor on its own, the release limit to all vendors together.
+     */
+    public void setLimits(long vendorTicketsPerSec, int vendorTicketBurst, long releaseTicketsPerSec, int releaseTicketBurst) {
+        releaseLimiter.setRate(releaseTicketsPerSec, releaseTicketBurst);
+        if (this.vendorTicketsPerSec != vendorTicketsPerSec || this.vendorTicketBurst != vendorTicketBurst) {
+            this.vendorTicketsPerSec = vendorTicketsPerSec;
+            this.vendorTicketBurst = vendorTicketBurst;
+            for (Schedule schedule : schedules.values()) {
+                schedule.limiter.setRate(vendorTicketsPerSec, vendorTicketBurst);
+            }
+        }
+    }
+
+    // Stops the releases of a vendor
+    public void cancel(int vendorId) {
+        Schedule schedule = schedules.remove(vendorId);
+        if (schedule != null) {
+            schedule.cancel();
+        }
+    }
+
+    // Stops the releases of every vendor
+    public void cancelAll() {
+        for (Integer vendorId : schedules.keySet()) {
+            cancel(vendorId);
+        }
+    }
+
+    // Stops the timer; releases that did not come due are dropped
+    public void shutdown() {
+        cancelAll();
+        timingWheel.stop();
+    }
+
+    public int getScheduledVendors() {
+        return schedules.size();
+    }
+
+    // Number of times a scheduled vendor was replaced by a changed one
+    public long getReschedules() {
+        return reschedules.sum();
+    }
+
+    // Number of batches in which at least one vendor released tickets
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    // Number of vendor releases that released tickets, over all batches
+    public long getReleases() {
+        return releases.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) releases.sum() / count;
+    }
+
+    public long getAverageLagMillis() {
+        long count = releases.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(lagNanos.sum() / count);
+    }
+
+    public long getMaxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    // Limiter shared by all vendors
+    public TokenBucket getReleaseLimiter() {
+        return releaseLimiter;
+    }
+
+    // Number of vendor releases cut short by their own limit
+    public long getVendorThrottled() {
+        long throttled = 0;
+        for (Schedule schedule : schedules.values()) {
+            throttled += schedule.limiter.getThrottled();
+        }
+        return throttled;
+    }
+
+    private long periodNanos(Vendor vendor) {
+        return TimeUnit.MICROSECONDS.toNanos(Math.max(minReleaseIntervalMicros, vendor.getReleaseIntervalMicros()));
+    }
+
+    /**
+     * Hands the releases of the tick to the engine, on the timer thread.
+     * If the engine is saturated the releases stay collected and go out with the next tick.
+     */
+    private void dispatch() {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Due> batch = due;
+        if (engine.tryExecute(() -> release(batch))) {
+            due = new ArrayList<>();
+        }
+    }
+
+    // Releases a batch, grouped by event
+    private void release(List<Due> batch) {
+        try {
+            if (configDAO.findConfigValue("system_status") != 1) {
+                return;
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        long now = timingWheel.elapsedNanos();
+        Map<Integer, List<Due>> byEvent = new HashMap<>();
+        for (Due release : batch) {
+            if (!release.schedule().cancelled) {
+                byEvent.computeIfAbsent(release.schedule().vendor.getEventId(), eventId -> new ArrayList<>()).add(release);
+            }
+        }
+
+        // Only vendors that released tickets count, so cancelled, paused and throttled ones do not inflate the metrics
+        int releasedVendors = 0;
+
+        for (Map.Entry<Integer, List<Due>> entry : byEvent.entrySet()) {
+            try {
+                TicketPool ticketPool = TicketPoolRegistry.getInstance().getPool(entry.getKey());
+                // A pool at its pause watermark skips the release
+                if (ticketPool.getBackpressure().pauseRelease()) {
+                    continue;
+                }
+                List<Due> eventReleases = entry.getValue();
+                List<Due> granted = new ArrayList<>(eventReleases.size());
+                int[] quantities = new int[eventReleases.size()];
+                int wanted = 0;
+                for (Due release : eventReleases) {
+                    // Each vendor releases what its own limit allows
+                    int quantity = release.schedule().limiter.tryAcquireUpTo(
+                            release.schedule().vendor.getTicketsPerRelease() * release.periods());
+                    if (quantity > 0) {
+                        quantities[granted.size()] = quantity;
+                        granted.add(release);
+                        wanted += quantity;
+                    }
+                }
+                if (wanted == 0) {
+                    continue;
+                }
+                // Release as much of the combined batch as the shared limit allows and the pool has room for
+                int allowed = releaseLimiter.tryAcquireUpTo(wanted);
+                int released = allowed > 0 ? ticketPool.addTicketsUpTo(allowed) : 0;
+                releaseLimiter.refund(allowed - released);
+                ticketPool.getBackpressure().evaluate();
+
+                // Share the released tickets among the vendors; each gets back the permits it did not use
+                int[] shares = share(quantities, granted.size(), wanted, released);
+                List<Vendor> vendors = new ArrayList<>(granted.size());
+                int[] vendorQuantities = new int[granted.size()];
+                for (int i = 0; i < granted.size(); i++) {
+                    Due release = granted.get(i);
+                    release.schedule().limiter.refund(quantities[i] - shares[i]);
+                    if (shares[i] > 0) {
+                        vendorQuantities[vendors.size()] = shares[i];
+                        vendors.add(release.schedule().vendor);
+                        long lag = Math.max(0, now - release.dueNanos());
+                        lagNanos.add(lag);
+                        maxLagNanos.accumulateAndGet(lag, Math::max);
+                        releases.increment();
+                    }
+                }
+                releasedVendors += vendors.size();
+                if (released > 0) {
+                    TicketEventPipeline.getInstance().publishReleases(entry.getKey(), vendors, vendorQuantities, released);
+                }
+
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage()); // The vendors' event was removed
+            }
+        }
+        if (releasedVendors > 0) {
+            batches.increment();
+        }
+    }
+
+    /**
+     * Splits the released tickets among the first count quantities in proportion to them, rounding down and
+     * handing the remaining tickets out one by one in order, so no share exceeds its quantity and the shares
+     * add up to the released tickets.
+     */
+    private static int[] share(int[] quantities, int count, int wanted, int released) {
+        int[] shares = new int[count];
+        if (released >= wanted) {
+            System.arraycopy(quantities, 0, shares, 0, count);
+            return shares;
+        }
+        int left = released;
+        for (int i = 0; i < count; i++) {
+            shares[i] = (int) ((long) quantities[i] * released / wanted);
+            left -= shares[i];
+        }
+        for (int i = 0; left > 0; i = (i + 1) % count) {
+            if (shares[i] < quantities[i]) {
+                shares[i]++;
+                left--;
+            }
+        }
+        return shares;
+    }
+
+    // A release that came due, with the time it was first due on the timer's clock and the periods it covers
+    private record Due(Schedule schedule, long dueNanos, int periods) {}
+
+    // Fixed-rate schedule of one vendor, re-armed on the timer after every release
+    private final class Schedule implements Runnable {
+        private final Vendor vendor;
+        private final long periodNanos;
+        private final long maxPeriodsPerTick; // Periods that fit in one tick, released together
+        private final TokenBucket limiter = new TokenBucket(vendorTicketsPerSec, vendorTicketBurst); // Vendor's own limit
+        private long dueNanos; // Next due time on the timer's clock, only touched by the timer after start
+        private volatile HashedTimingWheel.Timeout timeout;
+        private volatile boolean cancelled;
+
+        private Schedule(Vendor vendor, long periodNanos) {
+            this.vendor = vendor;
+            this.periodNanos = periodNanos;
+            this.maxPeriodsPerTick = Math.max(1, (TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS) + periodNanos - 1) / periodNanos);
+        }
+
+        // Whether the vendor would be scheduled the same way
+        private boolean matches(Vendor other, long otherPeriodNanos) {
+            return periodNanos == otherPeriodNanos
+                    && vendor.getTicketsPerRelease() == other.getTicketsPerRelease()
+                    && vendor.getEventId() == other.getEventId()
+                    && Objects.equals(vendor.getVendorName(), other.getVendorName());
+        }
+
+        private void start() {
+            dueNanos = timingWheel.elapsedNanos();
+            timeout = timingWheel.newTimeout(this, 0, TimeUnit.NANOSECONDS);
+        }
+
+        // Runs on the timer when the release is due
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            long now = timingWheel.elapsedNanos();
+            // Periods that came due since the last release, at most one tick's worth
+            long periods = Math.min(Math.max(1, (now - dueNanos) / periodNanos + 1), maxPeriodsPerTick);
+            due.add(new Due(this, dueNanos, (int) periods));
+            dueNanos += periods * periodNanos;
+            if (dueNanos <= now) {
+                dueNanos += ((now - dueNanos) / periodNanos + 1) * periodNanos; // Skip the missed periods
+            }
+            timeout = timingWheel.newTimeout(this, dueNanos - now, TimeUnit.NANOSECONDS);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            HashedTimingWheel.Timeout pending = timeout;
+            if (pending != null) {
+                pending.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package main.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process publisher of configuration changes.
+ * The DAOs publish what they changed, and what other processes changed once {@link ConfigChangeChannel}
+ * or the periodic "data_version" check noticed it. Listeners run on the publishing thread, in the
+ * order they subscribed; a failing listener does not keep the others from seeing the change.
+ */
+public final class ConfigChangeBus {
+    private static final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private ConfigChangeBus() {
+    }
+
+    public static void subscribe(ConfigChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(ConfigChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public static void publishConfig(Map<String, Integer> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.configChanged(changes);
+
+            } catch (RuntimeException e) {
+                System.out.println("Failed to apply configuration change: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void publishVendors() {
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.vendorsChanged();
+
+            } catch (RuntimeException e) {
+                System.out.println("Failed to apply vendor change: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void publishVendor(int vendorId) {
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.vendorChanged(vendorId);
+
+            } catch (RuntimeException e) {
+                System.out.println("Failed to apply vendor change: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void publishDatabaseChanged() {
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.databaseChanged();
+
+            } catch (RuntimeException e) {
+                System.out.println("Failed to apply database change: " + e.getMessage());
+            }
+        }
+    }
+}
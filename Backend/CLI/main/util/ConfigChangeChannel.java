@@ -0,0 +1,137 @@
+package main.util;
+
+import main.dao.impl.SystemConfigDAOImpl;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Unix domain socket, next to the database file, on which other processes (the API) announce their changes.
+ * A message is one line per change, "<table> <key>" ("vendors <vendor ID>" for a vendor), sent after the change was committed; the database
+ * stays the source of truth, so the CLI only reloads what SQLite reports as changed and publishes the
+ * delta on the {@link ConfigChangeBus}. Changes take effect within milliseconds instead of waiting for the
+ * next periodic check, which stays as the fallback for writers that do not announce their changes.
+ */
+public class ConfigChangeChannel {
+    // Same directory as the database file, see SQLiteConnection
+    public static final Path SOCKET_PATH = Path.of("../realtime_event_ticketing_system.sock");
+
+    private ServerSocketChannel server;
+
+    /**
+     * Binds the socket and starts accepting messages on a daemon thread.
+     * A socket file left behind by a process that exited is replaced; a socket another CLI is listening on is not.
+     */
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(SOCKET_PATH);
+        try {
+            if (Files.exists(SOCKET_PATH)) {
+                try {
+                    SocketChannel.open(address).close(); // Only checks whether a process listens on it
+                    System.out.println("Configuration changes are already received by another process.");
+                    return;
+
+                } catch (IOException e) {
+                    Files.deleteIfExists(SOCKET_PATH); // Nobody listens on it any more
+                }
+            }
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(address);
+
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("Configuration changes are checked periodically: " + e.getMessage());
+            server = null;
+            return;
+        }
+
+        Thread thread = new Thread(this::accept, "config-change-channel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stops accepting messages and removes the socket file
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.close();
+            Files.deleteIfExists(SOCKET_PATH);
+
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+        server = null;
+    }
+
+    private void accept() {
+        ServerSocketChannel channel = server;
+        while (channel.isOpen()) {
+            try (SocketChannel client = channel.accept()) {
+                apply(read(client));
+
+            } catch (ClosedChannelException e) {
+                return;
+
+            } catch (IOException e) {
+                System.out.println("Failed to read configuration change: " + e.getMessage());
+            }
+        }
+    }
+
+    // Reads a message up to the end of the stream
+    private static String read(SocketChannel client) throws IOException {
+        StringBuilder message = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (client.read(buffer) > 0) {
+            buffer.flip();
+            message.append(StandardCharsets.UTF_8.decode(buffer));
+            buffer.clear();
+        }
+        return message.toString();
+    }
+
+    // Reloads what other processes committed and publishes the delta; vendor changes are published as they are
+    private static void apply(String message) {
+        if (message.isBlank()) {
+            return;
+        }
+        try {
+            SystemConfigDAOImpl.refreshIfChanged();
+            for (String line : message.split("\n")) {
+                String[] change = line.trim().split(" ");
+                if (change[0].equals("vendors")) {
+                    publishVendor(change);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    // A vendor ID names the vendor that changed; without one the whole table is compared
+    private static void publishVendor(String[] change) {
+        try {
+            if (change.length > 1) {
+                ConfigChangeBus.publishVendor(Integer.parseInt(change[1]));
+                return;
+            }
+
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid vendor change: " + String.join(" ", change));
+        }
+        ConfigChangeBus.publishVendors();
+    }
+}
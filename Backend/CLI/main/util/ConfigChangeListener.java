@@ -0,0 +1,27 @@
+package main.util;
+
+import java.util.Map;
+
+/**
+ * Subscriber to configuration changes published on the {@link ConfigChangeBus}.
+ * Every callback only carries what changed, so subscribers apply the delta instead of restarting everything.
+ */
+public interface ConfigChangeListener {
+
+    // Keys of "system_config" whose value changed, with their new values
+    default void configChanged(Map<String, Integer> changes) {
+    }
+
+    // Vendors were added, updated or deleted, without saying which; the vendors table has to be compared
+    default void vendorsChanged() {
+    }
+
+    // One vendor was added, updated or deleted
+    default void vendorChanged(int vendorId) {
+        vendorsChanged();
+    }
+
+    // Another process committed to the database, e.g. event tickets or capacities changed through the API
+    default void databaseChanged() {
+    }
+}
@@ -0,0 +1,64 @@
+package main.util;
+
+/**
+ * Release and retrieval intervals, stored in microseconds.
+ * Input is a number with a unit ("2s", "250ms", "500us") or a rate ("40/s"); a bare number is
+ * read as seconds, as the intervals used to be.
+ */
+public final class Interval {
+    public static final int MIN_MICROS = 100; // Finest interval the schedulers are asked to keep (0.1 ms)
+    public static final int MAX_MICROS = 300_000_000; // Longest interval (5 minutes)
+
+    private Interval() {
+    }
+
+    // Parses an interval to microseconds; returns -1 if the input is not an interval
+    public static int parseMicros(String input) {
+        if (input == null) {
+            return -1;
+        }
+        String text = input.trim().toLowerCase().replace("µ", "u");
+        try {
+            double micros;
+            if (text.endsWith("/s")) {
+                double perSecond = Double.parseDouble(text.substring(0, text.length() - 2));
+                micros = perSecond > 0 ? 1_000_000 / perSecond : -1;
+            } else if (text.endsWith("us")) {
+                micros = Double.parseDouble(text.substring(0, text.length() - 2));
+            } else if (text.endsWith("ms")) {
+                micros = Double.parseDouble(text.substring(0, text.length() - 2)) * 1_000;
+            } else if (text.endsWith("s")) {
+                micros = Double.parseDouble(text.substring(0, text.length() - 1)) * 1_000_000;
+            } else {
+                micros = Double.parseDouble(text) * 1_000_000;
+            }
+            return micros > 0 && micros <= Integer.MAX_VALUE ? (int) Math.round(micros) : -1;
+
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Checks that an interval lies between MIN_MICROS and MAX_MICROS
+    public static boolean isValid(int micros) {
+        return micros >= MIN_MICROS && micros <= MAX_MICROS;
+    }
+
+    // Formats an interval in its largest exact unit, e.g. "2 s", "250 ms" or "500 us"
+    public static String format(long micros) {
+        if (micros % 1_000_000 == 0) {
+            return micros / 1_000_000 + " s";
+        }
+        if (micros % 1_000 == 0) {
+            return micros / 1_000 + " ms";
+        }
+        return micros + " us";
+    }
+
+    // Formats an interval with the rate it gives, e.g. "250 ms (4.0/s)"
+    public static String formatWithRate(long micros) {
+        return micros > 0
+                ? String.format("%s (%.1f/s)", format(micros), 1_000_000.0 / micros)
+                : format(micros);
+    }
+}
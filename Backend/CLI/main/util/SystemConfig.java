@@ -3,15 +3,31 @@ package main.util;
 import main.Main;
 import main.controllers.TicketManagementController;
 import main.dao.impl.SystemConfigDAOImpl;
-import main.dao.impl.VendorDAOImpl;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Applies configuration changes to the running system as they are published on the {@link ConfigChangeBus},
+ * by the CLI itself or, through {@link ConfigChangeChannel}, by the API.
+ * Only the part a change affects is touched: limits are applied in place, a changed vendor or release
+ * interval reschedules only the vendors it affects, and customers are rescheduled only when their own
+ * settings change.
+ */
+public class SystemConfig implements ConfigChangeListener {
 
-public class SystemConfig implements Runnable{
+    // Keys applied to the running limiters and pools without rescheduling
+    private static final Set<String> LIMIT_KEYS = Set.of(
+            "vendor_tickets_per_sec", "vendor_ticket_burst",
+            "release_tickets_per_sec", "release_ticket_burst",
+            "customer_admissions_per_sec", "customer_admission_burst",
+            "vendor_pause_watermark_pct", "vendor_resume_watermark_pct", "customer_wait_sec");
 
-    private int ticketReleaseRate;
-    private int customerRetrievalRate;
-    private int vendorCount;
+    // Keys the customer arrivals are scheduled with
+    private static final Set<String> CUSTOMER_KEYS = Set.of(
+            "customer_retrieval_interval_us", "customers_per_tick",
+            "admission_queue_capacity", "vip_admission_weight", "admission_max_wait_sec");
 
     // System config data access object
     private final static SystemConfigDAOImpl configDAO = new SystemConfigDAOImpl();
@@ -19,39 +35,62 @@ public class SystemConfig implements Runnable{
     // Manage Tickets
     private final TicketManagementController ticketManagementController;
 
-    private SystemConfig() {
-        ticketManagementController = new TicketManagementController();
-    }
-
     public SystemConfig(Main main) {
         ticketManagementController = main.getTicketManagementController();
     }
 
     @Override
-    public void run() {
+    public void configChanged(Map<String, Integer> changes) {
         try {
-            if (configDAO.findConfigValue("system_status") == 1) {
-                int tempTicketReleaseRate = configDAO.findConfigValue("ticket_release_rate");
-                int tempCustomerRetrievalRate = configDAO.findConfigValue("customer_retrieval_rate");
-                int tempVendorCount = new VendorDAOImpl().getVendorCount();
+            // Limits take effect without a restart
+            if (!Collections.disjoint(changes.keySet(), LIMIT_KEYS)) {
+                ticketManagementController.applyLimits();
+            }
 
-                if (vendorCount != tempVendorCount) {
-                    ticketManagementController.restartSystemForVendors();
+            Integer systemStatus = changes.get("system_status");
+            if (systemStatus != null) {
+                if (systemStatus == 1) {
+                    ticketManagementController.startSystem();
+                } else {
+                    ticketManagementController.stopSystem();
                 }
+                return;
+            }
 
-                if (ticketReleaseRate != tempTicketReleaseRate
-                        && ticketReleaseRate > 0) {
-                    ticketManagementController.restartSystemForVendors();
+            if (configDAO.findConfigValue("system_status") == 1) {
+                if (changes.containsKey("ticket_release_interval_us")) {
+                    ticketManagementController.applyReleaseInterval();
                 }
 
-                if (ticketReleaseRate != tempCustomerRetrievalRate
-                        && customerRetrievalRate > 0) {
+                if (!Collections.disjoint(changes.keySet(), CUSTOMER_KEYS)) {
                     ticketManagementController.restartSystemForCustomers();
                 }
+            }
 
-                ticketReleaseRate = tempTicketReleaseRate;
-                customerRetrievalRate = tempCustomerRetrievalRate;
-                vendorCount = tempVendorCount;
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    // Compares the vendors table with the running schedules
+    @Override
+    public void vendorsChanged() {
+        try {
+            if (configDAO.findConfigValue("system_status") == 1) {
+                ticketManagementController.startSystemForVendors();
+            }
+
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    // Reschedules only the vendor that changed
+    @Override
+    public void vendorChanged(int vendorId) {
+        try {
+            if (configDAO.findConfigValue("system_status") == 1) {
+                ticketManagementController.applyVendorChange(vendorId);
             }
 
         } catch (SQLException e) {
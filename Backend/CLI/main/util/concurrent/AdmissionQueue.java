@@ -0,0 +1,126 @@
+package main.util.concurrent;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free admission queue with a priority lane and a standard lane.
+ * Items are admitted in a weighted-fair order (e.g. 3 priority : 1 standard); a standard item
+ * that waited longer than the aging limit is admitted next regardless of the ratio, so the
+ * standard lane cannot starve. Offers to a full lane are shed instead of growing the queue.
+ */
+public class AdmissionQueue<T> {
+    public enum Lane { PRIORITY, STANDARD }
+
+    private final LaneQueue<T>[] queues; // One queue per lane
+    private final AtomicLong turn = new AtomicLong(); // Position in the weighted round robin
+    private volatile int capacity; // Maximum items waiting per lane
+    private volatile int priorityWeight; // Priority items admitted per standard item
+    private volatile long maxWaitNanos; // Aging limit for the standard lane
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AdmissionQueue(int capacity, int priorityWeight, long maxWait, TimeUnit unit) {
+        this.queues = new LaneQueue[Lane.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new LaneQueue<>();
+        }
+        configure(capacity, priorityWeight, maxWait, unit);
+    }
+
+    // Changes the limits at runtime; items already queued are kept
+    public final void configure(int capacity, int priorityWeight, long maxWait, TimeUnit unit) {
+        this.capacity = Math.max(1, capacity);
+        this.priorityWeight = Math.max(0, priorityWeight);
+        this.maxWaitNanos = unit.toNanos(Math.max(0, maxWait));
+    }
+
+    // Adds an item to a lane; returns false and counts it as shed if the lane is full
+    public boolean offer(T item, Lane lane) {
+        LaneQueue<T> queue = queues[lane.ordinal()];
+        while (true) {
+            int depth = queue.depth.get();
+            if (depth >= capacity) {
+                queue.shed.increment();
+                return false;
+            }
+            if (queue.depth.compareAndSet(depth, depth + 1)) {
+                break;
+            }
+        }
+        queue.items.add(new Entry<>(item, System.nanoTime()));
+        return true;
+    }
+
+    // Admits the next item according to aging and the weighted ratio; returns null if both lanes are empty
+    public T poll() {
+        LaneQueue<T> standard = queues[Lane.STANDARD.ordinal()];
+        Entry<T> oldest = standard.items.peek();
+        if (oldest != null && System.nanoTime() - oldest.enqueuedAt >= maxWaitNanos) {
+            T item = take(standard);
+            if (item != null) {
+                return item;
+            }
+        }
+
+        int weight = priorityWeight;
+        Lane preferred = turn.getAndIncrement() % (weight + 1) < weight ? Lane.PRIORITY : Lane.STANDARD;
+        T item = take(queues[preferred.ordinal()]);
+        if (item == null) {
+            item = take(queues[preferred == Lane.PRIORITY ? Lane.STANDARD.ordinal() : Lane.PRIORITY.ordinal()]);
+        }
+        return item;
+    }
+
+    // Number of items waiting in a lane
+    public int getDepth(Lane lane) {
+        return queues[lane.ordinal()].depth.get();
+    }
+
+    // Number of items admitted from a lane
+    public long getAdmitted(Lane lane) {
+        return queues[lane.ordinal()].admitted.sum();
+    }
+
+    // Number of items rejected because a lane was full
+    public long getShed(Lane lane) {
+        return queues[lane.ordinal()].shed.sum();
+    }
+
+    // Average time admitted items of a lane spent in the queue
+    public long getAverageWaitMillis(Lane lane) {
+        LaneQueue<T> queue = queues[lane.ordinal()];
+        long admitted = queue.admitted.sum();
+        return admitted == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queue.waitNanos.sum() / admitted);
+    }
+
+    // Time the oldest item of a lane has been waiting so far
+    public long getOldestWaitMillis(Lane lane) {
+        Entry<T> oldest = queues[lane.ordinal()].items.peek();
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt);
+    }
+
+    private T take(LaneQueue<T> queue) {
+        Entry<T> entry = queue.items.poll();
+        if (entry == null) {
+            return null;
+        }
+        queue.depth.decrementAndGet();
+        queue.admitted.increment();
+        queue.waitNanos.add(System.nanoTime() - entry.enqueuedAt);
+        return entry.item;
+    }
+
+    private record Entry<T>(T item, long enqueuedAt) {}
+
+    // Items and metrics of one lane
+    private static final class LaneQueue<T> {
+        private final ConcurrentLinkedQueue<Entry<T>> items = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger(); // Slots taken, raised before the item is added
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder(); // Total wait time of admitted items
+    }
+}
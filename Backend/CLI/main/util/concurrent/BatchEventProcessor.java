@@ -0,0 +1,69 @@
+package main.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs one {@link EventHandler} over a ring buffer.
+ * The processor takes every entry that is ready in one go and passes the end of the batch to the
+ * handler, so a stage can group its work (e.g. one database write per batch).
+ */
+public class BatchEventProcessor<E> implements Runnable {
+    private final RingBuffer<E> ringBuffer;
+    private final AtomicLong dependency; // Sequence of the previous stage, or null for the first stage
+    private final EventHandler<E> handler;
+    private final AtomicLong sequence = new AtomicLong(-1); // Last sequence this stage finished
+    private volatile boolean running;
+
+    // Created once so waiting does not allocate
+    private final LongSupplier cursorSupplier;
+    private final LongSupplier dependencySupplier;
+    private final BooleanSupplier haltedSupplier = () -> !running;
+
+    public BatchEventProcessor(RingBuffer<E> ringBuffer, AtomicLong dependency, EventHandler<E> handler) {
+        this.ringBuffer = ringBuffer;
+        this.dependency = dependency;
+        this.handler = handler;
+        this.cursorSupplier = ringBuffer::getCursor;
+        this.dependencySupplier = dependency == null ? cursorSupplier : dependency::get;
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        WaitStrategy waitStrategy = ringBuffer.getWaitStrategy();
+        long next = sequence.get() + 1;
+        while (running) {
+            long available = waitStrategy.waitFor(next, cursorSupplier, dependencySupplier, haltedSupplier);
+            if (dependency == null) {
+                available = ringBuffer.getHighestPublishedSequence(next, available);
+            }
+            if (available < next) {
+                Thread.onSpinWait(); // Claimed but not published yet
+                continue;
+            }
+
+            for (long current = next; current <= available; current++) {
+                try {
+                    handler.onEvent(ringBuffer.get(current), current, current == available);
+
+                } catch (Exception e) {
+                    System.out.println("Event handler failed: " + e.getMessage());
+                }
+            }
+            sequence.set(available);
+            next = available + 1;
+        }
+    }
+
+    // Stops the processor after its current batch
+    public void halt() {
+        running = false;
+        ringBuffer.getWaitStrategy().signalAllWhenBlocking();
+    }
+
+    public AtomicLong getSequence() {
+        return sequence;
+    }
+}
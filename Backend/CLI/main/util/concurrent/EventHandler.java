@@ -0,0 +1,9 @@
+package main.util.concurrent;
+
+/**
+ * One stage of an {@link EventPipeline}.
+ * Events are reused by the ring buffer, so a handler must copy anything it keeps after returning.
+ */
+public interface EventHandler<E> {
+    void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,77 @@
+package main.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Chain of stages over one ring buffer: each stage sees an event only after the previous stage
+ * is done with it, and producers are gated by the last stage. Each stage runs on its own thread.
+ */
+public class EventPipeline<E> {
+    private final String name; // Prefix of the stage thread names
+    private final RingBuffer<E> ringBuffer;
+    private final List<BatchEventProcessor<E>> stages = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    public EventPipeline(String name, Supplier<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        this.name = name;
+        this.ringBuffer = new RingBuffer<>(factory, bufferSize, waitStrategy);
+    }
+
+    // Adds a stage that runs after the stages added before it
+    public EventPipeline<E> then(EventHandler<E> handler) {
+        if (!threads.isEmpty()) {
+            throw new IllegalStateException("Stages must be added before the pipeline starts");
+        }
+        AtomicLong dependency = stages.isEmpty() ? null : stages.getLast().getSequence();
+        stages.add(new BatchEventProcessor<>(ringBuffer, dependency, handler));
+        return this;
+    }
+
+    public void start() {
+        ringBuffer.setGatingSequences(stages.getLast().getSequence());
+        for (int i = 0; i < stages.size(); i++) {
+            Thread thread = new Thread(stages.get(i), name + "-stage-" + (i + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    public RingBuffer<E> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    // Events published but not yet handled by the last stage
+    public long getBacklog() {
+        return stages.isEmpty() ? 0 : ringBuffer.getCursor() - stages.getLast().getSequence().get();
+    }
+
+    /**
+     * Lets the stages finish the published events (up to the timeout), then stops them.
+     * The ring buffer is halted first, so producers still running fail to claim instead of waiting for stages that are gone.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (getBacklog() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+        ringBuffer.halt();
+        for (BatchEventProcessor<E> stage : stages) {
+            stage.halt();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
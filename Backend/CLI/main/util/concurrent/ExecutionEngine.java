@@ -0,0 +1,136 @@
+package main.util.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs short-lived tasks on virtual threads (one per task) or on a reused pool of platform threads.
+ * A semaphore bounds how many tasks run at once; a caller that finds no free permit is told so
+ * instead of blocking, so the work stays in its queue until capacity frees up.
+ * Shutdown stops accepting tasks, waits for the running ones and interrupts whatever is left.
+ */
+public class ExecutionEngine {
+    public enum Mode { PLATFORM, VIRTUAL }
+
+    private final String name; // Prefix of the thread names
+    private final Mode mode; // Kind of threads tasks run on
+    private final int maxConcurrent; // Upper bound on running tasks
+    private final Semaphore permits; // One permit per running task
+    private final ExecutorService executor;
+
+    // Metrics
+    private final LongAdder started = new LongAdder();
+    private final LongAdder saturated = new LongAdder();
+
+    public ExecutionEngine(String name, Mode mode, int maxConcurrent) {
+        this.name = name;
+        this.mode = mode;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent);
+        this.executor = mode == Mode.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory())
+                : Executors.newCachedThreadPool(Thread.ofPlatform().name(name + "-", 0).daemon(true).factory());
+    }
+
+    // Selects the mode from a configuration value: 1 virtual threads, anything else platform threads
+    public static Mode mode(int configured) {
+        return configured == 1 ? Mode.VIRTUAL : Mode.PLATFORM;
+    }
+
+    // Runs the task if a permit is free; returns false if the engine is saturated or shut down
+    public boolean tryExecute(Runnable task) {
+        return tryExecute(() -> task);
+    }
+
+    /**
+     * Takes a permit, then the next task from the supplier, and runs it.
+     * The task is only taken once a permit is secured, so a saturated engine leaves it where it is.
+     * Returns false if no permit was free, the supplier had no task, or the engine is shut down.
+     */
+    public boolean tryExecute(Supplier<? extends Runnable> next) {
+        if (!permits.tryAcquire()) {
+            saturated.increment();
+            return false;
+        }
+        Runnable task;
+        try {
+            task = next.get();
+
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        if (task == null) {
+            permits.release();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+
+                } finally {
+                    permits.release();
+                }
+            });
+
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return false;
+        }
+        started.increment();
+        return true;
+    }
+
+    /**
+     * Stops accepting tasks and waits for the running ones; tasks still running after the timeout
+     * are interrupted. Returns true if every task finished.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeout, unit)) {
+                return true;
+            }
+            executor.shutdownNow();
+            return executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    // Number of tasks running right now
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    // Number of tasks started so far
+    public long getStarted() {
+        return started.sum();
+    }
+
+    // Number of times a task could not start because every permit was taken
+    public long getSaturated() {
+        return saturated.sum();
+    }
+}
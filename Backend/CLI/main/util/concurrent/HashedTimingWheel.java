@@ -0,0 +1,325 @@
+package main.util.concurrent;
+
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel for very large numbers of timeouts.
+ * Timeouts are hashed into a fixed ring of buckets by deadline; delays longer than one turn of
+ * the wheel wait a number of extra rounds. Scheduling and cancelling are O(1), and one worker
+ * thread expires every timeout, so a million pending timeouts cost a million small objects
+ * instead of a million scheduled executor tasks. Tasks run on the worker thread and must be short.
+ */
+public class HashedTimingWheel {
+    private static final int INITIAL = 0; // Worker not started yet
+    private static final int STARTED = 1; // Worker running
+    private static final int SHUTDOWN = 2; // Worker stopped
+
+    private final long tickNanos; // Duration of one tick
+    private final Bucket[] wheel; // Ring of buckets, length is a power of two
+    private final int mask; // Maps a tick number to its bucket
+    private final Thread worker; // Thread that advances the wheel
+    private final AtomicInteger workerState = new AtomicInteger(INITIAL);
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>(); // Added since the last tick
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>(); // Cancelled since the last tick
+    private final AtomicLong activeTimeouts = new AtomicLong(); // Scheduled and neither expired nor cancelled
+    private final Set<Timeout> unprocessedTimeouts = new HashSet<>(); // Filled by the worker when it stops
+    private volatile long startTime; // Origin of all deadlines, set when the worker starts
+    private volatile Runnable tickListener; // Runs on the worker after the timeouts of every tick expired
+    private long tick; // Current tick, only touched by the worker
+
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Tick duration and ticks per wheel must be greater than 0");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.worker = new Thread(this::runWorker, name);
+        this.worker.setDaemon(true);
+    }
+
+    // Schedules a task to run once after the given delay
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        start();
+        if (workerState.get() == SHUTDOWN) {
+            throw new IllegalStateException("Cannot schedule a timeout after the timing wheel is stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay)));
+        activeTimeouts.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Sets a task that runs on the worker at the end of every tick, after that tick's timeouts
+     * expired. Lets callers collect the timeouts of one tick and handle them as a batch.
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    // Number of timeouts that are still waiting to expire
+    public long activeTimeouts() {
+        return activeTimeouts.get();
+    }
+
+    // Nanoseconds elapsed since the wheel started, on the same scale as timeout deadlines; starts the wheel
+    // if needed, so a time read before the first timeout is on the same origin as its deadline
+    public long elapsedNanos() {
+        start();
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Stops the worker and returns the timeouts that never expired, so callers can settle them.
+     */
+    public Set<Timeout> stop() {
+        if (Thread.currentThread() == worker) {
+            throw new IllegalStateException("The timing wheel cannot be stopped from one of its own tasks");
+        }
+        if (workerState.getAndSet(SHUTDOWN) != STARTED) {
+            return Set.of();
+        }
+        worker.interrupt();
+        try {
+            worker.join();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return unprocessedTimeouts;
+    }
+
+    // Starts the worker on first use
+    private void start() {
+        if (workerState.get() == INITIAL) {
+            synchronized (this) {
+                if (workerState.get() == INITIAL) {
+                    startTime = System.nanoTime();
+                    workerState.set(STARTED);
+                    worker.start();
+                }
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (workerState.get() == STARTED) {
+            if (waitForNextTick()) {
+                processCancelledTimeouts();
+                transferTimeoutsToBuckets();
+                wheel[(int) (tick & mask)].expireTimeouts();
+                tick++;
+                notifyTickListener();
+            }
+        }
+
+        // Collect everything that is still pending for stop()
+        for (Bucket bucket : wheel) {
+            bucket.clearTimeouts(unprocessedTimeouts);
+        }
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                unprocessedTimeouts.add(timeout);
+            }
+        }
+        processCancelledTimeouts();
+    }
+
+    private void notifyTickListener() {
+        Runnable listener = tickListener;
+        if (listener != null) {
+            try {
+                listener.run();
+
+            } catch (RuntimeException e) {
+                System.out.println("Timer tick listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Sleeps until the end of the current tick; returns false when the wheel is stopping
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - currentTime + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+
+            } catch (InterruptedException e) {
+                if (workerState.get() == SHUTDOWN) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    // Moves newly scheduled timeouts into their buckets, bounded so a flood of inserts cannot stall a tick
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            wheel[(int) (Math.max(calculated, tick) & mask)].add(timeout);
+        }
+    }
+
+    // Unlinks cancelled timeouts from their buckets
+    private void processCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Handle for a scheduled task.
+     */
+    public final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task; // Task to run on expiry
+        private final long deadline; // Nanoseconds after the wheel start
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        private long remainingRounds; // Full turns of the wheel left before expiry
+        private Timeout next; // Bucket links, only touched by the worker
+        private Timeout prev;
+        private Bucket bucket;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // Cancels the timeout; returns false if it already expired or was cancelled
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            activeTimeouts.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        // Deadline in nanoseconds on the scale of elapsedNanos()
+        public long getDeadline() {
+            return deadline;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            activeTimeouts.decrementAndGet();
+            try {
+                task.run();
+
+            } catch (RuntimeException e) {
+                System.out.println("Timer task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Doubly linked list of timeouts, only touched by the worker
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        // Expires every timeout due in this round and counts down the others
+        private void expireTimeouts() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private void clearTimeouts(Set<Timeout> set) {
+            Timeout timeout;
+            while ((timeout = head) != null) {
+                remove(timeout);
+                if (!timeout.isCancelled() && !timeout.isExpired()) {
+                    set.add(timeout);
+                }
+            }
+        }
+    }
+}
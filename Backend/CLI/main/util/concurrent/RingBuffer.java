@@ -0,0 +1,140 @@
+package main.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated multi-producer ring buffer.
+ * Producers claim a sequence with a CAS on the cursor, fill the entry in place and publish it;
+ * nothing is allocated per event. Producers never wrap past the slowest gating sequence, and
+ * consumers use the per-slot availability flags to find the highest contiguous published sequence.
+ * Once halted, nothing consumes the entries any more, so claims fail instead of waiting for space forever.
+ */
+public class RingBuffer<E> {
+    private final Object[] entries; // Pre-allocated events
+    private final int mask; // Maps a sequence to its slot
+    private final int indexShift; // log2 of the buffer size, turns a sequence into its lap number
+    private final AtomicLong cursor = new AtomicLong(-1); // Highest claimed sequence
+    private final AtomicLong gatingSequenceCache = new AtomicLong(-1); // Last known minimum of the gating sequences
+    private final AtomicIntegerArray availability; // Lap number of the last publish per slot
+    private final WaitStrategy waitStrategy;
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0]; // Sequences of the last stages
+    private volatile boolean halted; // The consumers stopped
+
+    public RingBuffer(Supplier<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of 2");
+        }
+        this.entries = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+        }
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.availability = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availability.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    // Producers will not overwrite entries these sequences have not processed yet
+    public void setGatingSequences(AtomicLong... sequences) {
+        this.gatingSequences = sequences.clone();
+    }
+
+    // Makes every later claim, and every claim waiting for space, fail; called once the consumers stopped
+    public void halt() {
+        halted = true;
+    }
+
+    // Claims the next sequence, waiting while the buffer is full
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Claims the next n sequences in one step and returns the highest, waiting while the buffer is full.
+     * Throws IllegalStateException once the buffer is halted, as the space would never be freed.
+     */
+    public long next(int n) {
+        if (n < 1 || n > entries.length) {
+            throw new IllegalArgumentException("Claim size must be between 1 and the buffer size");
+        }
+        while (true) {
+            if (halted) {
+                throw new IllegalStateException("Ring buffer is halted");
+            }
+            long current = cursor.get();
+            long next = current + n;
+            long wrapPoint = next - entries.length;
+            if (wrapPoint > gatingSequenceCache.get()) {
+                long minimum = getMinimumGatingSequence(current);
+                if (wrapPoint > minimum) {
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                gatingSequenceCache.set(minimum);
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    // Makes a claimed entry visible to the consumers
+    public void publish(long sequence) {
+        availability.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    // Makes a range of claimed entries visible with a single wake-up of the consumers
+    public void publish(long low, long high) {
+        for (long sequence = low; sequence <= high; sequence++) {
+            availability.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public boolean isAvailable(long sequence) {
+        return availability.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    // Highest sequence between the bounds up to which every entry is published
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    // Slowest of the gating sequences, or the given default when there are none
+    private long getMinimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,111 @@
+package main.util.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket: permits refill at a fixed rate and up to "burst" of them can be taken at once.
+ * The bucket is kept as a single timestamp, the time at which it would be full again (the generic cell
+ * rate algorithm), so taking permits is one compare-and-set and no thread refills it in the background.
+ * A rate of 0 or less means unlimited. The rate and burst can be changed at any time; permits already
+ * taken are kept.
+ */
+public class TokenBucket {
+    private final AtomicLong fullAt; // Time at which the bucket is full again, a past time means it is full
+    private volatile Limits limits; // Current rate and burst, replaced as a whole
+
+    // Metrics
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    // Configured rate and burst, with the nanoseconds per permit (0 = unlimited) and the time span of a full burst
+    private record Limits(long permitRate, int burst, long intervalNanos, long burstNanos) {}
+
+    public TokenBucket(long permitsPerSecond, int burst) {
+        this.fullAt = new AtomicLong(System.nanoTime());
+        setRate(permitsPerSecond, burst);
+    }
+
+    /**
+     * Changes the rate (permits per second) and burst (permits that can be taken at once).
+     * A burst of 0 or less allows one second worth of permits; a rate of 0 or less lifts the limit.
+     */
+    public final void setRate(long permitsPerSecond, int burst) {
+        Limits current = limits;
+        if (current != null && current.permitRate() == permitsPerSecond && current.burst() == burst) {
+            return;
+        }
+        if (permitsPerSecond <= 0) {
+            limits = new Limits(permitsPerSecond, burst, 0, 0);
+            return;
+        }
+        long intervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        long burstPermits = burst > 0 ? burst : permitsPerSecond;
+        limits = new Limits(permitsPerSecond, burst, intervalNanos, intervalNanos * Math.min(burstPermits, Integer.MAX_VALUE));
+    }
+
+    // Takes all the permits or none; more permits than the burst are never granted at once
+    public boolean tryAcquire(int permits) {
+        return take(permits, false) == permits;
+    }
+
+    // Takes as many of the permits as are available and returns how many it took
+    public int tryAcquireUpTo(int permits) {
+        return take(permits, true);
+    }
+
+    // Gives back permits that were taken but not used
+    public void refund(int permits) {
+        Limits current = limits;
+        if (permits <= 0 || current.intervalNanos() == 0) {
+            return;
+        }
+        fullAt.addAndGet(-permits * current.intervalNanos());
+        granted.add(-permits);
+    }
+
+    private int take(int permits, boolean partial) {
+        if (permits <= 0) {
+            return 0;
+        }
+        while (true) {
+            Limits current = limits;
+            if (current.intervalNanos() == 0) {
+                granted.add(permits);
+                return permits;
+            }
+            long now = System.nanoTime();
+            long taken = fullAt.get();
+            long from = Math.max(taken, now); // A bucket that was full does not save up more than the burst
+            long available = (now + current.burstNanos() - from) / current.intervalNanos();
+            long wanted = partial ? Math.min(permits, available) : permits;
+            if (wanted <= 0 || wanted > available) {
+                throttled.increment();
+                return 0;
+            }
+            if (fullAt.compareAndSet(taken, from + wanted * current.intervalNanos())) {
+                granted.add(wanted);
+                return (int) wanted;
+            }
+        }
+    }
+
+    public boolean isUnlimited() {
+        return limits.intervalNanos() == 0;
+    }
+
+    public long getPermitsPerSecond() {
+        return limits.permitRate();
+    }
+
+    // Number of permits handed out so far
+    public long getGranted() {
+        return granted.sum();
+    }
+
+    // Number of requests that found no permits
+    public long getThrottled() {
+        return throttled.sum();
+    }
+}
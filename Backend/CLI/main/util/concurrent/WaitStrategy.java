@@ -0,0 +1,119 @@
+package main.util.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * How a pipeline stage waits for the sequence it needs next.
+ * Busy-spin gives the lowest latency but burns a core per stage, yielding backs off to the
+ * scheduler, and blocking parks the thread until a producer publishes.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the dependency reaches the sequence and returns the highest sequence it reached,
+     * or a lower value if the stage was halted.
+     */
+    long waitFor(long sequence, LongSupplier cursor, LongSupplier dependency, BooleanSupplier halted);
+
+    // Wakes up stages parked by a blocking strategy
+    void signalAllWhenBlocking();
+
+    static WaitStrategy busySpin() {
+        return new BusySpin();
+    }
+
+    static WaitStrategy yielding() {
+        return new Yielding();
+    }
+
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, LongSupplier cursor, LongSupplier dependency, BooleanSupplier halted) {
+            long available;
+            while ((available = dependency.getAsLong()) < sequence && !halted.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100; // Spins before yielding the core
+
+        @Override
+        public long waitFor(long sequence, LongSupplier cursor, LongSupplier dependency, BooleanSupplier halted) {
+            long available;
+            int counter = SPIN_TRIES;
+            while ((available = dependency.getAsLong()) < sequence && !halted.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    /**
+     * Parks until the producers' cursor reaches the sequence, then spins on the stage dependency,
+     * which only lags the cursor by the time an earlier stage needs for its batch.
+     */
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        @Override
+        public long waitFor(long sequence, LongSupplier cursor, LongSupplier dependency, BooleanSupplier halted) {
+            if (cursor.getAsLong() < sequence) {
+                lock.lock();
+                try {
+                    while (cursor.getAsLong() < sequence && !halted.getAsBoolean()) {
+                        published.await(10, TimeUnit.MILLISECONDS);
+                    }
+
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return dependency.getAsLong();
+
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            long available;
+            while ((available = dependency.getAsLong()) < sequence && !halted.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
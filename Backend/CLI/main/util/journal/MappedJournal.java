@@ -0,0 +1,271 @@
+package main.util.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of fixed 32-byte records in memory-mapped segment files.
+ * A record is a type, a key and two values, stamped with the epoch milliseconds of the append.
+ * Any number of threads append at once: each claims the next index with one atomic increment and writes its
+ * record straight into the mapped segment, no lock and no system call. The record's first 8 bytes are its
+ * commit marker (index + 1), written last with release semantics, so a reader that sees the marker sees the
+ * whole record, and a record that was claimed but never completed (a crash) ends the readable journal.
+ * Segments hold a fixed number of records and are named after their first index; a new one is mapped when
+ * the first record past the current segment is claimed.
+ * Mapped writes survive a crash of the process; {@link #force()} also makes them survive a crash of the machine.
+ */
+public class MappedJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 32;
+
+    // Record layout
+    private static final int MARKER = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int TYPE = 16;
+    private static final int KEY = 20;
+    private static final int FIRST = 24;
+    private static final int SECOND = 28;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final String SUFFIX = ".seg";
+
+    // Reads the records of a journal
+    public interface RecordVisitor {
+        void visit(long index, long timestamp, int type, int key, int first, int second);
+    }
+
+    private final Path directory;
+    private final String name; // Prefix of the segment file names
+    private final int recordsPerSegment;
+    private final AtomicLong next = new AtomicLong(); // Index the next append claims
+    private final TreeMap<Long, Segment> segments = new TreeMap<>(); // Mapped segments by first index, guarded by this
+    private volatile Segment current; // Segment of the latest claims, checked first
+
+    public MappedJournal(Path directory, String name, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.recordsPerSegment = Math.max(1, recordsPerSegment);
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Appends a record and returns its index.
+     * Safe to call from any number of threads; records are ordered by the index they claimed.
+     */
+    public long append(int type, int key, int first, int second) {
+        long index = next.getAndIncrement();
+        Segment segment = current;
+        if (segment == null || !segment.contains(index)) {
+            segment = segment(index);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.offset(index);
+        buffer.putLong(offset + TIMESTAMP, System.currentTimeMillis());
+        buffer.putInt(offset + TYPE, type);
+        buffer.putInt(offset + KEY, key);
+        buffer.putInt(offset + FIRST, first);
+        buffer.putInt(offset + SECOND, second);
+        LONG.setRelease(buffer, offset + MARKER, index + 1);
+        return index;
+    }
+
+    /**
+     * Visits the committed records from the given index on and returns the index after the last one.
+     * Stops at the first record that is not committed yet, so while appends run the result is a
+     * position up to which the journal is complete.
+     */
+    public long read(long from, RecordVisitor visitor) {
+        long index = from;
+        Segment segment;
+        while ((segment = existingSegment(index)) != null) {
+            MappedByteBuffer buffer = segment.buffer;
+            for (; segment.contains(index); index++) {
+                int offset = segment.offset(index);
+                if ((long) LONG.getAcquire(buffer, offset + MARKER) != index + 1) {
+                    return index;
+                }
+                visitor.visit(index, buffer.getLong(offset + TIMESTAMP), buffer.getInt(offset + TYPE),
+                        buffer.getInt(offset + KEY), buffer.getInt(offset + FIRST), buffer.getInt(offset + SECOND));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Replays the records written before a restart from the given index on, then continues the journal after
+     * the last complete one. Records left behind it by appends that were in flight at a crash are erased, so
+     * they can never be mistaken for records of this run. Call before the first append.
+     * If the index lies before the oldest segment, e.g. because the snapshot that covered the older ones was
+     * lost, the replay starts at the oldest segment instead of discarding the ones that are left.
+     * Returns the index after the last replayed record.
+     */
+    public synchronized long recover(long from, RecordVisitor visitor) {
+        List<Long> files = segmentFiles();
+        if (existingSegment(from) == null && !files.isEmpty() && files.get(0) > from) {
+            System.out.println("Journal records " + from + " to " + files.get(0) + " are missing, replaying from "
+                    + files.get(0) + ".");
+            from = files.get(0);
+        }
+        long end = read(from, visitor);
+        Segment last = existingSegment(end);
+        if (last != null) {
+            for (long index = end; last.contains(index); index++) {
+                int offset = last.offset(index);
+                if (last.buffer.getLong(offset + MARKER) != 0) {
+                    last.buffer.putLong(offset + MARKER, 0);
+                }
+            }
+        }
+        for (long first : files) {
+            if (first > end - (end % recordsPerSegment) || first + recordsPerSegment <= from) {
+                segments.remove(first);
+                delete(first);
+            }
+        }
+        next.set(end);
+        return end;
+    }
+
+    // Writes the mapped segments to the storage device
+    public void force() {
+        List<Segment> mapped;
+        synchronized (this) {
+            mapped = new ArrayList<>(segments.values());
+        }
+        for (Segment segment : mapped) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all lie before the index, e.g. once a snapshot covers them.
+     * Their mappings are released by the garbage collector.
+     */
+    public synchronized void deleteBefore(long index) {
+        for (long first : segmentFiles()) {
+            if (first + recordsPerSegment <= index) {
+                Segment removed = segments.remove(first);
+                if (removed != null && removed == current) {
+                    current = null;
+                }
+                delete(first);
+            }
+        }
+    }
+
+    // Index the next append claims, i.e. the number of records appended since the journal began
+    public long getNextIndex() {
+        return next.get();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segmentFiles().size();
+    }
+
+    @Override
+    public void close() {
+        force();
+        synchronized (this) {
+            segments.clear();
+            current = null;
+        }
+    }
+
+    // Mapped segment of a claimed index, mapping (and creating) it on first use
+    private synchronized Segment segment(long index) {
+        long first = index - index % recordsPerSegment;
+        Segment segment = segments.get(first);
+        if (segment == null) {
+            segment = map(first, true);
+            segments.put(first, segment);
+        }
+        if (current == null || segment.first > current.first) {
+            current = segment;
+        }
+        return segment;
+    }
+
+    // Mapped segment of an index if its file exists, or null
+    private synchronized Segment existingSegment(long index) {
+        long first = index - index % recordsPerSegment;
+        Segment segment = segments.get(first);
+        if (segment == null && Files.exists(file(first))) {
+            segment = map(first, false);
+            segments.put(first, segment);
+        }
+        return segment;
+    }
+
+    private Segment map(long first, boolean create) {
+        try (FileChannel channel = FileChannel.open(file(first), create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE})) {
+            // Mapping past the end grows the file; the new records read as zero, i.e. not committed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            buffer.order(ByteOrder.nativeOrder()); // Same byte order as the marker's VarHandle
+            return new Segment(first, buffer);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + file(first) + ".", e);
+        }
+    }
+
+    // First indexes of the segment files on disk, in order
+    private List<Long> segmentFiles() {
+        List<Long> firsts = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(file -> file.startsWith(name + "-") && file.endsWith(SUFFIX))
+                    .forEach(file -> firsts.add(Long.parseLong(file.substring(name.length() + 1, file.length() - SUFFIX.length()))));
+
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Failed to list journal segments: " + e.getMessage());
+        }
+        firsts.sort(null);
+        return firsts;
+    }
+
+    private void delete(long first) {
+        try {
+            Files.deleteIfExists(file(first));
+
+        } catch (IOException e) {
+            System.out.println("Failed to delete journal segment: " + e.getMessage());
+        }
+    }
+
+    // Zero-padded so the files sort by their first index
+    private Path file(long first) {
+        return directory.resolve(String.format("%s-%020d%s", name, first, SUFFIX));
+    }
+
+    private final class Segment {
+        private final long first; // Index of the first record
+        private final MappedByteBuffer buffer;
+
+        private Segment(long first, MappedByteBuffer buffer) {
+            this.first = first;
+            this.buffer = buffer;
+        }
+
+        boolean contains(long index) {
+            return index >= first && index < first + recordsPerSegment;
+        }
+
+        int offset(long index) {
+            return (int) (index - first) * RECORD_SIZE;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package main.util.validation;
+
+import main.dao.impl.EventDAOImpl;
+
+public class EventValidation {
+    // Method to validate event name
+    public boolean validateEventName(String eventName) {
+        if (eventName == null || eventName.trim().isEmpty()) {
+            System.out.println("Event name cannot be empty or null.");
+            return false;
+        }
+        if (eventName.length() > 45) {
+            System.out.println("Event name cannot exceed 45 characters.");
+            return false;
+        }
+        return true;
+    }
+
+    // Method to validate the maximum ticket capacity of an event
+    public boolean validateMaxCapacity(int maxCapacity) {
+        if (maxCapacity <= 0) {
+            System.out.println("Max ticket capacity must be greater than 0.");
+            return false;
+        }
+        return true;
+    }
+
+    // Method to validate the tickets of an event against its capacity
+    public boolean validateTotalTickets(int totalTickets, int maxCapacity) {
+        if (totalTickets < 0) {
+            System.out.println("Total tickets cannot be negative.");
+            return false;
+        }
+        if (totalTickets > maxCapacity) {
+            System.out.println("Total tickets cannot exceed the max ticket capacity (" + maxCapacity + ").");
+            return false;
+        }
+        return true;
+    }
+
+    // Method to validate event Id is available in DB
+    public boolean existsEvent(int eventId) {
+        if (!new EventDAOImpl().existsEvent(eventId)) {
+            System.out.println("No event found with ID " + eventId + ".");
+            return false;
+        }
+        return true;
+    }
+}
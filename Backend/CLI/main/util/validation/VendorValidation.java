@@ -1,6 +1,7 @@
 package main.util.validation;
 
 import main.dao.impl.VendorDAOImpl;
+import main.util.Interval;
 
 public class VendorValidation {
     // Method to validate vendor name
@@ -33,14 +34,15 @@ public class VendorValidation {
         return true;
     }
 
-    // Method to validate the release rate in seconds
-    public boolean validateVendorReleaseRateSec(int vendorReleaseRateSec) {
-        if (vendorReleaseRateSec <= 0) {
-            System.out.println("Release rate must be greater than 0 seconds.");
+    // Method to validate the release interval in microseconds (-1 if the input was not an interval)
+    public boolean validateVendorReleaseInterval(int vendorReleaseIntervalMicros) {
+        if (vendorReleaseIntervalMicros < 0) {
+            System.out.println("Release rate must be an interval such as 30s, 250ms or 500us, or a rate such as 20/s.");
             return false;
         }
-        if (vendorReleaseRateSec > 300) { // Example max threshold: 5 minutes
-            System.out.println("Release rate cannot exceed 3600 seconds (5 minutes).");
+        if (!Interval.isValid(vendorReleaseIntervalMicros)) {
+            System.out.println("Release rate must be between " + Interval.format(Interval.MIN_MICROS) +
+                    " and " + Interval.format(Interval.MAX_MICROS) + ".");
             return false;
         }
         return true;
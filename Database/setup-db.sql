@@ -10,10 +10,33 @@ CREATE TABLE IF NOT EXISTS system_config (
 
 INSERT OR IGNORE INTO system_config (config_key, config_value) 
 VALUES 
-    ("total_tickets", 50),
-    ("ticket_release_rate", 60),
-    ("customer_retrieval_rate", 60),
-    ("max_ticket_capacity", 500);
+    ("ticket_release_interval_us", 60000000), -- Shortest vendor release interval in microseconds
+    ("customer_retrieval_interval_us", 60000000); -- Interval between customer arrivals in microseconds
+
+
+-- Table for events, each with its own ticket inventory
+CREATE TABLE IF NOT EXISTS events (
+    event_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    event_name TEXT UNIQUE NOT NULL,
+    total_tickets INTEGER NOT NULL, -- Tickets currently in the event's pool
+    max_ticket_capacity INTEGER NOT NULL -- Maximum tickets the event's pool may hold
+);
+
+INSERT OR IGNORE INTO events (event_id, event_name, total_tickets, max_ticket_capacity)
+VALUES
+    (1, "Default Event", 50, 500);
+
+
+-- Table for the seat sections of events with assigned seating, ranked by section_id
+CREATE TABLE IF NOT EXISTS event_sections (
+    section_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    event_id INTEGER NOT NULL,
+    section_name TEXT NOT NULL,
+    row_count INTEGER NOT NULL,
+    seats_per_row INTEGER NOT NULL,
+    seat_bitmap BLOB, -- One bit per seat, 1 = taken; every row starts on a new 64-bit word
+    UNIQUE (event_id, section_name)
+);
 
 
 -- Table for vendors
@@ -21,21 +44,27 @@ CREATE TABLE IF NOT EXISTS vendors (
     vendor_id INTEGER PRIMARY KEY AUTOINCREMENT,
     vendor_name TEXT UNIQUE NOT NULL,
     tickets_per_release INTEGER NOT NULL, -- Number of tickets added per release
-    release_rate_sec INTEGER NOT NULL  -- Frequency of ticket release in seconds
+    release_interval_us INTEGER NOT NULL, -- Interval between ticket releases in microseconds
+    event_id INTEGER NOT NULL DEFAULT 1 -- Event the vendor releases tickets for
 );
 
 
-INSERT OR IGNORE INTO vendors (vendor_name, tickets_per_release, release_rate_sec)
+INSERT OR IGNORE INTO vendors (vendor_name, tickets_per_release, release_interval_us)
 VALUES 
-    ("vendor 1", 1, 30),
-    ("vendor 2", 2, 60),
-    ("vendor 3", 3, 120);
+    ("vendor 1", 1, 30000000),
+    ("vendor 2", 2, 60000000),
+    ("vendor 3", 3, 120000000);
 
 
--- Table for sales log
-CREATE TABLE IF NOT EXISTS sales_log (
-    sale_id INTEGER PRIMARY KEY AUTOINCREMENT,
-    date_time TEXT NOT NULL,
-    log TEXT NOT NULL
+-- Catalog of the sales log, one row per UTC day. The CLI keeps the typed rows of a day (one per ticket
+-- release or purchase) in its own table "sales_events_yyyyMMdd", created by the first sale of the day with an
+-- FTS5 index "sales_events_yyyyMMdd_fts" of its vendor names and seats, and compacts old days into compressed
+-- files in "sales_archive"; retention drops whole days
+CREATE TABLE IF NOT EXISTS sales_partitions (
+    day INTEGER PRIMARY KEY, -- Days since 1970-01-01 UTC
+    table_name TEXT, -- Partition table of the day, null while it has none
+    live_rows INTEGER NOT NULL DEFAULT 0, -- Rows in the table
+    archive_file TEXT, -- Compressed archive of the day in the archive directory, or null
+    archived_rows INTEGER NOT NULL DEFAULT 0, -- Rows in the archive
+    last_sale_id INTEGER NOT NULL DEFAULT 0 -- Highest sale ID of the day
 );
-
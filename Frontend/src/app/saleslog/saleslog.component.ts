@@ -1,12 +1,13 @@
 import {Component, OnInit} from '@angular/core';
-import {NgForOf} from '@angular/common';
+import {DatePipe, NgForOf} from '@angular/common';
 import {HttpClient} from '@angular/common/http';
 
 
 @Component({
   selector: 'app-saleslog',
   imports: [
-    NgForOf
+    NgForOf,
+    DatePipe
   ],
   templateUrl: './saleslog.component.html',
   styleUrl: './saleslog.component.css'
@@ -34,13 +35,27 @@ export class SaleslogComponent implements OnInit {
       .subscribe(res => {
         this.list=res.data.data_list;
         this.logCount = res.data.log_count;
-        this.list.sort((a, b) => b.id - a.id);
+        this.list.sort((a, b) => b.occurredAt - a.occurredAt || b.id - a.id);
         if (this.logCount > (this.pageNumber + 1) * 25) {
           this.nextBtn = false;
         }
       });
   }
 
+  // Renders the log line of a sales event; lines of the default event keep their single-event format
+  describe(entry: any): string {
+    let line: string;
+    if (entry.eventType === 'RELEASE') {
+      line = 'Add ' + entry.quantity + ' tickets into ticket pool [ID - ' + entry.actorId + '] Vendor ' + entry.actorName;
+    } else {
+      line = 'Buy ' + entry.quantity + (entry.quantity === 1 ? ' ticket' : ' tickets')
+        + ' from ticket pool [ID - ' + entry.actorId + '] '
+        + (entry.vip ? 'VIP Customer' : 'Customer')
+        + (entry.seats ? ' seats ' + entry.seats : '');
+    }
+    return entry.eventId === 1 ? line : line + ' [Event - ' + entry.eventId + ']';
+  }
+
   next(): void {
     if (this.logCount > (this.pageNumber + 1) * 25) { // Check if there are more logs to fetch
       this.pageNumber++;